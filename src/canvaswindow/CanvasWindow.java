@@ -4,7 +4,9 @@ import java.awt.Color;
 import java.awt.Component;
 import java.awt.Dimension;
 import java.awt.EventQueue;
+import java.awt.Font;
 import java.awt.Graphics;
+import java.awt.Rectangle;
 import java.awt.event.KeyAdapter;
 import java.awt.event.KeyEvent;
 import java.awt.event.MouseAdapter;
@@ -21,8 +23,12 @@ import java.io.IOException;
 import java.io.InputStreamReader;
 import java.io.PrintWriter;
 import java.util.ArrayList;
-import java.util.Timer;
-import java.util.TimerTask;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 
 import javax.imageio.ImageIO;
 import javax.swing.JFrame;
@@ -277,16 +283,41 @@ public class CanvasWindow {
 	private String recordingPath;
 	private CanvasWindowRecording recording;
 
-	private static Timer clickTimer = new Timer(); // Shared timer
+	private static final ScheduledExecutorService clickScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+		Thread thread = new Thread(runnable, "CanvasWindow click scheduler");
+		thread.setDaemon(true);
+		return thread;
+	}); // Shared by all windows
+	private ScheduledFuture<?> pendingClick; // Single click waiting for a possible second click
+	private MouseEvent pendingClickEvent;
 	private static final int DOUBLE_CLICK_DELAY = 500; // Delay in milliseconds
 
+	private static final int FRAME_RATE = 60; // Frames per second
+	private final javax.swing.Timer frameTimer;
+	private boolean repaintRequested;
+	private Rectangle repaintRegion; // Part of the canvas to repaint at the next frame, null for all of it
+	private MouseEvent pendingDrag;
+
+	// Background rendering. Except for the images, all of this state is only used on the AWT dispatch thread.
+	private ExecutorService renderer;
+	private final Object frameLock = new Object(); // Guards the completed frame
+	private BufferedImage renderImage; // Only used by the render thread
+	private BufferedImage completedFrame;
+	private boolean rendering;
+	private boolean renderRequested;
+	private Rectangle renderRegion; // Part of the canvas to render next, null for all of it
+	private Dimension renderSize; // Size of the canvas when the last frame was started
+
 	void updateFrameTitle() {
 		frame.setTitle(recording == null ? title : title + " - Recording: " + recording.items.size() + " items recorded");
 	}
 
 	public void setTitle(String title) {
 		this.title = title;
-		updateFrameTitle();
+		if (EventQueue.isDispatchThread())
+			updateFrameTitle();
+		else
+			EventQueue.invokeLater(this::updateFrameTitle);
 	}
 
 	/**
@@ -294,8 +325,42 @@ public class CanvasWindow {
 	 *
 	 * @param title Window title
 	 */
+	@SuppressWarnings("this-escape") // The timer only calls back once it is started, after the window is shown
 	protected CanvasWindow(String title) {
 		this.title = title;
+		frameTimer = new javax.swing.Timer(1000 / FRAME_RATE, e -> frame());
+		frameTimer.setInitialDelay(0);
+		frameTimer.setCoalesce(true);
+	}
+
+	/**
+	 * Turns rendering on a background thread on or off. When it is on, method {@link #snapshot(Rectangle, Font, Color)}
+	 * captures each frame on the AWT dispatch thread, and a dedicated render thread draws the captured frame into an
+	 * off-screen image; the AWT dispatch thread only draws the last completed frame on the screen. Since the render
+	 * thread only uses the snapshot, events are handled while a frame is being rendered. Background rendering is not
+	 * used while a session is recorded.
+	 * <p>
+	 * You must call this method from the AWT dispatch thread.
+	 *
+	 * @param enabled Whether to render in the background.
+	 */
+	public final void setBackgroundRendering(boolean enabled) {
+		if (enabled && renderer == null) {
+			renderer = Executors.newSingleThreadExecutor(runnable -> {
+				Thread thread = new Thread(runnable, "CanvasWindow renderer");
+				thread.setDaemon(true);
+				return thread;
+			});
+			repaint();
+		} else if (!enabled && renderer != null) {
+			renderer.shutdown();
+			renderer = null;
+			repaint();
+		}
+	}
+
+	private boolean isRenderingInBackground() {
+		return renderer != null && recording == null;
 	}
 
 	public final void recordSession(String path) {
@@ -305,11 +370,144 @@ public class CanvasWindow {
 
 	/**
 	 * Call this method if the canvas is out of date and needs to be repainted.
-	 * This will cause method {@link #paint(Graphics)} to be called after the current call of method handleMouseEvent or handleKeyEvent finishes.
+	 * This will cause method {@link #paint(Graphics)} to be called at the next frame, at most {@link #FRAME_RATE} times per second,
+	 * however many times this method is called in between.
 	 */
 	protected final void repaint() {
-		if (panel != null)
-			panel.repaint();
+		if (panel != null) {
+			repaintRequested = true;
+			repaintRegion = null;
+			frameTimer.start();
+		}
+	}
+
+	/**
+	 * Call this method if only the given region of the canvas is out of date. Like {@link #repaint()}, this will cause
+	 * method {@link #paint(Graphics)} to be called at the next frame, with the clip bounds of the graphics limited to the
+	 * union of the regions requested since the previous frame.
+	 *
+	 * @param x      The x-coordinate of the region.
+	 * @param y      The y-coordinate of the region.
+	 * @param width  The width of the region.
+	 * @param height The height of the region.
+	 */
+	protected final void repaint(int x, int y, int width, int height) {
+		if (panel != null) {
+			Rectangle region = new Rectangle(x, y, width, height);
+			if (!repaintRequested)
+				repaintRegion = region;
+			else if (repaintRegion != null)
+				repaintRegion = repaintRegion.union(region);
+			repaintRequested = true;
+			frameTimer.start();
+		}
+	}
+
+	/**
+	 * Called by the frame timer on the AWT dispatch thread. Delivers the drag that was merged since the previous frame
+	 * and repaints the canvas if that was requested. The timer is stopped once a frame has nothing to do.
+	 */
+	private void frame() {
+		boolean idle = pendingDrag == null && !repaintRequested;
+		flushDrag();
+		if (repaintRequested) {
+			repaintRequested = false;
+			if (isRenderingInBackground())
+				requestRender(repaintRegion);
+			else if (repaintRegion == null)
+				panel.repaint();
+			else
+				panel.repaint(repaintRegion);
+			repaintRegion = null;
+		}
+		if (idle)
+			frameTimer.stop();
+	}
+
+	/**
+	 * Asks the render thread to render the given region of the canvas. Requests made while a frame is being rendered are
+	 * merged and rendered after it.
+	 *
+	 * @param region The region to render, or null for the whole canvas.
+	 */
+	private void requestRender(Rectangle region) {
+		if (!renderRequested)
+			renderRegion = region;
+		else if (renderRegion != null)
+			renderRegion = region == null ? null : renderRegion.union(region);
+		renderRequested = true;
+		if (!rendering)
+			startRender();
+	}
+
+	/**
+	 * Captures the next frame and hands it to the render thread.
+	 */
+	private void startRender() {
+		Dimension size = panel.getSize();
+		if (size.width <= 0 || size.height <= 0)
+			return;
+		Rectangle region = size.equals(renderSize) ? renderRegion : null;
+		if (region == null)
+			region = new Rectangle(size);
+		renderRequested = false;
+		renderRegion = null;
+		renderSize = size;
+		rendering = true;
+		Font font = panel.getFont();
+		Consumer<Graphics> frame = snapshot(region, font, Color.BLACK);
+		Rectangle rendered = region;
+		ExecutorService renderer = this.renderer;
+		renderer.execute(() -> {
+			render(frame, rendered, size.width, size.height, font);
+			EventQueue.invokeLater(() -> renderCompleted(rendered));
+		});
+	}
+
+	/**
+	 * Renders a region of the canvas into the off-screen image and copies it into the completed frame. Runs on the render
+	 * thread.
+	 *
+	 * @param frame  The frame captured by {@link #snapshot(Rectangle, Font, Color)}.
+	 * @param region The region to render. It covers the whole canvas if its size changed since the previous frame.
+	 */
+	private void render(Consumer<Graphics> frame, Rectangle region, int width, int height, Font font) {
+		if (renderImage == null || renderImage.getWidth() != width || renderImage.getHeight() != height)
+			renderImage = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+		Graphics imageGraphics = renderImage.getGraphics();
+		imageGraphics.setClip(region);
+		imageGraphics.setFont(font);
+		imageGraphics.setColor(Color.WHITE);
+		imageGraphics.fillRect(0, 0, width, height);
+		imageGraphics.setColor(Color.BLACK);
+		frame.accept(imageGraphics);
+		imageGraphics.dispose();
+		synchronized (frameLock) {
+			if (completedFrame == null || completedFrame.getWidth() != width || completedFrame.getHeight() != height)
+				completedFrame = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+			Graphics frameGraphics = completedFrame.getGraphics();
+			frameGraphics.setClip(region);
+			frameGraphics.drawImage(renderImage, 0, 0, null);
+			frameGraphics.dispose();
+		}
+	}
+
+	private void renderCompleted(Rectangle region) {
+		rendering = false;
+		panel.repaint(region);
+		if (renderRequested && isRenderingInBackground())
+			startRender();
+	}
+
+	/**
+	 * Delivers the pending drag event, if any. Called before any other event is handled, so that events keep their order.
+	 */
+	private void flushDrag() {
+		if (pendingDrag != null) {
+			MouseEvent e = pendingDrag;
+			pendingDrag = null;
+			sendMouseEvent(e, e.getClickCount());
+		}
 	}
 
 	/**
@@ -322,38 +520,53 @@ public class CanvasWindow {
 	protected void paint(Graphics g) {
 	}
 
+	/**
+	 * Called on the AWT dispatch thread to capture a frame that is rendered in the background. The returned painter is
+	 * called on the render thread, while events are handled, so it must not use anything the handling of events
+	 * modifies.
+	 * <p>
+	 * By default, method {@link #paint(Graphics)} is called with a {@link RecordingGraphics}, and the painter replays the
+	 * recording. Override this method to draw more of the frame on the render thread.
+	 *
+	 * @param region The region of the canvas to render.
+	 * @param font   The font to paint with.
+	 * @param color  The color to paint with.
+	 * @return The painter that draws the frame.
+	 */
+	protected Consumer<Graphics> snapshot(Rectangle region, Font font, Color color) {
+		RecordingGraphics recording = new RecordingGraphics(font, color, region);
+		paint(recording);
+		return recording::replay;
+	}
+
 	private void handleMouseEvent_(MouseEvent e) {
 		//System.out.println(e);
+		if (e.getID() == MouseEvent.MOUSE_DRAGGED) {
+			// only the last drag of a frame is delivered, it covers the movement of the ones it replaces
+			pendingDrag = e;
+			frameTimer.start();
+			return;
+		}
+		flushDrag();
 		if (e.getID() == java.awt.event.MouseEvent.MOUSE_CLICKED) {
-			clickTimer.cancel();
-			clickTimer = new Timer();
+			if (pendingClick != null)
+				pendingClick.cancel(false);
+			pendingClick = null;
+			pendingClickEvent = null;
 
 			if (e.getClickCount() == 2) {
-				Runnable doubleClickListener = new Runnable() {
-
-					@Override
-					public void run() {
-						sendMouseEvent(e, 2);
-					}
-
-				};
-				doubleClickListener.run();
+				sendMouseEvent(e, 2);
 			} else {
-				clickTimer.schedule(new TimerTask() {
-
-					@Override
-					public void run() {
-						Runnable singleClickListener = new Runnable() {
-
-							@Override
-							public void run() {
-								sendMouseEvent(e, 1);
-							}
-						};
-						singleClickListener.run();
+				// deliver the single click on the dispatch thread unless a second click cancels it first
+				pendingClickEvent = e;
+				pendingClick = clickScheduler.schedule(() -> EventQueue.invokeLater(() -> {
+					// a later click may have replaced this one after the delay expired
+					if (pendingClickEvent == e) {
+						pendingClick = null;
+						pendingClickEvent = null;
+						sendMouseEvent(e, 1);
 					}
-
-				}, DOUBLE_CLICK_DELAY);
+				}), DOUBLE_CLICK_DELAY, TimeUnit.MILLISECONDS);
 			}
 
 		} else {
@@ -370,12 +583,14 @@ public class CanvasWindow {
 
 	/**
 	 * Called when the user presses (id == MouseEvent.MOUSE_PRESSED), releases (id == MouseEvent.MOUSE_RELEASED), or drags (id == MouseEvent.MOUSE_DRAGGED) the mouse.
+	 * Consecutive drags within one frame are merged, only the position of the last one is passed.
 	 */
 	protected void handleMouseEvent(int id, int x, int y, int clickCount) {
 	}
 
 	private void handleKeyEvent_(KeyEvent e) {
 		//System.out.println(e);
+		flushDrag();
 		if (recording != null)
 			recording.items.add(new KeyEventItem(e.getID(), e.getKeyCode(), e.getKeyChar(), e.getModifiersEx()));
 		handleKeyEvent(e.getID(), e.getKeyCode(), e.getKeyChar(), e.getModifiersEx());
@@ -459,6 +674,15 @@ public class CanvasWindow {
 				g.drawImage(image, 0, 0, null);
 				recording.items.add(new PaintItem(image));
 				updateFrameTitle();
+			} else if (isRenderingInBackground()) {
+				boolean outdated;
+				synchronized (frameLock) {
+					if (completedFrame != null)
+						g.drawImage(completedFrame, 0, 0, null);
+					outdated = completedFrame == null || completedFrame.getWidth() != getWidth() || completedFrame.getHeight() != getHeight();
+				}
+				if (outdated)
+					requestRender(null);
 			} else {
 				CanvasWindow.this.paint(g);
 			}
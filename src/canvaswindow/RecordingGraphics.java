@@ -0,0 +1,349 @@
+package canvaswindow;
+
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.FontMetrics;
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.Image;
+import java.awt.Polygon;
+import java.awt.Rectangle;
+import java.awt.Shape;
+import java.awt.geom.AffineTransform;
+import java.awt.geom.Area;
+import java.awt.image.BufferedImage;
+import java.awt.image.ImageObserver;
+import java.text.AttributedCharacterIterator;
+import java.text.AttributedString;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * A Graphics object that does not draw anything, but records what is drawn on it so that it can be drawn later, possibly
+ * on another thread, with {@link #replay(Graphics)}. Each operation is recorded together with the color, font, clip and
+ * translation it was performed with, and with copies of its arguments, so the recording does not depend on the state of
+ * whatever drew it. Images are the exception: they are drawn as they are when the recording is replayed.
+ * <p>
+ * The Graphics objects obtained with {@link #create()} add to the same recording. Once the recording is complete, it can
+ * be replayed any number of times, on any thread.
+ */
+public final class RecordingGraphics extends Graphics {
+
+	/**
+	 * The settings an operation is performed with. The clip is in the coordinates of the recording, before translation,
+	 * and is null if nothing is clipped. The XOR color is null in paint mode.
+	 */
+	private record State(Color color, Color xorColor, Font font, Shape clip, int translateX, int translateY) {
+	}
+
+	private record Operation(State state, Consumer<Graphics> draw) {
+	}
+
+	private final List<Operation> operations;
+	private final Graphics metrics; // Measures fonts like the graphics of an image does
+	private State state;
+
+	/**
+	 * Initializes an empty recording.
+	 *
+	 * @param font  The font the recording starts with.
+	 * @param color The color the recording starts with.
+	 * @param clip  The region the recording starts clipped to, or null to start without a clip.
+	 */
+	public RecordingGraphics(Font font, Color color, Rectangle clip) {
+		this(new ArrayList<>(), new BufferedImage(1, 1, BufferedImage.TYPE_INT_ARGB).createGraphics(),
+				new State(color, null, font, clip == null ? null : new Rectangle(clip), 0, 0));
+	}
+
+	private RecordingGraphics(List<Operation> operations, Graphics metrics, State state) {
+		this.operations = operations;
+		this.metrics = metrics;
+		this.state = state;
+	}
+
+	/**
+	 * Draws the recorded operations on the given Graphics object, in the order they were recorded. The clips of the
+	 * operations are intersected with the clip of target, and their coordinates are relative to its translation.
+	 *
+	 * @param target The Graphics object to draw on. Its settings are not changed.
+	 */
+	public void replay(Graphics target) {
+		State current = null;
+		Graphics g = null;
+		for (Operation operation : operations) {
+			if (operation.state != current) {
+				if (g != null)
+					g.dispose();
+				current = operation.state;
+				g = target.create();
+				if (current.clip instanceof Rectangle clip)
+					g.clipRect(clip.x, clip.y, clip.width, clip.height);
+				else if (current.clip != null && g instanceof Graphics2D graphics2D)
+					graphics2D.clip(current.clip);
+				else if (current.clip != null) {
+					Rectangle bounds = current.clip.getBounds();
+					g.clipRect(bounds.x, bounds.y, bounds.width, bounds.height);
+				}
+				g.translate(current.translateX, current.translateY);
+				g.setColor(current.color);
+				g.setFont(current.font);
+				if (current.xorColor != null)
+					g.setXORMode(current.xorColor);
+			}
+			operation.draw.accept(g);
+		}
+		if (g != null)
+			g.dispose();
+	}
+
+	/**
+	 * @return Whether nothing has been drawn on this recording yet.
+	 */
+	public boolean isEmpty() {
+		return operations.isEmpty();
+	}
+
+	private void record(Consumer<Graphics> draw) {
+		operations.add(new Operation(state, draw));
+	}
+
+	private void setDeviceClip(Shape clip) {
+		state = new State(state.color, state.xorColor, state.font, clip, state.translateX, state.translateY);
+	}
+
+	@Override
+	public Graphics create() {
+		return new RecordingGraphics(operations, metrics, state);
+	}
+
+	@Override
+	public void translate(int x, int y) {
+		state = new State(state.color, state.xorColor, state.font, state.clip, state.translateX + x, state.translateY + y);
+	}
+
+	@Override
+	public Color getColor() {
+		return state.color;
+	}
+
+	@Override
+	public void setColor(Color c) {
+		if (c != null && !c.equals(state.color))
+			state = new State(c, state.xorColor, state.font, state.clip, state.translateX, state.translateY);
+	}
+
+	@Override
+	public void setPaintMode() {
+		if (state.xorColor != null)
+			state = new State(state.color, null, state.font, state.clip, state.translateX, state.translateY);
+	}
+
+	@Override
+	public void setXORMode(Color c1) {
+		state = new State(state.color, c1, state.font, state.clip, state.translateX, state.translateY);
+	}
+
+	@Override
+	public Font getFont() {
+		return state.font;
+	}
+
+	@Override
+	public void setFont(Font font) {
+		if (font != null && !font.equals(state.font))
+			state = new State(state.color, state.xorColor, font, state.clip, state.translateX, state.translateY);
+	}
+
+	@Override
+	public FontMetrics getFontMetrics(Font f) {
+		return metrics.getFontMetrics(f);
+	}
+
+	@Override
+	public Rectangle getClipBounds() {
+		if (state.clip == null)
+			return null;
+		Rectangle bounds = state.clip.getBounds();
+		bounds.translate(-state.translateX, -state.translateY);
+		return bounds;
+	}
+
+	@Override
+	public void clipRect(int x, int y, int width, int height) {
+		Rectangle region = new Rectangle(x + state.translateX, y + state.translateY, width, height);
+		if (state.clip == null)
+			setDeviceClip(region);
+		else if (state.clip instanceof Rectangle clip)
+			setDeviceClip(clip.intersection(region));
+		else {
+			Area clip = new Area(state.clip);
+			clip.intersect(new Area(region));
+			setDeviceClip(clip);
+		}
+	}
+
+	@Override
+	public void setClip(int x, int y, int width, int height) {
+		setDeviceClip(new Rectangle(x + state.translateX, y + state.translateY, width, height));
+	}
+
+	@Override
+	public Shape getClip() {
+		if (state.clip == null)
+			return null;
+		return AffineTransform.getTranslateInstance(-state.translateX, -state.translateY).createTransformedShape(state.clip);
+	}
+
+	@Override
+	public void setClip(Shape clip) {
+		if (clip == null)
+			setDeviceClip(null);
+		else if (clip instanceof Rectangle rectangle)
+			setClip(rectangle.x, rectangle.y, rectangle.width, rectangle.height);
+		else
+			setDeviceClip(AffineTransform.getTranslateInstance(state.translateX, state.translateY).createTransformedShape(clip));
+	}
+
+	@Override
+	public void copyArea(int x, int y, int width, int height, int dx, int dy) {
+		record(g -> g.copyArea(x, y, width, height, dx, dy));
+	}
+
+	@Override
+	public void drawLine(int x1, int y1, int x2, int y2) {
+		record(g -> g.drawLine(x1, y1, x2, y2));
+	}
+
+	@Override
+	public void drawRect(int x, int y, int width, int height) {
+		record(g -> g.drawRect(x, y, width, height));
+	}
+
+	@Override
+	public void fillRect(int x, int y, int width, int height) {
+		record(g -> g.fillRect(x, y, width, height));
+	}
+
+	@Override
+	public void clearRect(int x, int y, int width, int height) {
+		record(g -> g.clearRect(x, y, width, height));
+	}
+
+	@Override
+	public void drawRoundRect(int x, int y, int width, int height, int arcWidth, int arcHeight) {
+		record(g -> g.drawRoundRect(x, y, width, height, arcWidth, arcHeight));
+	}
+
+	@Override
+	public void fillRoundRect(int x, int y, int width, int height, int arcWidth, int arcHeight) {
+		record(g -> g.fillRoundRect(x, y, width, height, arcWidth, arcHeight));
+	}
+
+	@Override
+	public void drawOval(int x, int y, int width, int height) {
+		record(g -> g.drawOval(x, y, width, height));
+	}
+
+	@Override
+	public void fillOval(int x, int y, int width, int height) {
+		record(g -> g.fillOval(x, y, width, height));
+	}
+
+	@Override
+	public void drawArc(int x, int y, int width, int height, int startAngle, int arcAngle) {
+		record(g -> g.drawArc(x, y, width, height, startAngle, arcAngle));
+	}
+
+	@Override
+	public void fillArc(int x, int y, int width, int height, int startAngle, int arcAngle) {
+		record(g -> g.fillArc(x, y, width, height, startAngle, arcAngle));
+	}
+
+	@Override
+	public void drawPolyline(int[] xPoints, int[] yPoints, int nPoints) {
+		int[] xs = xPoints.clone();
+		int[] ys = yPoints.clone();
+		record(g -> g.drawPolyline(xs, ys, nPoints));
+	}
+
+	@Override
+	public void drawPolygon(int[] xPoints, int[] yPoints, int nPoints) {
+		int[] xs = xPoints.clone();
+		int[] ys = yPoints.clone();
+		record(g -> g.drawPolygon(xs, ys, nPoints));
+	}
+
+	@Override
+	public void drawPolygon(Polygon p) {
+		drawPolygon(p.xpoints, p.ypoints, p.npoints);
+	}
+
+	@Override
+	public void fillPolygon(int[] xPoints, int[] yPoints, int nPoints) {
+		int[] xs = xPoints.clone();
+		int[] ys = yPoints.clone();
+		record(g -> g.fillPolygon(xs, ys, nPoints));
+	}
+
+	@Override
+	public void fillPolygon(Polygon p) {
+		fillPolygon(p.xpoints, p.ypoints, p.npoints);
+	}
+
+	@Override
+	public void drawString(String str, int x, int y) {
+		record(g -> g.drawString(str, x, y));
+	}
+
+	@Override
+	public void drawString(AttributedCharacterIterator iterator, int x, int y) {
+		AttributedString text = new AttributedString(iterator);
+		record(g -> g.drawString(text.getIterator(), x, y));
+	}
+
+	@Override
+	public boolean drawImage(Image img, int x, int y, ImageObserver observer) {
+		record(g -> g.drawImage(img, x, y, observer));
+		return true;
+	}
+
+	@Override
+	public boolean drawImage(Image img, int x, int y, int width, int height, ImageObserver observer) {
+		record(g -> g.drawImage(img, x, y, width, height, observer));
+		return true;
+	}
+
+	@Override
+	public boolean drawImage(Image img, int x, int y, Color bgcolor, ImageObserver observer) {
+		record(g -> g.drawImage(img, x, y, bgcolor, observer));
+		return true;
+	}
+
+	@Override
+	public boolean drawImage(Image img, int x, int y, int width, int height, Color bgcolor, ImageObserver observer) {
+		record(g -> g.drawImage(img, x, y, width, height, bgcolor, observer));
+		return true;
+	}
+
+	@Override
+	public boolean drawImage(Image img, int dx1, int dy1, int dx2, int dy2, int sx1, int sy1, int sx2, int sy2,
+							 ImageObserver observer) {
+		record(g -> g.drawImage(img, dx1, dy1, dx2, dy2, sx1, sy1, sx2, sy2, observer));
+		return true;
+	}
+
+	@Override
+	public boolean drawImage(Image img, int dx1, int dy1, int dx2, int dy2, int sx1, int sy1, int sx2, int sy2,
+							 Color bgcolor, ImageObserver observer) {
+		record(g -> g.drawImage(img, dx1, dy1, dx2, dy2, sx1, sy1, sx2, sy2, bgcolor, observer));
+		return true;
+	}
+
+	/**
+	 * Does nothing: the recording is shared with the Graphics objects this one was created from or has created.
+	 */
+	@Override
+	public void dispose() {
+	}
+}
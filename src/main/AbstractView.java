@@ -1,6 +1,7 @@
 package main;
 
 import java.awt.Graphics;
+import java.awt.Rectangle;
 
 /**
  * Abstract base class for creating various view components in a graphical user interface
@@ -11,6 +12,7 @@ public abstract class AbstractView {
 	private TablrManager mgr;
 	private LayoutInfo layoutInfo;
 	private ViewList viewList;
+	private Rectangle damage;
 
 	/**
 	 * Initializes the common state for subclasses of AbstractView.
@@ -37,6 +39,56 @@ public abstract class AbstractView {
 	 */
 	public abstract void paint(Graphics g);
 
+	/**
+	 * Returns a number that changes whenever the data painted by the view may have
+	 * changed other than through events handled by the view itself. A view that is
+	 * not sent any event and whose content version stays the same paints the same
+	 * picture. By default any modification of any table changes the version.
+	 *
+	 * @return The version of the data painted by the view.
+	 */
+	public long getContentVersion() {
+		return mgr.getModificationCount();
+	}
+
+	/**
+	 * Called before the view is painted with the size it is painted at. The clip
+	 * bounds of the graphics passed to {@link #paint(Graphics)} may be smaller when
+	 * only part of the view is repainted. By default the size is ignored.
+	 *
+	 * @param width  The width of the view in pixels.
+	 * @param height The height of the view in pixels.
+	 */
+	public void setSize(int width, int height) {
+	}
+
+	/**
+	 * Reports that handling the current event changed what the view paints in the
+	 * given region. A view that handles an event without reporting a region is
+	 * repainted entirely; reporting an empty region means nothing changed.
+	 *
+	 * @param region The changed region, in the coordinates of the view.
+	 */
+	protected void addDamage(Rectangle region) {
+		if (damage == null || damage.isEmpty()) {
+			damage = new Rectangle(region);
+		} else if (!region.isEmpty()) {
+			damage = damage.union(region);
+		}
+	}
+
+	/**
+	 * Retrieves and forgets the region reported through {@link #addDamage(Rectangle)}
+	 * while handling the last event.
+	 *
+	 * @return The changed region in the coordinates of the view, or null if the whole view may have changed.
+	 */
+	public Rectangle takeDamage() {
+		Rectangle region = damage;
+		damage = null;
+		return region;
+	}
+
 	/**
 	 * Handles the action triggered by a Double Click.
 	 * @param x The x-coordinate for the mouse click.
@@ -146,6 +198,16 @@ public abstract class AbstractView {
 	public void handleMouseDrag(int startX, int startY, int endX, int endY) {
 	}
 
+	/**
+	 * Handles a request to scroll the contents of the view. Views whose contents
+	 * always fit ignore the request.
+	 *
+	 * @param dx The horizontal distance in pixels, positive to scroll to the right.
+	 * @param dy The vertical distance in pixels, positive to scroll down.
+	 */
+	public void handleScroll(int dx, int dy) {
+	}
+
 	/**
 	 * Handles the action triggered by the Ctrl+Z key combination.
 	 * <p>
@@ -0,0 +1,208 @@
+package main;
+
+import static java.lang.foreign.ValueLayout.JAVA_LONG;
+
+import java.lang.foreign.MemorySegment;
+import java.util.Arrays;
+
+/**
+ * Helper methods for bitmaps stored in a {@code long[]} or in an off-heap
+ * {@link MemorySegment} of longs, one bit per row.
+ * Bit {@code i} lives in word {@code i >>> 6} at position {@code i & 63}.
+ */
+final class Bits {
+
+	private Bits() {
+	}
+
+	/**
+	 * @param nbBits The number of bits to hold.
+	 * @return The number of words needed to hold the bits.
+	 */
+	static int words(int nbBits) {
+		return (nbBits + 63) >>> 6;
+	}
+
+	/**
+	 * @param bits  The bitmap.
+	 * @param index The index of the bit.
+	 * @return The value of the bit.
+	 */
+	static boolean get(long[] bits, int index) {
+		return (bits[index >>> 6] & (1L << index)) != 0;
+	}
+
+	/**
+	 * @param bits  The bitmap.
+	 * @param index The index of the bit.
+	 * @param value The new value of the bit.
+	 */
+	static void set(long[] bits, int index, boolean value) {
+		if (value) {
+			bits[index >>> 6] |= 1L << index;
+		} else {
+			bits[index >>> 6] &= ~(1L << index);
+		}
+	}
+
+	/**
+	 * Returns a bitmap large enough to hold the given number of bits, reusing the given one if possible.
+	 *
+	 * @param bits   The current bitmap.
+	 * @param nbBits The number of bits the bitmap must be able to hold.
+	 * @return The given bitmap, or a grown copy of it.
+	 */
+	static long[] ensureCapacity(long[] bits, int nbBits) {
+		int needed = words(nbBits);
+		if (needed <= bits.length) {
+			return bits;
+		}
+		return Arrays.copyOf(bits, Math.max(needed, bits.length * 2));
+	}
+
+	/**
+	 * Shifts the bits in [index, size) one position up and clears the bit at index.
+	 * The bitmap must have room for {@code size + 1} bits.
+	 *
+	 * @param bits  The bitmap.
+	 * @param size  The number of bits in use.
+	 * @param index The index of the bit to open up.
+	 */
+	static void insert(long[] bits, int size, int index) {
+		int first = index >>> 6;
+		int last = size >>> 6;
+		for (int w = last; w > first; w--) {
+			bits[w] = (bits[w] << 1) | (bits[w - 1] >>> 63);
+		}
+		long word = bits[first];
+		long lowMask = (1L << index) - 1;
+		bits[first] = (word & lowMask) | ((word & ~lowMask) << 1);
+	}
+
+	/**
+	 * Shifts the bits in (index, size) one position down, dropping the bit at index.
+	 * The bit at {@code size - 1} is cleared afterwards.
+	 *
+	 * @param bits  The bitmap.
+	 * @param size  The number of bits in use.
+	 * @param index The index of the bit to drop.
+	 */
+	static void remove(long[] bits, int size, int index) {
+		int first = index >>> 6;
+		int last = (size - 1) >>> 6;
+		long word = bits[first];
+		long lowMask = (1L << index) - 1;
+		long high = (word >>> 1) & ~lowMask;
+		if (first < last) {
+			high |= bits[first + 1] << 63;
+		}
+		bits[first] = (word & lowMask) | high;
+		for (int w = first + 1; w <= last; w++) {
+			bits[w] = (bits[w] >>> 1) | (w < last ? bits[w + 1] << 63 : 0);
+		}
+		set(bits, size - 1, false);
+	}
+
+	/**
+	 * Counts the set bits among the first {@code size} bits.
+	 *
+	 * @param bits The bitmap.
+	 * @param size The number of bits in use.
+	 * @return The number of set bits.
+	 */
+	static int count(long[] bits, int size) {
+		int full = size >>> 6;
+		int count = 0;
+		for (int w = 0; w < full; w++) {
+			count += Long.bitCount(bits[w]);
+		}
+		int rest = size & 63;
+		if (rest != 0) {
+			count += Long.bitCount(bits[full] & ((1L << rest) - 1));
+		}
+		return count;
+	}
+
+	/**
+	 * @param bits  The bitmap segment.
+	 * @param index The index of the bit.
+	 * @return The value of the bit.
+	 */
+	static boolean get(MemorySegment bits, int index) {
+		return (bits.getAtIndex(JAVA_LONG, index >>> 6) & (1L << index)) != 0;
+	}
+
+	/**
+	 * @param bits  The bitmap segment.
+	 * @param index The index of the bit.
+	 * @param value The new value of the bit.
+	 */
+	static void set(MemorySegment bits, int index, boolean value) {
+		long word = bits.getAtIndex(JAVA_LONG, index >>> 6);
+		word = value ? word | (1L << index) : word & ~(1L << index);
+		bits.setAtIndex(JAVA_LONG, index >>> 6, word);
+	}
+
+	/**
+	 * Segment counterpart of {@link #insert(long[], int, int)}.
+	 *
+	 * @param bits  The bitmap segment.
+	 * @param size  The number of bits in use.
+	 * @param index The index of the bit to open up.
+	 */
+	static void insert(MemorySegment bits, int size, int index) {
+		int first = index >>> 6;
+		int last = size >>> 6;
+		for (int w = last; w > first; w--) {
+			long shifted = (bits.getAtIndex(JAVA_LONG, w) << 1) | (bits.getAtIndex(JAVA_LONG, w - 1) >>> 63);
+			bits.setAtIndex(JAVA_LONG, w, shifted);
+		}
+		long word = bits.getAtIndex(JAVA_LONG, first);
+		long lowMask = (1L << index) - 1;
+		bits.setAtIndex(JAVA_LONG, first, (word & lowMask) | ((word & ~lowMask) << 1));
+	}
+
+	/**
+	 * Segment counterpart of {@link #remove(long[], int, int)}.
+	 *
+	 * @param bits  The bitmap segment.
+	 * @param size  The number of bits in use.
+	 * @param index The index of the bit to drop.
+	 */
+	static void remove(MemorySegment bits, int size, int index) {
+		int first = index >>> 6;
+		int last = (size - 1) >>> 6;
+		long word = bits.getAtIndex(JAVA_LONG, first);
+		long lowMask = (1L << index) - 1;
+		long high = (word >>> 1) & ~lowMask;
+		if (first < last) {
+			high |= bits.getAtIndex(JAVA_LONG, first + 1) << 63;
+		}
+		bits.setAtIndex(JAVA_LONG, first, (word & lowMask) | high);
+		for (int w = first + 1; w <= last; w++) {
+			long next = w < last ? bits.getAtIndex(JAVA_LONG, w + 1) << 63 : 0;
+			bits.setAtIndex(JAVA_LONG, w, (bits.getAtIndex(JAVA_LONG, w) >>> 1) | next);
+		}
+		set(bits, size - 1, false);
+	}
+
+	/**
+	 * Counts the set bits among the first {@code size} bits of a bitmap segment.
+	 *
+	 * @param bits The bitmap segment.
+	 * @param size The number of bits in use.
+	 * @return The number of set bits.
+	 */
+	static int count(MemorySegment bits, int size) {
+		int full = size >>> 6;
+		int count = 0;
+		for (int w = 0; w < full; w++) {
+			count += Long.bitCount(bits.getAtIndex(JAVA_LONG, w));
+		}
+		int rest = size & 63;
+		if (rest != 0) {
+			count += Long.bitCount(bits.getAtIndex(JAVA_LONG, full) & ((1L << rest) - 1));
+		}
+		return count;
+	}
+}
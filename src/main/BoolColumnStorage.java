@@ -0,0 +1,126 @@
+package main;
+
+/**
+ * Column storage for boolean columns. Values are packed one bit per row in a
+ * {@code long[]} bitset, with a second bitmap marking blank cells. The bit of a
+ * blank cell is kept cleared, so counting true values is a popcount over the words.
+ */
+public class BoolColumnStorage extends ColumnStorage {
+
+	private static final int INITIAL_CAPACITY = 64;
+
+	private long[] values;
+	private long[] blanks;
+	private int size;
+
+	/**
+	 * Constructs an empty boolean column storage.
+	 */
+	public BoolColumnStorage() {
+		this.values = new long[Bits.words(INITIAL_CAPACITY)];
+		this.blanks = new long[Bits.words(INITIAL_CAPACITY)];
+		this.size = 0;
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	@Override
+	public void add(String value) {
+		insert(size, value);
+	}
+
+	@Override
+	public void insert(int index, String value) {
+		checkInsertIndex(index);
+		values = Bits.ensureCapacity(values, size + 1);
+		blanks = Bits.ensureCapacity(blanks, size + 1);
+		Bits.insert(values, size, index);
+		Bits.insert(blanks, size, index);
+		size++;
+		set(index, value);
+	}
+
+	@Override
+	public void set(int index, String value) {
+		checkIndex(index);
+		boolean blank = isBlankInput(value);
+		Bits.set(blanks, index, blank);
+		Bits.set(values, index, !blank && Boolean.parseBoolean(value));
+	}
+
+	@Override
+	public String get(int index) {
+		checkIndex(index);
+		return Bits.get(blanks, index) ? "" : Boolean.toString(Bits.get(values, index));
+	}
+
+	@Override
+	public boolean isBlank(int index) {
+		checkIndex(index);
+		return Bits.get(blanks, index);
+	}
+
+	@Override
+	public void remove(int index) {
+		checkIndex(index);
+		Bits.remove(values, size, index);
+		Bits.remove(blanks, size, index);
+		size--;
+	}
+
+	/**
+	 * Counts the cells holding {@code true} by counting the set bits of the bitset.
+	 *
+	 * @return The number of true cells.
+	 */
+	@Override
+	public int countTrue() {
+		return Bits.count(values, size);
+	}
+
+	/**
+	 * Retrieves the boolean value of the cell at the specified index.
+	 *
+	 * @param index The index of the cell.
+	 * @return The value of the cell, or {@code false} if the cell is blank.
+	 * @throws IndexOutOfBoundsException if the index is out of range
+	 */
+	@Override
+	public boolean getBoolean(int index) {
+		checkIndex(index);
+		return Bits.get(values, index);
+	}
+
+	/**
+	 * Sets the boolean value of the cell at the specified index, clearing its blank flag.
+	 *
+	 * @param index The index of the cell.
+	 * @param value The new value.
+	 * @throws IndexOutOfBoundsException if the index is out of range
+	 */
+	@Override
+	public void setBoolean(int index, boolean value) {
+		checkIndex(index);
+		Bits.set(values, index, value);
+		Bits.set(blanks, index, false);
+	}
+
+	/**
+	 * Appends the cells to another storage as booleans, without formatting them.
+	 *
+	 * @param target The storage to append the cells to.
+	 */
+	@Override
+	public void copyTo(ColumnStorage target) {
+		for (int i = 0; i < size; i++) {
+			if (isBlank(i)) {
+				target.add("");
+			} else {
+				target.addBoolean(getBoolean(i));
+			}
+		}
+	}
+}
@@ -7,6 +7,17 @@ package main;
  * Represents a boolean value for a cell.
  */
 public class BoolValue extends CellValue {
+
+	/**
+	 * The shared instance representing {@code true}.
+	 */
+	public static final BoolValue TRUE = new BoolValue("true");
+
+	/**
+	 * The shared instance representing {@code false}.
+	 */
+	public static final BoolValue FALSE = new BoolValue("false");
+
 	private final boolean value;
 
 	/**
@@ -19,6 +30,18 @@ public class BoolValue extends CellValue {
 		this.value = Boolean.parseBoolean(input);
 	}
 
+	/**
+	 * Returns the shared instance for the boolean value of the given input string.
+	 * Since boolean values are immutable, cells can share these instances instead of
+	 * allocating a new value per cell.
+	 *
+	 * @param input The input string to be parsed, as for {@link #BoolValue(String)}.
+	 * @return {@link #TRUE} if the input equals "true" (case-insensitive), {@link #FALSE} otherwise.
+	 */
+	public static BoolValue valueOf(String input) {
+		return Boolean.parseBoolean(input) ? TRUE : FALSE;
+	}
+
 	/**
 	 * Checks if the given input string represents a valid boolean value.
 	 *
@@ -0,0 +1,67 @@
+package main;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * General purpose column storage that keeps a reference to one {@link CellValue} per row.
+ * Values are converted to {@code CellValue} objects by the parser supplied at
+ * construction, blank cells hold no value. Since values are immutable, rows may share
+ * the instances handed out by the parser, such as a column's parsed default value.
+ */
+public class CellColumnStorage extends ColumnStorage {
+
+	private final List<CellValue> cells;
+	private final Function<String, CellValue> parser;
+
+	/**
+	 * Constructs an empty cell storage.
+	 *
+	 * @param parser The function used to turn a non-blank input string into a {@code CellValue}.
+	 */
+	public CellColumnStorage(Function<String, CellValue> parser) {
+		this.cells = new ArrayList<CellValue>();
+		this.parser = parser;
+	}
+
+	@Override
+	public int size() {
+		return cells.size();
+	}
+
+	@Override
+	public void add(String value) {
+		cells.add(parse(value));
+	}
+
+	@Override
+	public void insert(int index, String value) {
+		cells.add(index, parse(value));
+	}
+
+	@Override
+	public void set(int index, String value) {
+		cells.set(index, parse(value));
+	}
+
+	@Override
+	public String get(int index) {
+		CellValue value = cells.get(index);
+		return value == null ? "" : value.toString();
+	}
+
+	@Override
+	public boolean isBlank(int index) {
+		return cells.get(index) == null;
+	}
+
+	@Override
+	public void remove(int index) {
+		cells.remove(index);
+	}
+
+	private CellValue parse(String value) {
+		return isBlankInput(value) ? null : parser.apply(value);
+	}
+}
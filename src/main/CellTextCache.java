@@ -0,0 +1,144 @@
+package main;
+
+import java.awt.Font;
+import java.awt.FontMetrics;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Caches the text painted for the cells of columns and the width of that text.
+ * <p>
+ * The cache is divided into chunks of {@link ColumnReader#VERSION_CHUNK_SIZE}
+ * rows. Each chunk remembers the version of the rows it was filled for, so
+ * updating a cell only discards the chunk that contains it. Besides the width of
+ * every measured cell, a chunk keeps the largest width of its cells, which makes
+ * fitting a column to its contents cheap once the chunks have been measured.
+ * <p>
+ * Widths depend on the font they were measured in; when text is measured with the
+ * metrics of another font, all widths are discarded.
+ */
+public class CellTextCache {
+
+	private final Map<ColumnReader, Chunk[]> columns = new WeakHashMap<>();
+	private Font font;
+
+	/**
+	 * The cached texts and widths of one chunk of rows of a column.
+	 */
+	private static class Chunk {
+		final long version;
+		final String[] texts = new String[ColumnReader.VERSION_CHUNK_SIZE];
+		final int[] widths = new int[ColumnReader.VERSION_CHUNK_SIZE];
+		int maxWidth = -1;
+
+		Chunk(long version) {
+			this.version = version;
+			Arrays.fill(widths, -1);
+		}
+	}
+
+	/**
+	 * Retrieves the text of a cell, as painted in a view.
+	 *
+	 * @param column The column of the cell.
+	 * @param row    The index of the row of the cell.
+	 * @return The value of the cell as a string, or an empty string if the cell is blank.
+	 * @throws IndexOutOfBoundsException if the row is out of range
+	 */
+	public String getText(ColumnReader column, int row) {
+		return getText(getChunk(column, row / ColumnReader.VERSION_CHUNK_SIZE), column, row);
+	}
+
+	/**
+	 * Retrieves the width of the text of a cell.
+	 *
+	 * @param column  The column of the cell.
+	 * @param row     The index of the row of the cell.
+	 * @param metrics The metrics of the font the text is painted in.
+	 * @return The width of the text in pixels.
+	 * @throws IndexOutOfBoundsException if the row is out of range
+	 */
+	public int getWidth(ColumnReader column, int row, FontMetrics metrics) {
+		useFont(metrics.getFont());
+		return getWidth(getChunk(column, row / ColumnReader.VERSION_CHUNK_SIZE), column, row, metrics);
+	}
+
+	/**
+	 * Computes the width of the widest text of the cells of a column. Only the chunks
+	 * that changed since the last call are measured again.
+	 *
+	 * @param column  The column.
+	 * @param metrics The metrics of the font the text is painted in.
+	 * @return The largest width of the text of a cell in pixels, 0 if the column has no cells.
+	 */
+	public int getMaxWidth(ColumnReader column, FontMetrics metrics) {
+		useFont(metrics.getFont());
+		int size = column.size();
+		int max = 0;
+		for (int start = 0; start < size; start += ColumnReader.VERSION_CHUNK_SIZE) {
+			Chunk chunk = getChunk(column, start / ColumnReader.VERSION_CHUNK_SIZE);
+			if (chunk.maxWidth < 0) {
+				int end = Math.min(size, start + ColumnReader.VERSION_CHUNK_SIZE);
+				int chunkMax = 0;
+				for (int row = start; row < end; row++) {
+					chunkMax = Math.max(chunkMax, getWidth(chunk, column, row, metrics));
+				}
+				chunk.maxWidth = chunkMax;
+			}
+			max = Math.max(max, chunk.maxWidth);
+		}
+		return max;
+	}
+
+	private String getText(Chunk chunk, ColumnReader column, int row) {
+		int offset = row % ColumnReader.VERSION_CHUNK_SIZE;
+		if (chunk.texts[offset] == null) {
+			chunk.texts[offset] = column.get(row);
+		}
+		return chunk.texts[offset];
+	}
+
+	private int getWidth(Chunk chunk, ColumnReader column, int row, FontMetrics metrics) {
+		int offset = row % ColumnReader.VERSION_CHUNK_SIZE;
+		if (chunk.widths[offset] < 0) {
+			chunk.widths[offset] = metrics.stringWidth(getText(chunk, column, row));
+		}
+		return chunk.widths[offset];
+	}
+
+	/**
+	 * Retrieves the cached chunk of a column, replacing it if the rows changed since it was filled.
+	 */
+	private Chunk getChunk(ColumnReader column, int number) {
+		Chunk[] chunks = columns.get(column);
+		if (chunks == null || number >= chunks.length) {
+			chunks = Arrays.copyOf(chunks == null ? new Chunk[0] : chunks,
+					Math.max(number + 1, column.size() / ColumnReader.VERSION_CHUNK_SIZE + 1));
+			columns.put(column, chunks);
+		}
+		long version = column.getVersion(number);
+		if (chunks[number] == null || chunks[number].version != version) {
+			chunks[number] = new Chunk(version);
+		}
+		return chunks[number];
+	}
+
+	/**
+	 * Discards all widths if they were measured in another font.
+	 */
+	private void useFont(Font font) {
+		if (!font.equals(this.font)) {
+			this.font = font;
+			for (Chunk[] chunks : columns.values()) {
+				for (int i = 0; i < chunks.length; i++) {
+					if (chunks[i] != null) {
+						Chunk chunk = new Chunk(chunks[i].version);
+						System.arraycopy(chunks[i].texts, 0, chunk.texts, 0, chunk.texts.length);
+						chunks[i] = chunk;
+					}
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,278 @@
+package main;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps the workspace of a {@link TablrManager} in a directory as a snapshot and a
+ * command log, and regularly takes a new snapshot so the log stays short.
+ * <p>
+ * The log is split into segments, {@code commands-N.log}. Snapshot
+ * {@code snapshot-N.tablr} holds the tables as they were when segment N was
+ * started, so the workspace is restored by loading the newest snapshot and
+ * replaying segment N and the segments after it. A checkpoint starts a new
+ * segment and takes snapshots of the tables in one step, saves them as the snapshot
+ * of the new segment, and then deletes the older snapshots and segments. The tables
+ * are locked only while their snapshots are taken, which shares their cells instead
+ * of copying them; the snapshot is written on a background thread while editing goes
+ * on. The newest snapshot is opened memory-mapped on start, so the columns that are
+ * not edited are neither read nor copied until the next snapshot is written.
+ * <p>
+ * A checkpoint is taken once the current segment exceeds a maximum size, or once
+ * a maximum time has passed since the last checkpoint and something was logged.
+ */
+public class Checkpointer implements Closeable {
+
+	private static final String SNAPSHOT_PREFIX = "snapshot-";
+	private static final String SNAPSHOT_SUFFIX = ".tablr";
+	private static final String LOG_PREFIX = "commands-";
+	private static final String LOG_SUFFIX = ".log";
+	private static final long POLL_INTERVAL_MILLIS = 1000;
+
+	private final TablrManager manager;
+	private final Path directory;
+	private final long maxLogSize;
+	private final long maxInterval;
+	private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+		Thread thread = new Thread(r, "Tablr checkpointer");
+		thread.setDaemon(true);
+		return thread;
+	});
+	private long segment;
+	private long lastCheckpoint;
+	private int checkpointCount;
+	private long lastDuration;
+	private long maxDuration;
+	private long totalDuration;
+	private long lastPause;
+	private long lastSnapshotSize;
+	private IOException lastFailure;
+
+	/**
+	 * Constructs a checkpointer for the workspace of a manager. Nothing happens until
+	 * {@link #start()} is called.
+	 *
+	 * @param manager     The manager whose tables are kept.
+	 * @param directory   The directory holding the snapshots and the log.
+	 * @param maxLogSize  The size in bytes of the log segment that triggers a checkpoint.
+	 * @param maxInterval The time after which a checkpoint is taken if anything was logged.
+	 * @throws IllegalArgumentException if the size or the interval is not positive
+	 */
+	public Checkpointer(TablrManager manager, Path directory, long maxLogSize, Duration maxInterval) {
+		if (maxLogSize <= 0 || maxInterval.isNegative() || maxInterval.isZero()) {
+			throw new IllegalArgumentException("Checkpoint triggers must be positive");
+		}
+		this.manager = manager;
+		this.directory = directory;
+		this.maxLogSize = maxLogSize;
+		this.maxInterval = maxInterval.toNanos();
+	}
+
+	/**
+	 * Restores the workspace from the directory, starts logging commands to a new
+	 * segment and starts taking checkpoints in the background.
+	 *
+	 * @throws IOException if the workspace cannot be restored
+	 */
+	public void start() throws IOException {
+		Files.createDirectories(directory);
+		TreeSet<Long> snapshots = list(SNAPSHOT_PREFIX, SNAPSHOT_SUFFIX);
+		TreeSet<Long> segments = list(LOG_PREFIX, LOG_SUFFIX);
+		long base = snapshots.isEmpty() ? 0 : snapshots.last();
+		List<Path> logs = new ArrayList<>();
+		long replayed = 0;
+		for (long n : segments.tailSet(base)) {
+			logs.add(logFile(n));
+			replayed += Files.size(logFile(n));
+		}
+		synchronized (this) {
+			segment = Math.max(base, segments.isEmpty() ? 0 : segments.last()) + 1;
+			lastCheckpoint = System.nanoTime();
+		}
+		manager.recover(snapshotFile(base), logs, logFile(segment));
+		deleteBefore(base);
+		if (replayed > 0) {
+			// the next start should not have to replay the same commands again
+			scheduler.execute(this::checkpointInBackground);
+		}
+		scheduler.scheduleWithFixedDelay(this::poll, POLL_INTERVAL_MILLIS, POLL_INTERVAL_MILLIS,
+				TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * Takes a checkpoint: saves snapshots of the tables to a new snapshot file and
+	 * deletes the log segments the snapshot makes obsolete.
+	 *
+	 * @throws IOException if the snapshot cannot be written
+	 */
+	public synchronized void checkpoint() throws IOException {
+		long start = System.nanoTime();
+		long next = segment + 1;
+		List<Table> tables = manager.checkpoint(logFile(next));
+		segment = next;
+		lastPause = System.nanoTime() - start;
+		Path snapshot = snapshotFile(next);
+		try {
+			WorkspaceFile.write(snapshot, tables);
+		} finally {
+			for (Table table : tables) {
+				table.close();
+			}
+		}
+		deleteBefore(next);
+		long end = System.nanoTime();
+		lastCheckpoint = end;
+		lastDuration = end - start;
+		maxDuration = Math.max(maxDuration, lastDuration);
+		totalDuration += lastDuration;
+		lastSnapshotSize = Files.size(snapshot);
+		checkpointCount++;
+	}
+
+	/**
+	 * @return The number of checkpoints taken.
+	 */
+	public synchronized int getCheckpointCount() {
+		return checkpointCount;
+	}
+
+	/**
+	 * @return The time the last checkpoint took, from taking the snapshots until the
+	 * old segments were deleted.
+	 */
+	public synchronized Duration getLastCheckpointDuration() {
+		return Duration.ofNanos(lastDuration);
+	}
+
+	/**
+	 * @return The longest time a checkpoint took.
+	 */
+	public synchronized Duration getMaxCheckpointDuration() {
+		return Duration.ofNanos(maxDuration);
+	}
+
+	/**
+	 * @return The time all checkpoints took together.
+	 */
+	public synchronized Duration getTotalCheckpointDuration() {
+		return Duration.ofNanos(totalDuration);
+	}
+
+	/**
+	 * @return The time the tables were locked during the last checkpoint, while their
+	 * snapshots were taken and the log was switched to a new segment.
+	 */
+	public synchronized Duration getLastPause() {
+		return Duration.ofNanos(lastPause);
+	}
+
+	/**
+	 * @return The size in bytes of the last snapshot.
+	 */
+	public synchronized long getLastSnapshotSize() {
+		return lastSnapshotSize;
+	}
+
+	/**
+	 * @return The error of the last checkpoint taken in the background if it failed,
+	 * null if it succeeded.
+	 */
+	public synchronized IOException getLastFailure() {
+		return lastFailure;
+	}
+
+	/**
+	 * Stops taking checkpoints and closes the log after writing the remaining commands.
+	 *
+	 * @throws IOException if the remaining commands cannot be written
+	 */
+	@Override
+	public void close() throws IOException {
+		scheduler.shutdown();
+		try {
+			scheduler.awaitTermination(1, TimeUnit.MINUTES);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		manager.closeLog();
+	}
+
+	/**
+	 * Takes a checkpoint if the log segment has grown too large or too much time has passed.
+	 */
+	private void poll() {
+		long logSize = manager.getLogSize();
+		boolean due;
+		synchronized (this) {
+			due = logSize >= maxLogSize || logSize > 0 && System.nanoTime() - lastCheckpoint >= maxInterval;
+		}
+		if (due) {
+			checkpointInBackground();
+		}
+	}
+
+	/**
+	 * Takes a checkpoint on the background thread, remembering whether it failed.
+	 */
+	private void checkpointInBackground() {
+		try {
+			checkpoint();
+			synchronized (this) {
+				lastFailure = null;
+			}
+		} catch (IOException | RuntimeException e) {
+			synchronized (this) {
+				lastFailure = e instanceof IOException io ? io : new IOException(e);
+			}
+			e.printStackTrace();
+		}
+	}
+
+	/**
+	 * Deletes the snapshots and log segments older than the given segment.
+	 */
+	private void deleteBefore(long n) throws IOException {
+		for (long old : list(SNAPSHOT_PREFIX, SNAPSHOT_SUFFIX).headSet(n)) {
+			Files.deleteIfExists(snapshotFile(old));
+		}
+		for (long old : list(LOG_PREFIX, LOG_SUFFIX).headSet(n)) {
+			CommandLog.delete(logFile(old));
+		}
+	}
+
+	/**
+	 * Lists the numbers of the files in the directory with the given prefix and suffix.
+	 */
+	private TreeSet<Long> list(String prefix, String suffix) throws IOException {
+		TreeSet<Long> numbers = new TreeSet<>();
+		try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, prefix + "*" + suffix)) {
+			for (Path file : files) {
+				String name = file.getFileName().toString();
+				try {
+					numbers.add(Long.parseLong(name.substring(prefix.length(), name.length() - suffix.length())));
+				} catch (NumberFormatException e) {
+					// not one of our files
+				}
+			}
+		}
+		return numbers;
+	}
+
+	private Path snapshotFile(long n) {
+		return directory.resolve(SNAPSHOT_PREFIX + n + SNAPSHOT_SUFFIX);
+	}
+
+	private Path logFile(long n) {
+		return directory.resolve(LOG_PREFIX + n + LOG_SUFFIX);
+	}
+}
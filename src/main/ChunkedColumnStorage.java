@@ -0,0 +1,404 @@
+package main;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Column storage that splits the cells into blocks of at most {@link #BLOCK_SIZE}
+ * rows, each held by its own storage. A block index with the first row of every
+ * block locates a row with a binary search, so inserting or removing a row only
+ * shifts the cells of one block and the entries of the index.
+ * <p>
+ * Blocks are created by the supplied factory, which decides the representation of
+ * the cells. A full block is split in two halves when a row is inserted into it,
+ * and an emptied block is dropped.
+ * <p>
+ * A frozen storage shares the blocks of the storage it was frozen from. Every block
+ * counts the storages holding it; a block held by more than one storage is replaced
+ * by a copy before it is modified, and it is closed once the last storage holding it
+ * drops it. Freezing a storage thus only copies the block index, and modifying it
+ * afterwards only copies the blocks that are modified.
+ */
+public class ChunkedColumnStorage extends ColumnStorage {
+
+	/**
+	 * The maximum number of rows in one block.
+	 */
+	public static final int BLOCK_SIZE = 4096;
+
+	private final Supplier<ColumnStorage> blockFactory;
+	private final List<ColumnStorage> blocks;
+	private final List<AtomicInteger> holders;
+	private int[] starts;
+	private int size;
+	private int firstModifiedBlock;
+	private int lastModifiedBlock;
+
+	/**
+	 * Constructs an empty chunked storage.
+	 *
+	 * @param blockFactory Creates the empty storage of a new block.
+	 */
+	public ChunkedColumnStorage(Supplier<ColumnStorage> blockFactory) {
+		this.blockFactory = blockFactory;
+		this.blocks = new ArrayList<ColumnStorage>();
+		this.blocks.add(blockFactory.get());
+		this.holders = new ArrayList<AtomicInteger>();
+		this.holders.add(new AtomicInteger(1));
+		this.starts = new int[8];
+		this.size = 0;
+		this.firstModifiedBlock = Integer.MAX_VALUE;
+		this.lastModifiedBlock = -1;
+	}
+
+	/**
+	 * Constructs a storage holding the same blocks as the given storage.
+	 *
+	 * @param frozen The storage to share the blocks of.
+	 */
+	private ChunkedColumnStorage(ChunkedColumnStorage frozen) {
+		this.blockFactory = frozen.blockFactory;
+		this.blocks = new ArrayList<ColumnStorage>(frozen.blocks);
+		this.holders = new ArrayList<AtomicInteger>(frozen.holders);
+		this.starts = frozen.starts.clone();
+		this.size = frozen.size;
+		this.firstModifiedBlock = Integer.MAX_VALUE;
+		this.lastModifiedBlock = -1;
+		for (AtomicInteger count : holders) {
+			count.incrementAndGet();
+		}
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	@Override
+	public void add(String value) {
+		lastBlock().add(value);
+		size++;
+	}
+
+	/**
+	 * Appends the value to the last block directly, without looking up the block of
+	 * the new cell.
+	 */
+	@Override
+	public void addInt(int value) {
+		lastBlock().addInt(value);
+		size++;
+	}
+
+	/**
+	 * Appends the value to the last block directly, without looking up the block of
+	 * the new cell.
+	 */
+	@Override
+	public void addBoolean(boolean value) {
+		lastBlock().addBoolean(value);
+		size++;
+	}
+
+	/**
+	 * Returns the block new cells are appended to, starting a new block if the last
+	 * one is full.
+	 *
+	 * @return The last block.
+	 */
+	private ColumnStorage lastBlock() {
+		int last = blocks.size() - 1;
+		if (blocks.get(last).size() == BLOCK_SIZE) {
+			insertBlock(last + 1, blockFactory.get(), size);
+			last++;
+		}
+		modified(last);
+		return writable(last);
+	}
+
+	@Override
+	public void insert(int index, String value) {
+		checkInsertIndex(index);
+		if (index == size) {
+			add(value);
+			return;
+		}
+		int block = blockOf(index);
+		if (blocks.get(block).size() == BLOCK_SIZE) {
+			split(block);
+			if (index >= starts[block + 1]) {
+				block++;
+			}
+		}
+		writable(block).insert(index - starts[block], value);
+		for (int b = block + 1; b < blocks.size(); b++) {
+			starts[b]++;
+		}
+		size++;
+		modified(block);
+	}
+
+	@Override
+	public void set(int index, String value) {
+		checkIndex(index);
+		int block = blockOf(index);
+		writable(block).set(index - starts[block], value);
+		modified(block);
+	}
+
+	@Override
+	public String get(int index) {
+		checkIndex(index);
+		int block = blockOf(index);
+		return blocks.get(block).get(index - starts[block]);
+	}
+
+	@Override
+	public boolean isBlank(int index) {
+		checkIndex(index);
+		int block = blockOf(index);
+		return blocks.get(block).isBlank(index - starts[block]);
+	}
+
+	@Override
+	public void remove(int index) {
+		checkIndex(index);
+		int block = blockOf(index);
+		ColumnStorage storage = writable(block);
+		storage.remove(index - starts[block]);
+		for (int b = block + 1; b < blocks.size(); b++) {
+			starts[b]--;
+		}
+		size--;
+		if (storage.size() == 0 && blocks.size() > 1) {
+			blocks.remove(block);
+			release(storage, holders.remove(block));
+			System.arraycopy(starts, block + 1, starts, block, blocks.size() - block);
+			if (firstModifiedBlock > block && firstModifiedBlock != Integer.MAX_VALUE) {
+				firstModifiedBlock--;
+			}
+			if (lastModifiedBlock >= block) {
+				lastModifiedBlock--;
+			}
+		} else {
+			modified(block);
+		}
+	}
+
+	@Override
+	public int getInt(int index) {
+		checkIndex(index);
+		int block = blockOf(index);
+		return blocks.get(block).getInt(index - starts[block]);
+	}
+
+	@Override
+	public void setInt(int index, int value) {
+		checkIndex(index);
+		int block = blockOf(index);
+		writable(block).setInt(index - starts[block], value);
+		modified(block);
+	}
+
+	@Override
+	public boolean getBoolean(int index) {
+		checkIndex(index);
+		int block = blockOf(index);
+		return blocks.get(block).getBoolean(index - starts[block]);
+	}
+
+	@Override
+	public void setBoolean(int index, boolean value) {
+		checkIndex(index);
+		int block = blockOf(index);
+		writable(block).setBoolean(index - starts[block], value);
+		modified(block);
+	}
+
+	/**
+	 * Counts the true cells of every block.
+	 *
+	 * @return The number of true cells.
+	 */
+	@Override
+	public int countTrue() {
+		int count = 0;
+		for (ColumnStorage block : blocks) {
+			count += block.countTrue();
+		}
+		return count;
+	}
+
+	/**
+	 * Counts the cells equal to the given value in every block.
+	 *
+	 * @param value The value to count, or an empty string to count blank cells.
+	 * @return The number of cells holding the value.
+	 */
+	@Override
+	public int countEqual(String value) {
+		int count = 0;
+		for (ColumnStorage block : blocks) {
+			count += block.countEqual(value);
+		}
+		return count;
+	}
+
+	/**
+	 * Compares two cells within their block if they share one.
+	 *
+	 * @param index      The index of the first cell.
+	 * @param otherIndex The index of the second cell.
+	 * @return {@code true} if both cells hold the same value or are both blank.
+	 */
+	@Override
+	public boolean cellsEqual(int index, int otherIndex) {
+		checkIndex(index);
+		checkIndex(otherIndex);
+		int block = blockOf(index);
+		if (block == blockOf(otherIndex)) {
+			return blocks.get(block).cellsEqual(index - starts[block], otherIndex - starts[block]);
+		}
+		return super.cellsEqual(index, otherIndex);
+	}
+
+	/**
+	 * Lets every block modified since the previous call adapt its representation, so
+	 * that cells appended in bulk only need one call. Blocks that are not modified keep
+	 * their representation, so the blocks of one column may be stored differently.
+	 *
+	 * @return This storage.
+	 */
+	@Override
+	public ColumnStorage adapt() {
+		int last = Math.min(lastModifiedBlock, blocks.size() - 1);
+		for (int b = firstModifiedBlock; b <= last; b++) {
+			ColumnStorage block = blocks.get(b);
+			ColumnStorage adapted = block.adapt();
+			if (adapted != block) {
+				blocks.set(b, adapted);
+				release(block, holders.set(b, new AtomicInteger(1)));
+			}
+		}
+		firstModifiedBlock = Integer.MAX_VALUE;
+		lastModifiedBlock = -1;
+		return this;
+	}
+
+	/**
+	 * Returns a storage sharing the blocks of this storage, see the class description.
+	 *
+	 * @return The frozen storage.
+	 */
+	@Override
+	public ColumnStorage freeze() {
+		return new ChunkedColumnStorage(this);
+	}
+
+	/**
+	 * Releases the memory held by the blocks that no frozen storage holds any more.
+	 */
+	@Override
+	public void close() {
+		for (int b = 0; b < blocks.size(); b++) {
+			release(blocks.get(b), holders.get(b));
+		}
+	}
+
+	/**
+	 * Returns the number of blocks the cells are divided into.
+	 *
+	 * @return The number of blocks.
+	 */
+	public int getNumberOfBlocks() {
+		return blocks.size();
+	}
+
+	/**
+	 * Finds the block holding the given row.
+	 *
+	 * @param index The index of an existing row.
+	 * @return The index of the block holding the row.
+	 */
+	private int blockOf(int index) {
+		int found = Arrays.binarySearch(starts, 0, blocks.size(), index);
+		return found >= 0 ? found : -found - 2;
+	}
+
+	/**
+	 * Moves the upper half of a full block into a new block that follows it.
+	 *
+	 * @param block The index of the block to split.
+	 */
+	private void split(int block) {
+		ColumnStorage lower = writable(block);
+		ColumnStorage upper = blockFactory.get();
+		int half = lower.size() / 2;
+		for (int i = half; i < lower.size(); i++) {
+			upper.add(lower.get(i));
+		}
+		for (int i = lower.size() - 1; i >= half; i--) {
+			lower.remove(i);
+		}
+		insertBlock(block + 1, upper, starts[block] + half);
+		modified(block);
+		modified(block + 1);
+	}
+
+	/**
+	 * Returns a block that is about to be modified, replacing it by a copy first if
+	 * another storage holds it as well.
+	 *
+	 * @param block The index of the block.
+	 * @return The storage of the block, held by this storage only.
+	 */
+	private ColumnStorage writable(int block) {
+		ColumnStorage storage = blocks.get(block);
+		if (holders.get(block).get() == 1) {
+			return storage;
+		}
+		ColumnStorage copy = blockFactory.get();
+		storage.copyTo(copy);
+		blocks.set(block, copy);
+		release(storage, holders.set(block, new AtomicInteger(1)));
+		return copy;
+	}
+
+	/**
+	 * Drops the hold of this storage on a block, closing the block if no other storage holds it.
+	 */
+	private static void release(ColumnStorage block, AtomicInteger holders) {
+		if (holders.decrementAndGet() == 0) {
+			block.close();
+		}
+	}
+
+	/**
+	 * Records that a block was modified and should adapt on the next call to {@link #adapt()}.
+	 *
+	 * @param block The index of the modified block.
+	 */
+	private void modified(int block) {
+		firstModifiedBlock = Math.min(firstModifiedBlock, block);
+		lastModifiedBlock = Math.max(lastModifiedBlock, block);
+	}
+
+	private void insertBlock(int block, ColumnStorage storage, int start) {
+		if (blocks.size() == starts.length) {
+			starts = Arrays.copyOf(starts, starts.length * 2);
+		}
+		System.arraycopy(starts, block, starts, block + 1, blocks.size() - block);
+		starts[block] = start;
+		blocks.add(block, storage);
+		holders.add(block, new AtomicInteger(1));
+		if (firstModifiedBlock >= block && firstModifiedBlock != Integer.MAX_VALUE) {
+			firstModifiedBlock++;
+		}
+		if (lastModifiedBlock >= block) {
+			lastModifiedBlock++;
+		}
+	}
+}
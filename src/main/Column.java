@@ -1,17 +1,26 @@
 package main;
 
+import java.lang.foreign.MemorySegment;
+import java.util.Arrays;
 import java.util.List;
+import java.util.stream.IntStream;
 
 /**
  * Represents a column in a table structure with a generic value type.
  */
-public class Column {
+public final class Column {
 
 	private String name;
 	private String type;
 	private boolean allowsBlanks;
 	private String defaultValue;
-	private List<Cell> cells;
+	private ColumnStorage cells;
+	private StringDictionary dictionary = new StringDictionary();
+	private OffHeapMemory memory;
+	private CellValue parsedDefault;
+	private ColumnReader reader;
+	private long[] chunkVersions = new long[0];
+	private long modificationCount;
 
 	/**
 	 * Constructs a new Column object with a specified name, type, allowance for
@@ -29,7 +38,7 @@ public class Column {
 		this.type = typeClass;
 		this.allowsBlanks = allowsBlanks;
 		this.defaultValue = defaultValue;
-		this.cells = new java.util.ArrayList<Cell>();
+		this.cells = newStorage();
 	}
 
 	/**
@@ -48,7 +57,134 @@ public class Column {
 	 * @return A list of strings representing the values of the column's cells.
 	 */
 	public List<String> getColumn() {
-		return cells.stream().map(cell -> cell.getValue().toString()).toList();
+		return IntStream.range(0, cells.size()).mapToObj(cells::get).toList();
+	}
+
+	/**
+	 * Retrieves a read-only view on the cells of the column. The view reads from the
+	 * current storage of the column, so it remains valid while the column is edited.
+	 *
+	 * @return A {@code ColumnReader} on this column.
+	 */
+	public ColumnReader reader() {
+		if (reader == null) {
+			reader = new ColumnReader() {
+
+				@Override
+				public int size() {
+					return cells.size();
+				}
+
+				@Override
+				public String get(int rowIndex) {
+					return cells.get(rowIndex);
+				}
+
+				@Override
+				public boolean isBlank(int rowIndex) {
+					return cells.isBlank(rowIndex);
+				}
+
+				@Override
+				public int getInt(int rowIndex) {
+					return cells.getInt(rowIndex);
+				}
+
+				@Override
+				public boolean getBoolean(int rowIndex) {
+					return cells.getBoolean(rowIndex);
+				}
+
+				@Override
+				public long getVersion(int chunk) {
+					return chunk < chunkVersions.length ? chunkVersions[chunk] : 0;
+				}
+			};
+		}
+		return reader;
+	}
+
+	/**
+	 * Moves the cells of the column into off-heap storage allocated from the given
+	 * memory. Cells added later are stored off-heap as well.
+	 *
+	 * @param memory The off-heap memory of the table that owns the column.
+	 */
+	public void moveOffHeap(OffHeapMemory memory) {
+		if (this.memory == memory) {
+			return;
+		}
+		this.memory = memory;
+		ColumnStorage offHeap = newStorage();
+		for (int i = 0; i < cells.size(); i++) {
+			offHeap.add(cells.get(i));
+		}
+		cells.close();
+		cells = offHeap;
+	}
+
+	/**
+	 * Creates a read-only snapshot of the column with the same characteristics and
+	 * cells, which does not change when the column does. The snapshot shares the cells
+	 * of the column, see {@link ColumnStorage#freeze()}, so taking it does not copy them;
+	 * the cells are copied block by block when either one is modified. New cells of the
+	 * column are encoded in a new dictionary, so that the snapshot can be read on
+	 * another thread while the column is being edited.
+	 *
+	 * @return The snapshot of the column. It must be closed once it is no longer read.
+	 */
+	public Column snapshot() {
+		Column snapshot = new Column(name, type, allowsBlanks, defaultValue);
+		snapshot.cells = cells.freeze();
+		dictionary.retire();
+		dictionary = new StringDictionary();
+		return snapshot;
+	}
+
+	/**
+	 * Releases the storage of the column, including the cells a snapshot of the column
+	 * no longer shares. The column must not be used afterwards.
+	 */
+	public void close() {
+		dictionary.retire();
+		cells.close();
+	}
+
+	/**
+	 * Lets an empty column read its cells from the block of a memory-mapped
+	 * workspace file instead of copying them. The cells are copied to the heap
+	 * once the column is modified.
+	 *
+	 * @param block The block of the column in the mapped file.
+	 * @param size  The number of cells in the block.
+	 * @throws IllegalStateException if the column already has cells
+	 */
+	void mapCells(MemorySegment block, int size) {
+		if (cells.size() > 0) {
+			throw new IllegalStateException("Column already has cells");
+		}
+		cells.close();
+		cells = new MappedColumnStorage(block, type, size,
+				() -> size >= SparseColumnStorage.MIN_DENSE_SIZE ? newDenseStorage() : newStorage());
+	}
+
+	/**
+	 * Retrieves the block of the memory-mapped workspace file the cells are read from,
+	 * as long as the column has not been modified since it was opened.
+	 *
+	 * @return The block holding the cells, or null if the cells are stored otherwise.
+	 */
+	MemorySegment getMappedBlock() {
+		return cells instanceof MappedColumnStorage mapped ? mapped.getBlock() : null;
+	}
+
+	/**
+	 * Determines whether the cells of the column are stored off-heap.
+	 *
+	 * @return {@code true} if the column has been moved off-heap.
+	 */
+	public boolean isOffHeap() {
+		return memory != null;
 	}
 
 	/**
@@ -73,7 +209,9 @@ public class Column {
 	 * Adds a new cell to the column with the default value of the column.
 	 */
 	public void addCell() {
-		cells.add(new Cell(parseInput(defaultValue)));
+		cells.add(defaultValue);
+		cells = cells.adapt();
+		modified(cells.size() - 1, cells.size() - 1);
 	}
 
 	/**
@@ -81,10 +219,12 @@ public class Column {
 	 * with the column's default value.
 	 *
 	 * @param index The position at which the new cell should be inserted. It must be within
-	 *              the valid bounds of the column's {@code cells} list.
+	 *              the valid bounds of the column's cells.
 	 */
 	public void insertCell(int index) {
-		cells.add(index, new Cell(parseInput(defaultValue)));
+		cells.insert(index, defaultValue);
+		cells = cells.adapt();
+		modified(index, cells.size() - 1);
 	}
 
 	/**
@@ -100,10 +240,11 @@ public class Column {
 	 * Removes a row from the column at the specified index.
 	 *
 	 * @param rowIndx The index of the row to be removed. It should be within the
-	 *                valid bounds of the list of cells.
+	 *                valid bounds of the column's cells.
 	 */
 	public void removeRow(int rowIndx) {
 		cells.remove(rowIndx);
+		modified(rowIndx, cells.size());
 	}
 
 	/**
@@ -120,7 +261,9 @@ public class Column {
 		if (!isValidInput(value)) {
 			throw new IllegalArgumentException("Invalid cell value");
 		}
-		cells.get(rowIndex).setValue(parseInput(value));
+		cells.set(rowIndex, value);
+		cells = cells.adapt();
+		modified(rowIndex, rowIndex);
 	}
 
 
@@ -128,11 +271,194 @@ public class Column {
 	 * Retrieves the value of a cell at the specified row index as a string.
 	 *
 	 * @param rowIndex The index of the row from which to retrieve the cell value.
-	 * @return A string representation of the value of the specified cell.
+	 * @return A string representation of the value of the specified cell, or an empty string if the cell is blank.
 	 * @throws IndexOutOfBoundsException – if the index is out of range
 	 */
 	public String getCell(Integer rowIndex) {
-		return cells.get(rowIndex).getValue().toString();
+		return cells.get(rowIndex);
+	}
+
+	/**
+	 * Retrieves the value of an integer cell at the specified row index without
+	 * converting it to a string.
+	 *
+	 * @param rowIndex The index of the row from which to retrieve the cell value.
+	 * @return The value of the cell, or 0 if the cell is blank.
+	 * @throws IndexOutOfBoundsException if the index is out of range
+	 * @throws NumberFormatException     if the cell does not hold an integer
+	 */
+	public int getInt(int rowIndex) {
+		return cells.getInt(rowIndex);
+	}
+
+	/**
+	 * Retrieves the value of a boolean cell at the specified row index without
+	 * converting it to a string.
+	 *
+	 * @param rowIndex The index of the row from which to retrieve the cell value.
+	 * @return The value of the cell, or {@code false} if the cell is blank.
+	 * @throws IndexOutOfBoundsException if the index is out of range
+	 */
+	public boolean getBoolean(int rowIndex) {
+		return cells.getBoolean(rowIndex);
+	}
+
+	/**
+	 * Determines whether the cell at the specified row index is blank.
+	 *
+	 * @param rowIndex The index of the row of the cell.
+	 * @return {@code true} if the cell holds no value.
+	 * @throws IndexOutOfBoundsException if the index is out of range
+	 */
+	public boolean isBlank(int rowIndex) {
+		return cells.isBlank(rowIndex);
+	}
+
+	/**
+	 * Updates the value of a cell of an integer column without parsing a string.
+	 *
+	 * @param rowIndex The index of the row whose cell value needs to be updated.
+	 * @param value    The new value of the cell.
+	 * @throws IllegalArgumentException if the column is not of type int
+	 */
+	public void setInt(int rowIndex, int value) {
+		if (!type.equals("int")) {
+			throw new IllegalArgumentException("Invalid cell value");
+		}
+		cells.setInt(rowIndex, value);
+		cells = cells.adapt();
+		modified(rowIndex, rowIndex);
+	}
+
+	/**
+	 * Updates the value of a cell of a boolean column without parsing a string.
+	 *
+	 * @param rowIndex The index of the row whose cell value needs to be updated.
+	 * @param value    The new value of the cell.
+	 * @throws IllegalArgumentException if the column is not of type bool
+	 */
+	public void setBoolean(int rowIndex, boolean value) {
+		if (!type.equals("bool")) {
+			throw new IllegalArgumentException("Invalid cell value");
+		}
+		cells.setBoolean(rowIndex, value);
+		cells = cells.adapt();
+		modified(rowIndex, rowIndex);
+	}
+
+	/**
+	 * Appends integer cells in bulk, without parsing or validating them. A column
+	 * that is still empty and receives many cells is stored densely right away.
+	 *
+	 * @param values The values of the new cells; the value of a blank cell is ignored.
+	 * @param blanks A bitmap with a set bit for every blank cell.
+	 * @param count  The number of cells to append.
+	 * @throws IllegalArgumentException if the column is not of type int
+	 */
+	public void appendInts(int[] values, long[] blanks, int count) {
+		if (!type.equals("int")) {
+			throw new IllegalArgumentException("Invalid cell value");
+		}
+		int start = prepareAppend(count);
+		for (int i = 0; i < count; i++) {
+			if (Bits.get(blanks, i)) {
+				cells.add("");
+			} else {
+				cells.addInt(values[i]);
+			}
+		}
+		cells = cells.adapt();
+		appended(start);
+	}
+
+	/**
+	 * Appends boolean cells in bulk, without parsing or validating them. A column
+	 * that is still empty and receives many cells is stored densely right away.
+	 *
+	 * @param values A bitmap with a set bit for every true cell.
+	 * @param blanks A bitmap with a set bit for every blank cell.
+	 * @param count  The number of cells to append.
+	 * @throws IllegalArgumentException if the column is not of type bool
+	 */
+	public void appendBooleans(long[] values, long[] blanks, int count) {
+		if (!type.equals("bool")) {
+			throw new IllegalArgumentException("Invalid cell value");
+		}
+		int start = prepareAppend(count);
+		for (int i = 0; i < count; i++) {
+			if (Bits.get(blanks, i)) {
+				cells.add("");
+			} else {
+				cells.addBoolean(Bits.get(values, i));
+			}
+		}
+		cells = cells.adapt();
+		appended(start);
+	}
+
+	/**
+	 * Appends cells in bulk, without validating them, like {@link #addCell()} does
+	 * with the default value. A column that is still empty and receives many cells
+	 * is stored densely right away.
+	 *
+	 * @param values The values of the new cells, null or empty for blank cells.
+	 * @param count  The number of cells to append.
+	 */
+	public void appendStrings(String[] values, int count) {
+		int start = prepareAppend(count);
+		for (int i = 0; i < count; i++) {
+			cells.add(values[i]);
+		}
+		cells = cells.adapt();
+		appended(start);
+	}
+
+	/**
+	 * Replaces the sparse storage of an empty column by dense storage if it is about
+	 * to receive enough cells to be converted anyway.
+	 *
+	 * @param count The number of cells that will be appended.
+	 * @return The index of the first appended cell.
+	 */
+	private int prepareAppend(int count) {
+		if (cells.size() == 0 && count >= SparseColumnStorage.MIN_DENSE_SIZE && cells instanceof SparseColumnStorage) {
+			cells = newDenseStorage();
+		}
+		return cells.size();
+	}
+
+	private void appended(int start) {
+		if (cells.size() > start) {
+			modified(start, cells.size() - 1);
+		}
+	}
+
+	/**
+	 * Counts the cells of the column that hold the value {@code true}.
+	 *
+	 * @return The number of true cells, 0 if the column does not hold boolean values.
+	 */
+	public int countTrue() {
+		return cells.countTrue();
+	}
+
+	/**
+	 * Counts the cells of the column that hold the given value.
+	 *
+	 * @param value The value to count, or an empty string to count blank cells.
+	 * @return The number of cells equal to the value.
+	 */
+	public int countEqual(String value) {
+		return cells.countEqual(value);
+	}
+
+	/**
+	 * Determines whether the column allows blank cells.
+	 *
+	 * @return {@code true} if blank cells are allowed.
+	 */
+	public boolean getAllowsBlanks() {
+		return allowsBlanks;
 	}
 
 	/**
@@ -169,6 +495,7 @@ public class Column {
 	 */
 	public void setDefaultValue(String value) {
 		this.defaultValue = value;
+		this.parsedDefault = null;
 	}
 
 	/**
@@ -176,9 +503,13 @@ public class Column {
 	 *
 	 * @param input The input string to be validated. It should represent a value
 	 *              compatible with the column's type (e.g., string, integer, or boolean).
+	 *              An empty input is valid if the column allows blanks.
 	 * @return {@code true} if the input is valid for the column's type, {@code false} otherwise.'
 	 */
 	public boolean isValidInput(String input) {
+		if (allowsBlanks && ColumnStorage.isBlankInput(input)) {
+			return true;
+		}
 		switch (type) {
 			case "string":
 				return StringValue.isValid(input);
@@ -199,20 +530,147 @@ public class Column {
 	 *              - For a string type, any input is valid.
 	 *              - For an integer type, the input must represent a valid integer.
 	 *              - For a boolean type, the input must be "true" or "false" (case insensitive).
+	 *              Values are immutable, so the parsed default value of the column, boolean values
+	 *              and small integers are shared instances.
 	 * @return A {@code CellValue} object representing the parsed input.
 	 * @throws IllegalArgumentException If the column's type is unknown or the input is invalid for the specified type.
 	 */
 	public CellValue parseInput(String input) {
+		if (input != null && input.equals(defaultValue)) {
+			if (parsedDefault == null) {
+				parsedDefault = parseValue(input);
+			}
+			return parsedDefault;
+		}
+		return parseValue(input);
+	}
+
+	/**
+	 * Parses the input string into a {@code CellValue} of the column's data type.
+	 *
+	 * @param input The input string that will be converted into a {@code CellValue}.
+	 * @return A {@code CellValue} object representing the parsed input.
+	 * @throws IllegalArgumentException If the column's type is unknown or the input is invalid for the specified type.
+	 */
+	private CellValue parseValue(String input) {
 		switch (type) {
 			case "string":
 				return new StringValue(input);
 			case "int":
-				return new IntValue(input);
+				return IntValue.valueOf(input);
 			case "bool":
-				return new BoolValue(input);
+				return BoolValue.valueOf(input);
 			default:
 				throw new IllegalArgumentException("Unknown type: " + type);
 		}
 	}
 
+	/**
+	 * Gives the chunks of {@link ColumnReader#VERSION_CHUNK_SIZE} rows that contain
+	 * the given rows a new version. Versions are taken from a counter that only
+	 * increases, so a chunk never returns to a version it had before.
+	 *
+	 * @param firstRow The first row that changed.
+	 * @param lastRow  The last row that changed.
+	 */
+	private void modified(int firstRow, int lastRow) {
+		int firstChunk = firstRow / ColumnReader.VERSION_CHUNK_SIZE;
+		int lastChunk = lastRow / ColumnReader.VERSION_CHUNK_SIZE;
+		if (lastChunk >= chunkVersions.length) {
+			chunkVersions = Arrays.copyOf(chunkVersions, Math.max(lastChunk + 1, chunkVersions.length * 2));
+		}
+		modificationCount++;
+		for (int chunk = firstChunk; chunk <= lastChunk; chunk++) {
+			chunkVersions[chunk] = modificationCount;
+		}
+	}
+
+	/**
+	 * Creates an empty storage for the column's cells. Columns of a known type start
+	 * out sparse, storing only the cells that differ from the default value, and turn
+	 * dense once enough cells have been edited. Off-heap columns skip the sparse
+	 * layer, whose entries would stay on the heap.
+	 *
+	 * @return A new, empty {@code ColumnStorage}.
+	 */
+	private ColumnStorage newStorage() {
+		if (memory != null) {
+			return newDenseStorage();
+		}
+		switch (type) {
+			case "string":
+			case "int":
+			case "bool":
+				return new SparseColumnStorage(type, defaultValue, this::normalize, this::newDenseStorage);
+			default:
+				return newDenseStorage();
+		}
+	}
+
+	/**
+	 * Creates an empty dense storage for the column's cells. The cells are divided into
+	 * blocks so that inserting or removing a row does not shift the whole column. The
+	 * dictionary-encoded blocks of a string column share one dictionary.
+	 *
+	 * @return A new, empty {@code ColumnStorage}.
+	 */
+	private ColumnStorage newDenseStorage() {
+		dictionary = new StringDictionary();
+		return new ChunkedColumnStorage(this::newBlock);
+	}
+
+	/**
+	 * Returns the string a dense storage reads back for the given valid, non-blank input.
+	 *
+	 * @param input The input string.
+	 * @return The canonical representation of the input for the column's type.
+	 */
+	private String normalize(String input) {
+		switch (type) {
+			case "int":
+				return Integer.toString(Integer.parseInt(input));
+			case "bool":
+				return Boolean.toString(Boolean.parseBoolean(input));
+			default:
+				return input;
+		}
+	}
+
+	/**
+	 * Creates an empty block suited to the column's data type. Integer and boolean
+	 * columns are stored as primitive values, string columns are dictionary-encoded as
+	 * long as the column's dictionary pays off and other types keep one {@code Cell}
+	 * per row. Off-heap columns keep integer, boolean and string values in segments of
+	 * the table's memory.
+	 *
+	 * @return A new, empty {@code ColumnStorage} for one block of cells.
+	 */
+	private ColumnStorage newBlock() {
+		if (memory != null) {
+			switch (type) {
+				case "int":
+					return new OffHeapIntColumnStorage(memory);
+				case "bool":
+					return new OffHeapBoolColumnStorage(memory);
+				case "string":
+					return new OffHeapStringColumnStorage(memory);
+				default:
+					return new CellColumnStorage(this::parseInput);
+			}
+		}
+		switch (type) {
+			case "int":
+				return new IntColumnStorage();
+			case "bool":
+				return new BoolColumnStorage();
+			case "string":
+				if (DictionaryColumnStorage.paysOff(dictionary)) {
+					return new DictionaryColumnStorage(dictionary);
+				}
+				return new CellColumnStorage(StringValue::new);
+			default:
+				return new CellColumnStorage(this::parseInput);
+		}
+	}
+
 }
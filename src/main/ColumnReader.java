@@ -0,0 +1,69 @@
+package main;
+
+/**
+ * Read-only view on the cells of a column. A reader reads straight from the
+ * storage of the column, so it always reflects the current contents of the column
+ * and reading a cell does not copy the rest of the column.
+ */
+public interface ColumnReader {
+
+	/**
+	 * The number of consecutive rows that share a version, see {@link #getVersion(int)}.
+	 */
+	int VERSION_CHUNK_SIZE = 1024;
+
+	/**
+	 * Returns the number of cells in the column.
+	 *
+	 * @return The number of cells.
+	 */
+	int size();
+
+	/**
+	 * Retrieves the value of the cell at the specified row index as a string.
+	 *
+	 * @param rowIndex The index of the row of the cell.
+	 * @return The value of the cell, or an empty string if the cell is blank.
+	 * @throws IndexOutOfBoundsException if the index is out of range
+	 */
+	String get(int rowIndex);
+
+	/**
+	 * Determines whether the cell at the specified row index is blank.
+	 *
+	 * @param rowIndex The index of the row of the cell.
+	 * @return {@code true} if the cell holds no value.
+	 * @throws IndexOutOfBoundsException if the index is out of range
+	 */
+	boolean isBlank(int rowIndex);
+
+	/**
+	 * Retrieves the value of an integer cell without converting it to a string.
+	 *
+	 * @param rowIndex The index of the row of the cell.
+	 * @return The value of the cell, or 0 if the cell is blank.
+	 * @throws IndexOutOfBoundsException if the index is out of range
+	 * @throws NumberFormatException     if the cell does not hold an integer
+	 */
+	int getInt(int rowIndex);
+
+	/**
+	 * Retrieves the value of a boolean cell without converting it to a string.
+	 *
+	 * @param rowIndex The index of the row of the cell.
+	 * @return The value of the cell, or {@code false} if the cell is blank.
+	 * @throws IndexOutOfBoundsException if the index is out of range
+	 */
+	boolean getBoolean(int rowIndex);
+
+	/**
+	 * Returns the version of a chunk of rows: the rows from {@code chunk * VERSION_CHUNK_SIZE}
+	 * up to but not including {@code (chunk + 1) * VERSION_CHUNK_SIZE}. The version changes
+	 * whenever a cell in the chunk changes, including when rows are added or removed
+	 * at or before the chunk.
+	 *
+	 * @param chunk The number of the chunk.
+	 * @return The version of the chunk.
+	 */
+	long getVersion(int chunk);
+}
@@ -0,0 +1,265 @@
+package main;
+
+/**
+ * Backing store for the cells of a {@link Column}.
+ * <p>
+ * A storage holds the values of one column in row order. Values enter and leave
+ * the storage as strings so that every implementation can be used behind the
+ * same {@code Column} API; implementations are free to keep them in whatever
+ * representation suits the column type. An empty (or null) input string denotes
+ * a blank cell, which reads back as the empty string.
+ */
+public abstract class ColumnStorage {
+
+	/**
+	 * Returns the number of cells in the storage.
+	 *
+	 * @return The number of cells.
+	 */
+	public abstract int size();
+
+	/**
+	 * Appends a cell holding the given value.
+	 *
+	 * @param value The string representation of the value, or an empty string for a blank cell.
+	 */
+	public abstract void add(String value);
+
+	/**
+	 * Inserts a cell holding the given value at the specified index, shifting later cells down.
+	 *
+	 * @param index The index at which the cell is inserted. Must be between 0 and {@link #size()}.
+	 * @param value The string representation of the value, or an empty string for a blank cell.
+	 * @throws IndexOutOfBoundsException if the index is out of range
+	 */
+	public abstract void insert(int index, String value);
+
+	/**
+	 * Replaces the value of the cell at the specified index.
+	 *
+	 * @param index The index of the cell.
+	 * @param value The string representation of the value, or an empty string for a blank cell.
+	 * @throws IndexOutOfBoundsException if the index is out of range
+	 */
+	public abstract void set(int index, String value);
+
+	/**
+	 * Retrieves the value of the cell at the specified index.
+	 *
+	 * @param index The index of the cell.
+	 * @return The string representation of the value, or an empty string if the cell is blank.
+	 * @throws IndexOutOfBoundsException if the index is out of range
+	 */
+	public abstract String get(int index);
+
+	/**
+	 * Determines whether the cell at the specified index is blank.
+	 *
+	 * @param index The index of the cell.
+	 * @return {@code true} if the cell holds no value, {@code false} otherwise.
+	 * @throws IndexOutOfBoundsException if the index is out of range
+	 */
+	public abstract boolean isBlank(int index);
+
+	/**
+	 * Removes the cell at the specified index, shifting later cells up.
+	 *
+	 * @param index The index of the cell to remove.
+	 * @throws IndexOutOfBoundsException if the index is out of range
+	 */
+	public abstract void remove(int index);
+
+	/**
+	 * Retrieves the integer value of the cell at the specified index. By default the
+	 * value is parsed from its string representation; storages that keep integers
+	 * as primitives return them directly.
+	 *
+	 * @param index The index of the cell.
+	 * @return The value of the cell, or 0 if the cell is blank.
+	 * @throws IndexOutOfBoundsException if the index is out of range
+	 * @throws NumberFormatException     if the cell does not hold an integer
+	 */
+	public int getInt(int index) {
+		return isBlank(index) ? 0 : Integer.parseInt(get(index));
+	}
+
+	/**
+	 * Sets the integer value of the cell at the specified index, clearing its blank flag.
+	 *
+	 * @param index The index of the cell.
+	 * @param value The new value.
+	 * @throws IndexOutOfBoundsException if the index is out of range
+	 */
+	public void setInt(int index, int value) {
+		set(index, Integer.toString(value));
+	}
+
+	/**
+	 * Appends a cell holding the given integer without converting it to a string.
+	 * By default a blank cell is appended and its value set with {@link #setInt(int, int)}.
+	 *
+	 * @param value The value of the new cell.
+	 */
+	public void addInt(int value) {
+		add("");
+		setInt(size() - 1, value);
+	}
+
+	/**
+	 * Retrieves the boolean value of the cell at the specified index. By default the
+	 * value is parsed from its string representation; storages that keep booleans
+	 * as bits return them directly.
+	 *
+	 * @param index The index of the cell.
+	 * @return The value of the cell, or {@code false} if the cell is blank.
+	 * @throws IndexOutOfBoundsException if the index is out of range
+	 */
+	public boolean getBoolean(int index) {
+		return !isBlank(index) && Boolean.parseBoolean(get(index));
+	}
+
+	/**
+	 * Sets the boolean value of the cell at the specified index, clearing its blank flag.
+	 *
+	 * @param index The index of the cell.
+	 * @param value The new value.
+	 * @throws IndexOutOfBoundsException if the index is out of range
+	 */
+	public void setBoolean(int index, boolean value) {
+		set(index, Boolean.toString(value));
+	}
+
+	/**
+	 * Appends a cell holding the given boolean without converting it to a string.
+	 * By default a blank cell is appended and its value set with {@link #setBoolean(int, boolean)}.
+	 *
+	 * @param value The value of the new cell.
+	 */
+	public void addBoolean(boolean value) {
+		add("");
+		setBoolean(size() - 1, value);
+	}
+
+	/**
+	 * Counts the cells holding the boolean value {@code true}.
+	 * Blank cells are not counted.
+	 *
+	 * @return The number of true cells.
+	 */
+	public int countTrue() {
+		int count = 0;
+		for (int i = 0; i < size(); i++) {
+			if (!isBlank(i) && Boolean.parseBoolean(get(i))) {
+				count++;
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * Counts the cells equal to the given value.
+	 *
+	 * @param value The value to count, or an empty string to count blank cells.
+	 * @return The number of cells holding the value.
+	 */
+	public int countEqual(String value) {
+		String target = isBlankInput(value) ? "" : value;
+		int count = 0;
+		for (int i = 0; i < size(); i++) {
+			if (get(i).equals(target)) {
+				count++;
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * Determines whether two cells hold the same value.
+	 *
+	 * @param index      The index of the first cell.
+	 * @param otherIndex The index of the second cell.
+	 * @return {@code true} if both cells hold the same value or are both blank.
+	 */
+	public boolean cellsEqual(int index, int otherIndex) {
+		return get(index).equals(get(otherIndex));
+	}
+
+	/**
+	 * Returns the storage that should hold the cells from now on. Storages whose
+	 * best representation depends on their contents return a converted copy of
+	 * themselves once that representation changes; by default the storage itself is returned.
+	 *
+	 * @return This storage or a replacement holding the same cells.
+	 */
+	public ColumnStorage adapt() {
+		return this;
+	}
+
+	/**
+	 * Returns a read-only storage holding the current cells, which later modifications
+	 * of this storage do not change, so that the cells can be read on another thread
+	 * while this storage is being edited. Storages that can share their cells with the
+	 * frozen storage only copy them when either one is modified; by default the cells
+	 * are copied right away.
+	 *
+	 * @return A storage holding the same cells. It must be closed once it is no longer read.
+	 */
+	public ColumnStorage freeze() {
+		ColumnStorage frozen = new CellColumnStorage(StringValue::new);
+		copyTo(frozen);
+		return frozen;
+	}
+
+	/**
+	 * Appends the cells of this storage to another storage. By default every cell is
+	 * copied as a string; storages that keep primitive values copy them as such.
+	 *
+	 * @param target The storage to append the cells to.
+	 */
+	public void copyTo(ColumnStorage target) {
+		for (int i = 0; i < size(); i++) {
+			target.add(get(i));
+		}
+	}
+
+	/**
+	 * Releases any memory the storage holds outside the Java heap. The storage must
+	 * not be used afterwards. Does nothing by default.
+	 */
+	public void close() {
+	}
+
+	/**
+	 * Determines whether the given input denotes a blank cell.
+	 *
+	 * @param value The input string.
+	 * @return {@code true} if the input is null or empty.
+	 */
+	static boolean isBlankInput(String value) {
+		return value == null || value.isEmpty();
+	}
+
+	/**
+	 * Checks that the index refers to an existing cell.
+	 *
+	 * @param index The index to check.
+	 * @throws IndexOutOfBoundsException if the index is out of range
+	 */
+	protected void checkIndex(int index) {
+		if (index < 0 || index >= size()) {
+			throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length " + size());
+		}
+	}
+
+	/**
+	 * Checks that the index is a valid insertion point.
+	 *
+	 * @param index The index to check.
+	 * @throws IndexOutOfBoundsException if the index is out of range
+	 */
+	protected void checkInsertIndex(int index) {
+		if (index < 0 || index > size()) {
+			throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length " + size());
+		}
+	}
+}
@@ -18,4 +18,11 @@ public interface Command {
 	 * This method restores the state to what it was before the command was executed.
 	 */
 	public void undo();
-}
+
+	/**
+	 * Called when the command is dropped from the undo history and will neither be
+	 * undone nor redone again. Commands can release resources they hold here.
+	 */
+	public default void discard() {
+	}
+}
\ No newline at end of file
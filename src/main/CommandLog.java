@@ -0,0 +1,316 @@
+package main;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import java.util.zip.CRC32;
+
+/**
+ * A log of {@link CommandRecord}s. Records are appended to a file in frames
+ * holding the length of the record, a CRC-32 checksum of the record and the
+ * record itself.
+ * <p>
+ * The log is written behind the tables, not ahead of them: a command changes the
+ * tables first and its record is appended afterwards, so the log never holds a
+ * command that was not executed. A command is only complete once its record is
+ * on disk: {@link TablrManager} calls {@link #sync()} after every command it logs,
+ * before the command returns to its caller.
+ * <p>
+ * Appending a record does not wait for the disk. A background thread writes the
+ * records appended so far and forces them to disk with a single {@code fsync};
+ * records appended while it does so are written together in the next batch, and
+ * every caller waiting in {@link #sync()} for one of them is released by that
+ * batch. This way commands of several threads share an {@code fsync}.
+ * <p>
+ * Records that put back whole tables or columns do not hold their cells. The cells
+ * are written to a workspace file next to the log with {@link #writeTables(Collection)}
+ * before the record is appended, and the record refers to that file.
+ * {@link #delete(Path)} deletes a log together with these files.
+ * <p>
+ * A crash can leave the last frame incomplete. {@link #read(Path)} stops at the
+ * first incomplete or damaged frame and cuts it off, so appending can continue
+ * after the last complete record.
+ */
+public class CommandLog implements Closeable {
+
+	private static final int FRAME_HEADER_SIZE = 8;
+	private static final String TABLES_SUFFIX = ".tablr";
+
+	private final Path path;
+	private final FileChannel channel;
+	private final Thread writer;
+	private final ByteArrayOutputStream record = new ByteArrayOutputStream();
+	private final DataOutputStream recordOut = new DataOutputStream(record);
+	private final CRC32 checksum = new CRC32();
+	private ByteArrayOutputStream pending = new ByteArrayOutputStream();
+	private ByteArrayOutputStream writing = new ByteArrayOutputStream();
+	private long appended;
+	private long size;
+	private long durable;
+	private IOException failure;
+	private boolean closed;
+
+	/**
+	 * Opens a log for appending, creating the file if it does not exist yet.
+	 *
+	 * @param path The file of the log.
+	 * @throws IOException if the file cannot be opened
+	 */
+	public CommandLog(Path path) throws IOException {
+		this.path = path;
+		this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				StandardOpenOption.APPEND);
+		this.size = channel.size();
+		this.writer = new Thread(this::writeBatches, "Tablr command log");
+		writer.setDaemon(true);
+		writer.start();
+	}
+
+	/**
+	 * @return The file of the log.
+	 */
+	public Path getPath() {
+		return path;
+	}
+
+	/**
+	 * Appends a record to the log. The record is written to disk by the background
+	 * thread; use {@link #sync()} to wait until it is.
+	 *
+	 * @param commandRecord The record to append.
+	 * @return The number of records appended so far.
+	 * @throws UncheckedIOException  if writing an earlier batch failed
+	 * @throws IllegalStateException if the log is closed
+	 */
+	public synchronized long append(CommandRecord commandRecord) {
+		checkOpen();
+		try {
+			record.reset();
+			commandRecord.write(recordOut);
+			checksum.reset();
+			checksum.update(record.toByteArray());
+			DataOutputStream out = new DataOutputStream(pending);
+			out.writeInt(record.size());
+			out.writeInt((int) checksum.getValue());
+			record.writeTo(out);
+			size += FRAME_HEADER_SIZE + record.size();
+		} catch (IOException e) {
+			// writing to memory does not fail
+			throw new UncheckedIOException(e);
+		}
+		appended++;
+		notifyAll();
+		return appended;
+	}
+
+	/**
+	 * Writes tables to a new workspace file next to the log, for a record that refers
+	 * to them instead of holding their cells. The file is on disk when this method
+	 * returns.
+	 *
+	 * @param tables The tables to write.
+	 * @return The file the tables were written to.
+	 * @throws IOException if the file cannot be written
+	 */
+	public Path writeTables(Collection<Table> tables) throws IOException {
+		Path file = path.resolveSibling(path.getFileName() + "." + UUID.randomUUID() + TABLES_SUFFIX);
+		WorkspaceFile.write(file, tables);
+		return file;
+	}
+
+	/**
+	 * @return The size of the log file once all records appended so far are written.
+	 */
+	public synchronized long size() {
+		return size;
+	}
+
+	/**
+	 * Waits until all records appended so far have been forced to disk.
+	 *
+	 * @throws IOException if writing the records failed or the wait was interrupted
+	 */
+	public synchronized void sync() throws IOException {
+		long target = appended;
+		while (durable < target && failure == null) {
+			try {
+				wait();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new InterruptedIOException("Interrupted while waiting for the command log");
+			}
+		}
+		if (failure != null) {
+			throw failure;
+		}
+	}
+
+	/**
+	 * Writes the remaining records to disk and closes the log.
+	 *
+	 * @throws IOException if writing the records failed
+	 */
+	@Override
+	public void close() throws IOException {
+		synchronized (this) {
+			if (closed) {
+				return;
+			}
+			closed = true;
+			notifyAll();
+		}
+		try {
+			writer.join();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("Interrupted while closing the command log");
+		} finally {
+			channel.close();
+		}
+		synchronized (this) {
+			if (failure != null) {
+				throw failure;
+			}
+		}
+	}
+
+	private void checkOpen() {
+		if (closed) {
+			throw new IllegalStateException("Command log is closed");
+		}
+		if (failure != null) {
+			throw new UncheckedIOException(failure);
+		}
+	}
+
+	/**
+	 * Runs on the background thread: writes and forces the pending records until the log is closed.
+	 */
+	private void writeBatches() {
+		while (true) {
+			long batchEnd;
+			synchronized (this) {
+				while (pending.size() == 0 && !closed) {
+					try {
+						wait();
+					} catch (InterruptedException e) {
+						// only close() ends the thread
+					}
+				}
+				if (pending.size() == 0) {
+					return;
+				}
+				ByteArrayOutputStream batch = pending;
+				pending = writing;
+				writing = batch;
+				batchEnd = appended;
+			}
+			try {
+				ByteBuffer buffer = ByteBuffer.wrap(writing.toByteArray());
+				while (buffer.hasRemaining()) {
+					channel.write(buffer);
+				}
+				channel.force(false);
+				writing.reset();
+			} catch (IOException e) {
+				synchronized (this) {
+					failure = e;
+					notifyAll();
+				}
+				return;
+			}
+			synchronized (this) {
+				durable = batchEnd;
+				notifyAll();
+			}
+		}
+	}
+
+	/**
+	 * Deletes a log file together with the table files written next to it. The table
+	 * files are deleted first, so a log is never left without them.
+	 *
+	 * @param path The file of the log.
+	 * @throws IOException if a file cannot be deleted
+	 */
+	public static void delete(Path path) throws IOException {
+		Path directory = path.toAbsolutePath().getParent();
+		String prefix = path.getFileName() + ".";
+		try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, file -> {
+			String name = file.getFileName().toString();
+			return name.startsWith(prefix) && name.endsWith(TABLES_SUFFIX);
+		})) {
+			for (Path file : files) {
+				Files.deleteIfExists(file);
+			}
+		}
+		Files.deleteIfExists(path);
+	}
+
+	/**
+	 * Reads the records of a log. Reading stops at the first incomplete or damaged
+	 * frame, which is cut off the file together with everything after it.
+	 *
+	 * @param path The file of the log.
+	 * @return The complete records in the log, in the order they were appended,
+	 * or an empty list if the file does not exist.
+	 * @throws IOException if the file cannot be read or truncated
+	 */
+	public static List<CommandRecord> read(Path path) throws IOException {
+		List<CommandRecord> records = new ArrayList<>();
+		if (!Files.exists(path)) {
+			return records;
+		}
+		Path directory = path.toAbsolutePath().getParent();
+		ByteBuffer log = ByteBuffer.wrap(Files.readAllBytes(path));
+		CRC32 checksum = new CRC32();
+		while (log.remaining() >= FRAME_HEADER_SIZE) {
+			int start = log.position();
+			int length = log.getInt();
+			int expected = log.getInt();
+			if (length <= 0 || length > log.remaining()) {
+				log.position(start);
+				break;
+			}
+			checksum.reset();
+			checksum.update(log.array(), log.position(), length);
+			CommandRecord commandRecord = null;
+			if ((int) checksum.getValue() == expected) {
+				try {
+					commandRecord = CommandRecord.read(
+							new DataInputStream(new ByteArrayInputStream(log.array(), log.position(), length)), directory);
+				} catch (IOException e) {
+					// a damaged frame ends the log
+				}
+			}
+			if (commandRecord == null) {
+				log.position(start);
+				break;
+			}
+			records.add(commandRecord);
+			log.position(log.position() + length);
+		}
+		if (log.hasRemaining()) {
+			try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+				channel.truncate(log.position());
+				channel.force(false);
+			}
+		}
+		return records;
+	}
+}
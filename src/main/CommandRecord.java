@@ -0,0 +1,548 @@
+package main;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * A serializable description of a modification of the tables of a
+ * {@link TablrManager}. Every command the manager executes, undoes or redoes is
+ * described by a record of its effect, which is written to the {@link CommandLog}:
+ * undoing a command is described by the inverse modification. Applying the records
+ * to the manager in the order they were written repeats the modifications, without
+ * depending on the undo history they were made with.
+ */
+public sealed interface CommandRecord {
+
+	/*
+	 * Tags identifying the kind of a written record.
+	 */
+	int ADD_TABLE = 1;
+	int REMOVE_TABLE = 2;
+	int CHANGE_NAME = 3;
+	int CHANGE_NAME_COLUMN = 4;
+	int ADD_COLUMN = 5;
+	int REMOVE_COLUMN = 6;
+	int ADD_ROW = 7;
+	int REMOVE_ROW = 8;
+	int UPDATE_CELL = 9;
+	int SET_INT = 10;
+	int SET_BOOLEAN = 11;
+	int CHANGE_ALLOW_BLANKS = 12;
+	int CHANGE_TYPE = 13;
+	int SET_DEFAULT_VALUE = 14;
+	int INSERT_ROW = 15;
+	int RESTORE_COLUMN = 16;
+	int RESTORE_TABLE = 17;
+	int RESTORE_TYPE = 18;
+
+	/**
+	 * Repeats the modification on a manager, through its public operations.
+	 *
+	 * @param manager The manager to modify.
+	 */
+	void apply(TablrManager manager);
+
+	/**
+	 * Writes the record, starting with a tag identifying its kind.
+	 *
+	 * @param out The output to write to.
+	 * @throws IOException if the record cannot be written
+	 */
+	void write(DataOutput out) throws IOException;
+
+	/**
+	 * Reads a record written by {@link #write(DataOutput)}.
+	 *
+	 * @param in        The input to read from.
+	 * @param directory The directory of the log, which holds the table files records refer to.
+	 * @return The record.
+	 * @throws IOException if the record cannot be read or has an unknown tag
+	 */
+	static CommandRecord read(DataInput in, Path directory) throws IOException {
+		int tag = in.readByte();
+		switch (tag) {
+			case ADD_TABLE:
+				return new AddTable(readId(in), readString(in));
+			case REMOVE_TABLE:
+				return new RemoveTable(readId(in));
+			case CHANGE_NAME:
+				return new ChangeName(readId(in), readString(in));
+			case CHANGE_NAME_COLUMN:
+				return new ChangeNameColumn(readId(in), readString(in), readString(in));
+			case ADD_COLUMN:
+				return new AddColumn(readId(in));
+			case REMOVE_COLUMN:
+				return new RemoveColumn(readId(in), readString(in));
+			case ADD_ROW:
+				return new AddRow(readId(in));
+			case REMOVE_ROW:
+				return new RemoveRow(readId(in), in.readInt());
+			case UPDATE_CELL:
+				return new UpdateCell(readId(in), readString(in), in.readInt(), readString(in));
+			case SET_INT:
+				return new SetInt(readId(in), readString(in), in.readInt(), in.readInt());
+			case SET_BOOLEAN:
+				return new SetBoolean(readId(in), readString(in), in.readInt(), in.readBoolean());
+			case CHANGE_ALLOW_BLANKS:
+				return new ChangeAllowBlanks(readId(in), readString(in));
+			case CHANGE_TYPE:
+				return new ChangeType(readId(in), readString(in));
+			case SET_DEFAULT_VALUE:
+				return new SetDefaultValue(readId(in), readString(in), readString(in));
+			case INSERT_ROW: {
+				UUID table = readId(in);
+				int row = in.readInt();
+				String[] values = new String[in.readInt()];
+				for (int i = 0; i < values.length; i++) {
+					values[i] = readString(in);
+				}
+				return new InsertRow(table, row, Arrays.asList(values));
+			}
+			case RESTORE_COLUMN:
+				return new RestoreColumn(readId(in), directory.resolve(readString(in)));
+			case RESTORE_TABLE:
+				return new RestoreTable(readId(in), directory.resolve(readString(in)));
+			case RESTORE_TYPE:
+				return new RestoreType(readId(in), readString(in), readString(in));
+			default:
+				throw new IOException("Unknown command record " + tag);
+		}
+	}
+
+	/**
+	 * Adds a table. The id is recorded so that later records find the table again.
+	 *
+	 * @param table The UUID of the new table.
+	 * @param name  The name of the new table.
+	 */
+	record AddTable(UUID table, String name) implements CommandRecord {
+		@Override
+		public void apply(TablrManager manager) {
+			manager.addTable(table, name);
+		}
+
+		@Override
+		public void write(DataOutput out) throws IOException {
+			out.writeByte(ADD_TABLE);
+			writeId(out, table);
+			writeString(out, name);
+		}
+	}
+
+	/**
+	 * Removes a table.
+	 *
+	 * @param table The UUID of the table.
+	 */
+	record RemoveTable(UUID table) implements CommandRecord {
+		@Override
+		public void apply(TablrManager manager) {
+			manager.removeTable(table);
+		}
+
+		@Override
+		public void write(DataOutput out) throws IOException {
+			out.writeByte(REMOVE_TABLE);
+			writeId(out, table);
+		}
+	}
+
+	/**
+	 * Renames a table.
+	 *
+	 * @param table The UUID of the table.
+	 * @param name  The new name of the table.
+	 */
+	record ChangeName(UUID table, String name) implements CommandRecord {
+		@Override
+		public void apply(TablrManager manager) {
+			manager.changeName(table, name);
+		}
+
+		@Override
+		public void write(DataOutput out) throws IOException {
+			out.writeByte(CHANGE_NAME);
+			writeId(out, table);
+			writeString(out, name);
+		}
+	}
+
+	/**
+	 * Renames a column.
+	 *
+	 * @param table  The UUID of the table.
+	 * @param column The name of the column.
+	 * @param name   The new name of the column.
+	 */
+	record ChangeNameColumn(UUID table, String column, String name) implements CommandRecord {
+		@Override
+		public void apply(TablrManager manager) {
+			manager.changeNameColumn(table, column, name);
+		}
+
+		@Override
+		public void write(DataOutput out) throws IOException {
+			out.writeByte(CHANGE_NAME_COLUMN);
+			writeId(out, table);
+			writeString(out, column);
+			writeString(out, name);
+		}
+	}
+
+	/**
+	 * Adds a column with a generated name.
+	 *
+	 * @param table The UUID of the table.
+	 */
+	record AddColumn(UUID table) implements CommandRecord {
+		@Override
+		public void apply(TablrManager manager) {
+			manager.addColumn(table);
+		}
+
+		@Override
+		public void write(DataOutput out) throws IOException {
+			out.writeByte(ADD_COLUMN);
+			writeId(out, table);
+		}
+	}
+
+	/**
+	 * Removes a column.
+	 *
+	 * @param table  The UUID of the table.
+	 * @param column The name of the column.
+	 */
+	record RemoveColumn(UUID table, String column) implements CommandRecord {
+		@Override
+		public void apply(TablrManager manager) {
+			manager.removeColumn(table, column);
+		}
+
+		@Override
+		public void write(DataOutput out) throws IOException {
+			out.writeByte(REMOVE_COLUMN);
+			writeId(out, table);
+			writeString(out, column);
+		}
+	}
+
+	/**
+	 * Adds a row at the end of a table.
+	 *
+	 * @param table The UUID of the table.
+	 */
+	record AddRow(UUID table) implements CommandRecord {
+		@Override
+		public void apply(TablrManager manager) {
+			manager.addRow(table);
+		}
+
+		@Override
+		public void write(DataOutput out) throws IOException {
+			out.writeByte(ADD_ROW);
+			writeId(out, table);
+		}
+	}
+
+	/**
+	 * Removes a row.
+	 *
+	 * @param table The UUID of the table.
+	 * @param row   The index of the row.
+	 */
+	record RemoveRow(UUID table, int row) implements CommandRecord {
+		@Override
+		public void apply(TablrManager manager) {
+			manager.removeRow(table, row);
+		}
+
+		@Override
+		public void write(DataOutput out) throws IOException {
+			out.writeByte(REMOVE_ROW);
+			writeId(out, table);
+			out.writeInt(row);
+		}
+	}
+
+	/**
+	 * Changes the value of a cell.
+	 *
+	 * @param table  The UUID of the table.
+	 * @param column The name of the column.
+	 * @param row    The index of the row.
+	 * @param value  The new value of the cell.
+	 */
+	record UpdateCell(UUID table, String column, int row, String value) implements CommandRecord {
+		@Override
+		public void apply(TablrManager manager) {
+			manager.updateCell(table, column, row, value);
+		}
+
+		@Override
+		public void write(DataOutput out) throws IOException {
+			out.writeByte(UPDATE_CELL);
+			writeId(out, table);
+			writeString(out, column);
+			out.writeInt(row);
+			writeString(out, value);
+		}
+	}
+
+	/**
+	 * Changes the value of a cell of an integer column.
+	 *
+	 * @param table  The UUID of the table.
+	 * @param column The name of the column.
+	 * @param row    The index of the row.
+	 * @param value  The new value of the cell.
+	 */
+	record SetInt(UUID table, String column, int row, int value) implements CommandRecord {
+		@Override
+		public void apply(TablrManager manager) {
+			manager.setInt(table, column, row, value);
+		}
+
+		@Override
+		public void write(DataOutput out) throws IOException {
+			out.writeByte(SET_INT);
+			writeId(out, table);
+			writeString(out, column);
+			out.writeInt(row);
+			out.writeInt(value);
+		}
+	}
+
+	/**
+	 * Changes the value of a cell of a boolean column.
+	 *
+	 * @param table  The UUID of the table.
+	 * @param column The name of the column.
+	 * @param row    The index of the row.
+	 * @param value  The new value of the cell.
+	 */
+	record SetBoolean(UUID table, String column, int row, boolean value) implements CommandRecord {
+		@Override
+		public void apply(TablrManager manager) {
+			manager.setBoolean(table, column, row, value);
+		}
+
+		@Override
+		public void write(DataOutput out) throws IOException {
+			out.writeByte(SET_BOOLEAN);
+			writeId(out, table);
+			writeString(out, column);
+			out.writeInt(row);
+			out.writeBoolean(value);
+		}
+	}
+
+	/**
+	 * Toggles whether a column allows blank cells.
+	 *
+	 * @param table  The UUID of the table.
+	 * @param column The name of the column.
+	 */
+	record ChangeAllowBlanks(UUID table, String column) implements CommandRecord {
+		@Override
+		public void apply(TablrManager manager) {
+			manager.changeAllowBlanks(table, column);
+		}
+
+		@Override
+		public void write(DataOutput out) throws IOException {
+			out.writeByte(CHANGE_ALLOW_BLANKS);
+			writeId(out, table);
+			writeString(out, column);
+		}
+	}
+
+	/**
+	 * Changes the type of a column to the next type.
+	 *
+	 * @param table  The UUID of the table.
+	 * @param column The name of the column.
+	 */
+	record ChangeType(UUID table, String column) implements CommandRecord {
+		@Override
+		public void apply(TablrManager manager) {
+			manager.changeType(table, column);
+		}
+
+		@Override
+		public void write(DataOutput out) throws IOException {
+			out.writeByte(CHANGE_TYPE);
+			writeId(out, table);
+			writeString(out, column);
+		}
+	}
+
+	/**
+	 * Changes the default value of a column.
+	 *
+	 * @param table  The UUID of the table.
+	 * @param column The name of the column.
+	 * @param value  The new default value.
+	 */
+	record SetDefaultValue(UUID table, String column, String value) implements CommandRecord {
+		@Override
+		public void apply(TablrManager manager) {
+			manager.setDefaultValue(table, column, value);
+		}
+
+		@Override
+		public void write(DataOutput out) throws IOException {
+			out.writeByte(SET_DEFAULT_VALUE);
+			writeId(out, table);
+			writeString(out, column);
+			writeString(out, value);
+		}
+	}
+
+	/**
+	 * Inserts a row with the given values, repeating the undo of a row's removal.
+	 *
+	 * @param table  The UUID of the table.
+	 * @param row    The index of the new row.
+	 * @param values The values of the new row, one per column.
+	 */
+	record InsertRow(UUID table, int row, List<String> values) implements CommandRecord {
+		@Override
+		public void apply(TablrManager manager) {
+			manager.insertRow(table, row, values);
+		}
+
+		@Override
+		public void write(DataOutput out) throws IOException {
+			out.writeByte(INSERT_ROW);
+			writeId(out, table);
+			out.writeInt(row);
+			out.writeInt(values.size());
+			for (String value : values) {
+				writeString(out, value);
+			}
+		}
+	}
+
+	/**
+	 * Puts back a removed column, repeating the undo of its removal. The column is
+	 * not written with the record: it is the only column of a table in a workspace
+	 * file next to the log, see {@link CommandLog#writeTables(java.util.Collection)}.
+	 *
+	 * @param table The UUID of the table.
+	 * @param file  The workspace file holding the column.
+	 */
+	record RestoreColumn(UUID table, Path file) implements CommandRecord {
+		@Override
+		public void apply(TablrManager manager) {
+			manager.restoreColumn(table, readTable(file).getColumn(0));
+		}
+
+		@Override
+		public void write(DataOutput out) throws IOException {
+			out.writeByte(RESTORE_COLUMN);
+			writeId(out, table);
+			writeString(out, file.getFileName().toString());
+		}
+	}
+
+	/**
+	 * Puts back a removed table, repeating the undo of its removal, or adds an
+	 * imported table. The table is not
+	 * written with the record: it is stored in a workspace file next to the log, see
+	 * {@link CommandLog#writeTables(java.util.Collection)}.
+	 *
+	 * @param table The UUID of the table.
+	 * @param file  The workspace file holding the table.
+	 */
+	record RestoreTable(UUID table, Path file) implements CommandRecord {
+		@Override
+		public void apply(TablrManager manager) {
+			manager.restoreTable(readTable(file));
+		}
+
+		@Override
+		public void write(DataOutput out) throws IOException {
+			out.writeByte(RESTORE_TABLE);
+			writeId(out, table);
+			writeString(out, file.getFileName().toString());
+		}
+	}
+
+	/**
+	 * Changes the type of a column until it has the given type, repeating the undo
+	 * of a change of type.
+	 *
+	 * @param table  The UUID of the table.
+	 * @param column The name of the column.
+	 * @param type   The type the column must get.
+	 */
+	record RestoreType(UUID table, String column, String type) implements CommandRecord {
+		@Override
+		public void apply(TablrManager manager) {
+			manager.restoreType(table, column, type);
+		}
+
+		@Override
+		public void write(DataOutput out) throws IOException {
+			out.writeByte(RESTORE_TYPE);
+			writeId(out, table);
+			writeString(out, column);
+			writeString(out, type);
+		}
+	}
+
+	/**
+	 * Reads the table of a workspace file written next to the log.
+	 */
+	private static Table readTable(Path file) {
+		try {
+			List<Table> tables = WorkspaceFile.read(file);
+			if (tables.size() != 1) {
+				throw new IOException("Expected one table in " + file);
+			}
+			return tables.getFirst();
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	private static void writeId(DataOutput out, UUID id) throws IOException {
+		out.writeLong(id.getMostSignificantBits());
+		out.writeLong(id.getLeastSignificantBits());
+	}
+
+	private static UUID readId(DataInput in) throws IOException {
+		return new UUID(in.readLong(), in.readLong());
+	}
+
+	/**
+	 * Writes a string as the length of its UTF-8 encoding, or -1 for null, followed by the encoding.
+	 */
+	private static void writeString(DataOutput out, String value) throws IOException {
+		if (value == null) {
+			out.writeInt(-1);
+			return;
+		}
+		byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+		out.writeInt(bytes.length);
+		out.write(bytes);
+	}
+
+	private static String readString(DataInput in) throws IOException {
+		int length = in.readInt();
+		if (length < 0) {
+			return null;
+		}
+		byte[] bytes = new byte[length];
+		in.readFully(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+}
@@ -0,0 +1,701 @@
+package main;
+
+import java.io.IOException;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * Imports CSV files as tables. The first record of the file holds the names of
+ * the columns, every following record a row. Fields are separated by commas and
+ * may be enclosed in double quotes, in which case they may contain commas, line
+ * breaks and doubled quotes. Empty fields become blank cells, missing fields at
+ * the end of a record too; empty lines are skipped.
+ * <p>
+ * The type of every column is inferred from the first {@link #SAMPLE_SIZE} rows:
+ * a column is an int column if all its non-blank values there are valid
+ * according to {@link IntValue#isValid(String)}, otherwise a bool column if they
+ * are valid according to {@link BoolValue#isValid(String)}, and a string column
+ * otherwise. If a later row holds a value that does not fit the inferred type,
+ * the column is imported as a string column after all.
+ * <p>
+ * The file is memory-mapped and split into ranges of about {@value #RANGE_SIZE}
+ * bytes that are parsed in parallel on the common {@link ForkJoinPool}. A range
+ * starts at the first record that starts in it; to know whether a line break
+ * ends a record or lies within a quoted field, the quotes before every range are
+ * counted in a first, equally parallel pass. Every range is copied to the heap
+ * and parsed into arrays of the column types, which are then appended to the
+ * columns in bulk.
+ */
+public final class CsvImporter {
+
+	/**
+	 * The number of rows the types of the columns are inferred from.
+	 */
+	public static final int SAMPLE_SIZE = 1000;
+
+	private static final long RANGE_SIZE = 1 << 22;
+	private static final int RECENT_STRINGS = 1024;
+
+	private CsvImporter() {
+	}
+
+	/**
+	 * Reads a CSV file into a new table.
+	 *
+	 * @param path The file to read, encoded in UTF-8.
+	 * @param name The name of the new table.
+	 * @return The table, with a column for every field of the first record.
+	 * @throws IOException if the file cannot be read
+	 */
+	public static Table read(Path path, String name) throws IOException {
+		try (Arena arena = Arena.ofShared();
+			 FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			MemorySegment file = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size(), arena);
+			return read(file, name);
+		}
+	}
+
+	private static Table read(MemorySegment file, String name) throws IOException {
+		Table table = new Table(name);
+		long[] bounds = recordBounds(file);
+		Record record = new Record();
+		int range = 0;
+		while (range + 1 < bounds.length && record.isEmpty()) {
+			byte[] data = bytes(file, bounds[range], bounds[range + 1]);
+			int pos = 0;
+			while (pos < data.length && record.isEmpty()) {
+				pos = record.parse(data, pos, data.length);
+			}
+			// the rows start after the header
+			bounds[range] += pos;
+			range++;
+		}
+		if (record.isEmpty()) {
+			return table;
+		}
+		String[] names = columnNames(record);
+		String[] types = inferTypes(file, bounds, names.length);
+		List<Chunk> chunks = parse(file, bounds, types);
+		boolean[] failed = new boolean[types.length];
+		boolean retry = false;
+		for (Chunk chunk : chunks) {
+			for (int c = 0; c < types.length; c++) {
+				if (chunk.failed[c]) {
+					failed[c] = true;
+					retry = true;
+				}
+			}
+		}
+		if (retry) {
+			for (int c = 0; c < types.length; c++) {
+				if (failed[c]) {
+					types[c] = "string";
+				}
+			}
+			chunks = parse(file, bounds, types);
+		}
+		for (int c = 0; c < types.length; c++) {
+			Column column = new Column(names[c], types[c], true, defaultValue(types[c]));
+			for (Chunk chunk : chunks) {
+				chunk.appendTo(column, c);
+			}
+			table.addColumn(column);
+		}
+		return table;
+	}
+
+	/**
+	 * Takes the column names from the header record, naming unnamed and duplicate
+	 * columns like {@link Table#newColumn()} does.
+	 */
+	private static String[] columnNames(Record header) {
+		String[] names = new String[header.size()];
+		Set<String> used = new HashSet<>();
+		for (int c = 0; c < names.length; c++) {
+			String name = header.get(c);
+			if (name.isEmpty() || used.contains(name)) {
+				int n = 0;
+				while (used.contains("Column" + n)) {
+					n++;
+				}
+				name = "Column" + n;
+			}
+			used.add(name);
+			names[c] = name;
+		}
+		return names;
+	}
+
+	/**
+	 * Splits the file into ranges that start at the first record that starts at or
+	 * after every multiple of {@link #RANGE_SIZE} bytes.
+	 *
+	 * @return The start of every range followed by the end of the file, in
+	 * increasing order. Ranges may be empty.
+	 */
+	private static long[] recordBounds(MemorySegment file) throws IOException {
+		long size = file.byteSize();
+		int ranges = (int) Math.max(1, (size + RANGE_SIZE - 1) / RANGE_SIZE);
+		List<Callable<Long>> counts = new ArrayList<>();
+		for (int i = 0; i < ranges; i++) {
+			long from = i * RANGE_SIZE;
+			long to = Math.min(size, from + RANGE_SIZE);
+			counts.add(() -> {
+				long quotes = 0;
+				for (byte b : bytes(file, from, to)) {
+					if (b == '"') {
+						quotes++;
+					}
+				}
+				return quotes;
+			});
+		}
+		List<Long> quotes = invokeAll(counts);
+		List<Callable<Long>> starts = new ArrayList<>();
+		boolean quoted = false;
+		for (int i = 1; i < ranges; i++) {
+			quoted ^= (quotes.get(i - 1) & 1) != 0;
+			long from = i * RANGE_SIZE;
+			boolean quotedAtStart = quoted;
+			starts.add(() -> {
+				boolean inQuotes = quotedAtStart;
+				for (long pos = from; pos < size; pos++) {
+					byte b = file.get(ValueLayout.JAVA_BYTE, pos);
+					if (b == '"') {
+						inQuotes = !inQuotes;
+					} else if (b == '\n' && !inQuotes) {
+						return pos + 1;
+					}
+				}
+				return size;
+			});
+		}
+		long[] bounds = new long[ranges + 1];
+		List<Long> found = invokeAll(starts);
+		for (int i = 1; i < ranges; i++) {
+			bounds[i] = Math.max(bounds[i - 1], found.get(i - 1));
+		}
+		bounds[ranges] = size;
+		return bounds;
+	}
+
+	/**
+	 * Infers the type of every column from the first rows of the file.
+	 */
+	private static String[] inferTypes(MemorySegment file, long[] bounds, int columns) {
+		boolean[] ints = new boolean[columns];
+		boolean[] bools = new boolean[columns];
+		Arrays.fill(ints, true);
+		Arrays.fill(bools, true);
+		boolean[] filled = new boolean[columns];
+		Record record = new Record();
+		int rows = 0;
+		for (int range = 0; range + 1 < bounds.length && rows < SAMPLE_SIZE; range++) {
+			byte[] data = bytes(file, bounds[range], bounds[range + 1]);
+			int pos = 0;
+			while (pos < data.length && rows < SAMPLE_SIZE) {
+				pos = record.parse(data, pos, data.length);
+				if (record.isEmpty()) {
+					continue;
+				}
+				rows++;
+				for (int c = 0; c < columns && c < record.size(); c++) {
+					String value = record.get(c);
+					if (!ColumnStorage.isBlankInput(value)) {
+						filled[c] = true;
+						ints[c] = ints[c] && IntValue.isValid(value);
+						bools[c] = bools[c] && BoolValue.isValid(value);
+					}
+				}
+			}
+		}
+		String[] types = new String[columns];
+		for (int c = 0; c < columns; c++) {
+			types[c] = !filled[c] ? "string" : ints[c] ? "int" : bools[c] ? "bool" : "string";
+		}
+		return types;
+	}
+
+	/**
+	 * Parses every range between the bounds in parallel.
+	 */
+	private static List<Chunk> parse(MemorySegment file, long[] bounds, String[] types) throws IOException {
+		List<Callable<Chunk>> tasks = new ArrayList<>();
+		for (int i = 0; i + 1 < bounds.length; i++) {
+			long from = bounds[i];
+			long to = bounds[i + 1];
+			tasks.add(() -> {
+				Chunk chunk = new Chunk(types);
+				Record record = new Record();
+				byte[] data = bytes(file, from, to);
+				int pos = 0;
+				while (pos < data.length) {
+					pos = record.parse(data, pos, data.length);
+					if (!record.isEmpty()) {
+						chunk.add(record);
+					}
+				}
+				return chunk;
+			});
+		}
+		return invokeAll(tasks);
+	}
+
+	/**
+	 * Copies a range of the mapped file to the heap, where it is parsed faster.
+	 */
+	private static byte[] bytes(MemorySegment file, long from, long to) {
+		byte[] data = new byte[Math.toIntExact(to - from)];
+		MemorySegment.copy(file, ValueLayout.JAVA_BYTE, from, data, 0, data.length);
+		return data;
+	}
+
+	private static <T> List<T> invokeAll(List<Callable<T>> tasks) throws IOException {
+		List<T> results = new ArrayList<>(tasks.size());
+		try {
+			for (Future<T> future : ForkJoinPool.commonPool().invokeAll(tasks)) {
+				results.add(future.get());
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException("Interrupted while importing", e);
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof RuntimeException runtime) {
+				throw runtime;
+			}
+			if (e.getCause() instanceof Error error) {
+				throw error;
+			}
+			throw new IOException(e.getCause());
+		}
+		return results;
+	}
+
+	/**
+	 * @return The default value of an imported column, the one {@link Table#changeType(String)}
+	 * gives a column of the type.
+	 */
+	private static String defaultValue(String type) {
+		switch (type) {
+			case "int":
+				return "0";
+			case "bool":
+				return "true";
+			default:
+				return "";
+		}
+	}
+
+	/**
+	 * The fields of one record, kept as UTF-8 bytes so numbers and booleans can be
+	 * parsed without creating strings. The fields of a record without quotes are
+	 * read from the parsed bytes directly; quoted fields are copied without their
+	 * quotes first.
+	 */
+	private static final class Record {
+
+		private byte[] bytes;
+		private byte[] buffer = new byte[256];
+		private int length;
+		private int[] starts = new int[16];
+		private int[] ends = new int[16];
+		private int size;
+
+		/**
+		 * Parses the record starting at the given position.
+		 *
+		 * @return The position after the record and its line break.
+		 */
+		int parse(byte[] data, int pos, int end) {
+			size = 0;
+			int start = pos;
+			int fieldStart = pos;
+			while (pos < end) {
+				byte b = data[pos];
+				if (b == '"') {
+					return parseQuoted(data, start, end);
+				} else if (b == ',') {
+					addField(fieldStart, pos);
+					fieldStart = pos + 1;
+				} else if (b == '\n') {
+					break;
+				}
+				pos++;
+			}
+			bytes = data;
+			int fieldEnd = pos;
+			if (pos < end && fieldEnd > fieldStart && data[fieldEnd - 1] == '\r') {
+				fieldEnd--;
+			}
+			if (size > 0 || fieldEnd > start) {
+				addField(fieldStart, fieldEnd);
+			}
+			return pos < end ? pos + 1 : pos;
+		}
+
+		/**
+		 * Parses a record with quotes, copying its fields to the buffer.
+		 */
+		private int parseQuoted(byte[] data, int pos, int end) {
+			length = 0;
+			size = 0;
+			bytes = buffer;
+			int start = pos;
+			boolean quoted = false;
+			while (pos < end) {
+				byte b = data[pos++];
+				if (quoted) {
+					if (b != '"') {
+						put(b);
+					} else if (pos < end && data[pos] == '"') {
+						put(b);
+						pos++;
+					} else {
+						quoted = false;
+					}
+				} else if (b == '"') {
+					quoted = true;
+				} else if (b == ',') {
+					endField();
+				} else if (b == '\n') {
+					break;
+				} else if (b != '\r' || pos >= end || data[pos] != '\n') {
+					put(b);
+				}
+			}
+			int content = pos - start;
+			if (content > 0 && data[pos - 1] == '\n') {
+				content--;
+				if (content > 0 && data[pos - 2] == '\r') {
+					content--;
+				}
+			}
+			if (content > 0) {
+				endField();
+			}
+			return pos;
+		}
+
+		/**
+		 * @return Whether the last record parsed was an empty line.
+		 */
+		boolean isEmpty() {
+			return size == 0;
+		}
+
+		int size() {
+			return size;
+		}
+
+		int start(int field) {
+			return starts[field];
+		}
+
+		int end(int field) {
+			return ends[field];
+		}
+
+		String get(int field) {
+			return new String(bytes, start(field), end(field) - start(field), StandardCharsets.UTF_8);
+		}
+
+		boolean isBlank(int field) {
+			return field >= size || start(field) == end(field);
+		}
+
+		/**
+		 * @return Whether an ASCII field holds the given string.
+		 */
+		boolean equals(int field, String value) {
+			if (end(field) - start(field) != value.length()) {
+				return false;
+			}
+			for (int i = 0; i < value.length(); i++) {
+				if (bytes[start(field) + i] != value.charAt(i)) {
+					return false;
+				}
+			}
+			return true;
+		}
+
+		boolean isAscii(int field) {
+			for (int i = start(field); i < end(field); i++) {
+				if (bytes[i] < 0) {
+					return false;
+				}
+			}
+			return true;
+		}
+
+		private void put(byte b) {
+			if (length == buffer.length) {
+				buffer = Arrays.copyOf(buffer, length * 2);
+				bytes = buffer;
+			}
+			buffer[length++] = b;
+		}
+
+		private void endField() {
+			addField(size == 0 ? 0 : ends[size - 1], length);
+		}
+
+		private void addField(int start, int end) {
+			if (size == ends.length) {
+				starts = Arrays.copyOf(starts, size * 2);
+				ends = Arrays.copyOf(ends, size * 2);
+			}
+			starts[size] = start;
+			ends[size++] = end;
+		}
+	}
+
+	/**
+	 * The cells of one range of rows, in arrays of the types of the columns.
+	 */
+	private static final class Chunk {
+
+		private final String[] types;
+		private final int[][] ints;
+		private final long[][] bools;
+		private final long[][] blanks;
+		private final String[][] strings;
+		private final String[][] recentStrings;
+		private final int[] recentCounts;
+		private final boolean[] failed;
+		private int rows;
+		private int capacity = 1024;
+
+		Chunk(String[] types) {
+			this.types = types;
+			int columns = types.length;
+			ints = new int[columns][];
+			bools = new long[columns][];
+			blanks = new long[columns][];
+			strings = new String[columns][];
+			recentStrings = new String[columns][];
+			recentCounts = new int[columns];
+			failed = new boolean[columns];
+			for (int c = 0; c < columns; c++) {
+				switch (types[c]) {
+					case "int":
+						ints[c] = new int[capacity];
+						blanks[c] = new long[Bits.words(capacity)];
+						break;
+					case "bool":
+						bools[c] = new long[Bits.words(capacity)];
+						blanks[c] = new long[Bits.words(capacity)];
+						break;
+					default:
+						strings[c] = new String[capacity];
+						recentStrings[c] = new String[2 * RECENT_STRINGS];
+						break;
+				}
+			}
+		}
+
+		/**
+		 * Adds a row. A value that does not fit the type of its column is added as a
+		 * blank cell and marks the column as failed.
+		 */
+		void add(Record record) {
+			if (rows == capacity) {
+				grow();
+			}
+			for (int c = 0; c < types.length; c++) {
+				switch (types[c]) {
+					case "int":
+						addInt(record, c);
+						break;
+					case "bool":
+						addBoolean(record, c);
+						break;
+					default:
+						strings[c][rows] = record.isBlank(c) ? null : getString(record, c);
+						break;
+				}
+			}
+			rows++;
+		}
+
+		private void addInt(Record record, int c) {
+			if (record.isBlank(c)) {
+				Bits.set(blanks[c], rows, true);
+			} else if (record.isAscii(c)) {
+				long value = parseInt(record.bytes, record.start(c), record.end(c));
+				if (value == Long.MIN_VALUE) {
+					fail(c);
+				} else {
+					ints[c][rows] = (int) value;
+				}
+			} else {
+				String value = record.get(c);
+				if (IntValue.isValid(value)) {
+					ints[c][rows] = Integer.parseInt(value);
+				} else {
+					fail(c);
+				}
+			}
+		}
+
+		private void addBoolean(Record record, int c) {
+			if (record.isBlank(c)) {
+				Bits.set(blanks[c], rows, true);
+				return;
+			}
+			if (record.isAscii(c)) {
+				int value = parseBoolean(record.bytes, record.start(c), record.end(c));
+				if (value < 0) {
+					fail(c);
+				} else {
+					Bits.set(bools[c], rows, value == 1);
+				}
+				return;
+			}
+			String value = record.get(c);
+			if (BoolValue.isValid(value)) {
+				Bits.set(bools[c], rows, Boolean.parseBoolean(value));
+			} else {
+				fail(c);
+			}
+		}
+
+		/**
+		 * Creates the string of a field, or reuses the string of an earlier field with
+		 * the same bytes while the column has had at most {@link #RECENT_STRINGS}
+		 * distinct values since the cache was last cleared. Repeated values thus share
+		 * one string, which keeps the garbage collector from dominating the import of
+		 * columns with few distinct values.
+		 */
+		private String getString(Record record, int c) {
+			if (!record.isAscii(c)) {
+				return record.get(c);
+			}
+			int hash = 1;
+			for (int i = record.start(c); i < record.end(c); i++) {
+				hash = 31 * hash + record.bytes[i];
+			}
+			String[] recent = recentStrings[c];
+			int mask = recent.length - 1;
+			int slot = (hash ^ hash >>> 16) & mask;
+			while (recent[slot] != null) {
+				if (record.equals(c, recent[slot])) {
+					return recent[slot];
+				}
+				slot = (slot + 1) & mask;
+			}
+			if (recentCounts[c] == RECENT_STRINGS) {
+				Arrays.fill(recent, null);
+				recentCounts[c] = 0;
+				slot = (hash ^ hash >>> 16) & mask;
+			}
+			String value = record.get(c);
+			recent[slot] = value;
+			recentCounts[c]++;
+			return value;
+		}
+
+		private void fail(int c) {
+			failed[c] = true;
+			Bits.set(blanks[c], rows, true);
+		}
+
+		private void grow() {
+			capacity *= 2;
+			for (int c = 0; c < types.length; c++) {
+				if (ints[c] != null) {
+					ints[c] = Arrays.copyOf(ints[c], capacity);
+				}
+				if (bools[c] != null) {
+					bools[c] = Arrays.copyOf(bools[c], Bits.words(capacity));
+				}
+				if (blanks[c] != null) {
+					blanks[c] = Arrays.copyOf(blanks[c], Bits.words(capacity));
+				}
+				if (strings[c] != null) {
+					strings[c] = Arrays.copyOf(strings[c], capacity);
+				}
+			}
+		}
+
+		void appendTo(Column column, int c) {
+			switch (types[c]) {
+				case "int":
+					column.appendInts(ints[c], blanks[c], rows);
+					break;
+				case "bool":
+					column.appendBooleans(bools[c], blanks[c], rows);
+					break;
+				default:
+					column.appendStrings(strings[c], rows);
+					break;
+			}
+		}
+	}
+
+	/**
+	 * Parses a boolean from ASCII bytes the way {@link BoolValue#isValid(String)}
+	 * accepts it, ignoring case.
+	 *
+	 * @return 1 for true, 0 for false, or -1 if the bytes are not a valid boolean.
+	 */
+	private static int parseBoolean(byte[] bytes, int from, int to) {
+		if (matches(bytes, from, to, "true")) {
+			return 1;
+		}
+		return matches(bytes, from, to, "false") ? 0 : -1;
+	}
+
+	private static boolean matches(byte[] bytes, int from, int to, String lowerCase) {
+		if (to - from != lowerCase.length()) {
+			return false;
+		}
+		for (int i = 0; i < lowerCase.length(); i++) {
+			if ((bytes[from + i] | 0x20) != lowerCase.charAt(i)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Parses an int from ASCII bytes the way {@link Integer#parseInt(String)} does.
+	 *
+	 * @return The value, or {@link Long#MIN_VALUE} if the bytes are not a valid int.
+	 */
+	private static long parseInt(byte[] bytes, int from, int to) {
+		boolean negative = bytes[from] == '-';
+		if (negative || bytes[from] == '+') {
+			from++;
+		}
+		if (from == to) {
+			return Long.MIN_VALUE;
+		}
+		long limit = negative ? -(long) Integer.MIN_VALUE : Integer.MAX_VALUE;
+		long value = 0;
+		for (int i = from; i < to; i++) {
+			int digit = bytes[i] - '0';
+			if (digit < 0 || digit > 9) {
+				return Long.MIN_VALUE;
+			}
+			value = value * 10 + digit;
+			if (value > limit) {
+				return Long.MIN_VALUE;
+			}
+		}
+		return negative ? -value : value;
+	}
+}
@@ -1,8 +1,8 @@
 package main;
 
 import java.awt.Graphics;
+import java.awt.Rectangle;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.UUID;
@@ -14,6 +14,8 @@ public class DesignView extends AbstractView {
 
 	private UUID tableId;
 	private List<String> selectedColumns;
+	private int scrollX;
+	private int scrollY;
 
 	/**
 	 * Constructs a new DesignView instance with the specified manager and table
@@ -43,9 +45,9 @@ public class DesignView extends AbstractView {
 	@Override
 	public void handleDoubleClick(int x, int y) {
 		System.out.println("design view");
-		if (getLayoutInfo().getElementYNumber(y) > getMgr().getColumnNames(tableId).size()) {
+		if (getColumnIndex(y) > getMgr().getNumberOfColumns(tableId)) {
 			getMgr().addColumn(tableId);
-			getLayoutInfo().getTableLayout(tableId).getViewLayout(RowsView.class).getWidths().add(50);
+			getLayoutInfo().getTableLayout(tableId).getViewLayout(RowsView.class).addElement(50);
 		} else {
 			// nothing
 		}
@@ -59,14 +61,15 @@ public class DesignView extends AbstractView {
 	 */
 	@Override
 	public void handleSingleClick(int x, int y) {
-		if ((getLayoutInfo().getElementYNumber(y) <= getMgr().getColumnNames(tableId).size())) {
-			int elementXNumber = getLayoutInfo().getTableLayout(tableId).getViewLayout(getClass()).getElementXNumber(x);
+		int columnIndex = getColumnIndex(y);
+		if (columnIndex < getMgr().getNumberOfColumns(tableId)) {
+			int elementXNumber = getLayout().getElementXNumber(x + scrollX);
 			System.out.println(elementXNumber);
 			if (x < getLayoutInfo().getOffsetX()) {
 				// Left margin of table, indicate that selected
-				selectedColumns.add(getMgr().getColumnNames(tableId).get(getLayoutInfo().getElementYNumber(y)));
+				selectedColumns.add(getMgr().getColumnNames(tableId).get(columnIndex));
 			} else {
-				String column = this.getMgr().getColumnNames(tableId).get(getLayoutInfo().getElementYNumber(y));
+				String column = this.getMgr().getColumnNames(tableId).get(columnIndex);
 				if (elementXNumber == 0) {
 					// Click on table name, edit name
 					EditColumnCharacteristicsView newView = new EditColumnCharacteristicsView(this.getMgr(),
@@ -143,7 +146,7 @@ public class DesignView extends AbstractView {
 	@Override
 	public void handleDelete() {
 		for (String c : selectedColumns) {
-			int elementNumber = getMgr().getColumnNames(tableId).indexOf(c);
+			int elementNumber = getMgr().getColumnIndex(tableId, c);
 			getMgr().removeColumn(tableId, c);
 			getLayoutInfo().getTableLayout(tableId).getViewLayout(RowsView.class).deleteElement(elementNumber);
 
@@ -173,9 +176,30 @@ public class DesignView extends AbstractView {
 		return "Design Mode";
 	}
 
+	/**
+	 * Scrolls the list of columns and their characteristics. The columns can be
+	 * scrolled until the last one is at the top of the view, the characteristics
+	 * until the last one is at the left of the view.
+	 *
+	 * @param dx The horizontal distance in pixels, positive to scroll to the right.
+	 * @param dy The vertical distance in pixels, positive to scroll down.
+	 */
+	@Override
+	public void handleScroll(int dx, int dy) {
+		int nbColumns = getMgr().getNumberOfColumns(tableId);
+		int maxScrollY = Math.max(0, (nbColumns - 1) * getLayoutInfo().getOffsetY());
+		scrollY = Math.max(0, Math.min(scrollY + dy, maxScrollY));
+		LayoutInfo.ViewLayout layout = getLayout();
+		int nbElements = layout.getWidths().size();
+		int maxScrollX = nbElements == 0 ? 0 : layout.getElementStart(nbElements - 1) - getLayoutInfo().getOffsetX();
+		scrollX = Math.max(0, Math.min(scrollX + dx, maxScrollX));
+	}
+
 	/**
 	 * Renders the design view, displaying table columns and their respective data.
-	 * If the associated table does not exist, this method closes the current view.
+	 * Only the columns that intersect the clip bounds of the graphics, shifted by the
+	 * scroll offset, are drawn. If the associated table does not exist, this method
+	 * closes the current view.
 	 *
 	 * @param g The {@code Graphics} object used for rendering the design view.
 	 */
@@ -187,29 +211,39 @@ public class DesignView extends AbstractView {
 		}
 
 		int heightOffset = this.getLayoutInfo().getOffsetY();
-		int y = 0;
-		for (String column : getMgr().getColumnsInfo(tableId)) {
-			int x = getLayoutInfo().getOffsetX();
-			List<String> columnData = Arrays.asList(column.split(" "));
-			List<Integer> widths = getLayoutInfo().getTableLayout(tableId).getViewLayout(getClass()).getWidths();
-
-			y += heightOffset;
+		int offsetX = getLayoutInfo().getOffsetX();
+		int nbColumns = getMgr().getNumberOfColumns(tableId);
+		LayoutInfo.ViewLayout layout = getLayout();
+		Rectangle clip = g.getClipBounds();
+		if (clip == null) {
+			clip = new Rectangle(0, 0, offsetX + layout.getTotalWidth(), (nbColumns + 1) * heightOffset);
+		}
+		int left = Math.max(clip.x, offsetX);
+		int right = clip.x + clip.width;
+		if (nbColumns == 0 || right <= left) {
+			return;
+		}
+		int first = Math.max(0, (clip.y + scrollY) / heightOffset);
+		int last = Math.min(nbColumns - 1, (clip.y + clip.height - 1 + scrollY) / heightOffset);
+		// characteristics scrolled to the left must not overwrite the margin
+		Graphics fields = g.create();
+		fields.clipRect(left, clip.y, right - left, clip.height);
+		for (int index = first; index <= last; index++) {
+			String[] columnData = getMgr().getColumnInfo(tableId, index).split(" ");
+			int y = (index + 1) * heightOffset - scrollY;
 
-			if (selectedColumns.contains(column.split(" ")[0])) {
+			if (selectedColumns.contains(columnData[0])) {
 				g.drawString("*", 0, y);
 			}
 
-			for (int i = 0; i < columnData.size(); i++) {
-				String value = columnData.get(i);
-				int width = (i < widths.size()) ? widths.get(i) : 50;
-				try {
-					g.drawString(value, x, y);
-				} catch (Exception e) {
-					g.drawString("", x, y);
-				}
+			int x = offsetX - scrollX;
+			for (int i = 0; i < columnData.length; i++) {
+				int width = (i < layout.getWidths().size()) ? layout.getWidth(i) : 50;
+				fields.drawString(columnData[i], x, y);
 				x += width;
 			}
 		}
+		fields.dispose();
 	}
 
 	/**
@@ -217,13 +251,39 @@ public class DesignView extends AbstractView {
 	 */
 	@Override
 	public void handleMouseDrag(int startX, int startY, int endX, int endY) {
-		int elementNumber = getLayoutInfo().getTableLayout(tableId).getViewLayout(getClass()).getElementXNumber(startX)
-				- 1;
+		LayoutInfo.ViewLayout layout = getLayout();
+		int elementNumber = layout.getElementXNumber(startX + scrollX) - 1;
 		if (elementNumber >= 0) {
-			List<Integer> widths = getLayoutInfo().getTableLayout(tableId).getViewLayout(getClass()).getWidths();
-			int newWidth = widths.get(elementNumber) + (endX - startX);
-			widths.set(elementNumber, newWidth);
+			layout.setWidth(elementNumber, layout.getWidth(elementNumber) + (endX - startX));
 		}
 	}
 
+	/**
+	 * Converts a vertical position in the view to the position of a column in the
+	 * table, taking the scroll offset into account.
+	 *
+	 * @param y The vertical pixel position within the view.
+	 * @return The position of the column at the given height.
+	 */
+	private int getColumnIndex(int y) {
+		return getLayoutInfo().getElementYNumber(y + scrollY);
+	}
+
+	/**
+	 * The design view only shows the columns of its table and depends on the widths of their characteristics.
+	 *
+	 * @return A version that changes when the table or the layout of the characteristics changes.
+	 */
+	@Override
+	public long getContentVersion() {
+		return getMgr().getModificationCount(tableId) + getLayout().getVersion();
+	}
+
+	/**
+	 * @return The layout of the characteristics of the columns in design views.
+	 */
+	private LayoutInfo.ViewLayout getLayout() {
+		return getLayoutInfo().getTableLayout(tableId).getViewLayout(getClass());
+	}
+
 }
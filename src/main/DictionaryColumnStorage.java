@@ -0,0 +1,227 @@
+package main;
+
+import java.util.Arrays;
+
+/**
+ * Dictionary-encoded storage for string columns. Each cell holds an {@code int}
+ * code into a per-column {@link StringDictionary}, so a column with few distinct
+ * values keeps one {@code String} per distinct value instead of one per cell.
+ * Equality counts are answered from the dictionary's reference counts.
+ * <p>
+ * The blocks of a {@link ChunkedColumnStorage} share the dictionary of their
+ * column, so a value repeated across blocks is stored once. A storage on a shared
+ * dictionary counts equal cells by comparing its own codes, since the reference
+ * counts cover the whole column.
+ * <p>
+ * Once the column holds too many distinct values for the encoding to pay off,
+ * {@link #adapt()} converts it to a plain {@link CellColumnStorage}. The conversion
+ * only goes one way: a plain storage does not count its distinct values, so it is
+ * not encoded again when the cardinality drops later on.
+ */
+public class DictionaryColumnStorage extends ColumnStorage {
+
+	/**
+	 * Number of distinct values up to which a column is always kept encoded.
+	 */
+	public static final int MIN_CARDINALITY_LIMIT = 256;
+
+	private static final int BLANK = -1;
+	private static final int INITIAL_CAPACITY = 16;
+
+	private final StringDictionary dictionary;
+	private final boolean shared;
+	private int[] codes;
+	private int size;
+	private int nbBlanks;
+
+	/**
+	 * Constructs an empty dictionary-encoded storage.
+	 */
+	public DictionaryColumnStorage() {
+		this(new StringDictionary(), false);
+	}
+
+	/**
+	 * Constructs an empty storage that encodes its cells in the given dictionary,
+	 * which may be shared with other storages of the same column.
+	 *
+	 * @param dictionary The dictionary of the column.
+	 */
+	public DictionaryColumnStorage(StringDictionary dictionary) {
+		this(dictionary, true);
+	}
+
+	private DictionaryColumnStorage(StringDictionary dictionary, boolean shared) {
+		this.dictionary = dictionary;
+		this.shared = shared;
+		this.codes = new int[INITIAL_CAPACITY];
+		this.size = 0;
+		this.nbBlanks = 0;
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	@Override
+	public void add(String value) {
+		insert(size, value);
+	}
+
+	@Override
+	public void insert(int index, String value) {
+		checkInsertIndex(index);
+		if (size == codes.length) {
+			codes = Arrays.copyOf(codes, codes.length * 2);
+		}
+		System.arraycopy(codes, index, codes, index + 1, size - index);
+		codes[index] = encode(value);
+		size++;
+	}
+
+	@Override
+	public void set(int index, String value) {
+		checkIndex(index);
+		int code = encode(value);
+		release(codes[index]);
+		codes[index] = code;
+	}
+
+	@Override
+	public String get(int index) {
+		checkIndex(index);
+		int code = codes[index];
+		return code == BLANK ? "" : dictionary.valueOf(code);
+	}
+
+	@Override
+	public boolean isBlank(int index) {
+		checkIndex(index);
+		return codes[index] == BLANK;
+	}
+
+	@Override
+	public void remove(int index) {
+		checkIndex(index);
+		release(codes[index]);
+		System.arraycopy(codes, index + 1, codes, index, size - index - 1);
+		size--;
+	}
+
+	/**
+	 * Counts the cells equal to the given value using the dictionary, without visiting the cells.
+	 *
+	 * @param value The value to count, or an empty string to count blank cells.
+	 * @return The number of cells holding the value.
+	 */
+	@Override
+	public int countEqual(String value) {
+		if (isBlankInput(value)) {
+			return nbBlanks;
+		}
+		int code = dictionary.codeOf(value);
+		if (code == BLANK) {
+			return 0;
+		}
+		if (!shared) {
+			return dictionary.count(code);
+		}
+		int count = 0;
+		for (int i = 0; i < size; i++) {
+			if (codes[i] == code) {
+				count++;
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * Determines whether two cells hold the same value by comparing their codes.
+	 *
+	 * @param index      The index of the first cell.
+	 * @param otherIndex The index of the second cell.
+	 * @return {@code true} if both cells hold the same value or are both blank.
+	 */
+	@Override
+	public boolean cellsEqual(int index, int otherIndex) {
+		checkIndex(index);
+		checkIndex(otherIndex);
+		return codes[index] == codes[otherIndex];
+	}
+
+	/**
+	 * Converts the storage to a plain {@link CellColumnStorage} once the number of
+	 * distinct values exceeds {@link #MIN_CARDINALITY_LIMIT} and half the number of cells.
+	 * On a shared dictionary the distinct values and cells of the whole column count.
+	 *
+	 * @return This storage, or a plain copy of it if the encoding no longer pays off.
+	 */
+	@Override
+	public ColumnStorage adapt() {
+		if (shared ? paysOff(dictionary) : paysOff(dictionary.size(), size)) {
+			return this;
+		}
+		ColumnStorage plain = new CellColumnStorage(StringValue::new);
+		for (int i = 0; i < size; i++) {
+			plain.add(get(i));
+		}
+		return plain;
+	}
+
+	/**
+	 * Releases the codes of the cells from a shared dictionary, so that the values
+	 * only this storage used are dropped. Nothing is released from a retired dictionary.
+	 */
+	@Override
+	public void close() {
+		if (shared && !dictionary.isRetired()) {
+			for (int i = 0; i < size; i++) {
+				if (codes[i] != BLANK) {
+					dictionary.release(codes[i]);
+				}
+			}
+			size = 0;
+		}
+	}
+
+	/**
+	 * Returns the number of distinct non-blank values in the dictionary.
+	 *
+	 * @return The cardinality of the column.
+	 */
+	public int getCardinality() {
+		return dictionary.size();
+	}
+
+	/**
+	 * Determines whether dictionary encoding pays off for the cells encoded in the
+	 * given dictionary.
+	 *
+	 * @param dictionary The dictionary of a column.
+	 * @return {@code true} if new cells of the column should be encoded.
+	 */
+	public static boolean paysOff(StringDictionary dictionary) {
+		return paysOff(dictionary.size(), dictionary.references());
+	}
+
+	private static boolean paysOff(int cardinality, int cells) {
+		return cardinality <= MIN_CARDINALITY_LIMIT || cardinality * 2 <= cells;
+	}
+
+	private int encode(String value) {
+		if (isBlankInput(value)) {
+			nbBlanks++;
+			return BLANK;
+		}
+		return dictionary.acquire(value);
+	}
+
+	private void release(int code) {
+		if (code == BLANK) {
+			nbBlanks--;
+		} else {
+			dictionary.release(code);
+		}
+	}
+}
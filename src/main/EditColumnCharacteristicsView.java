@@ -53,6 +53,16 @@ public class EditColumnCharacteristicsView extends AbstractView {
 
 	}
 
+	/**
+	 * This view paints the underlying view.
+	 *
+	 * @return The content version of the underlying view.
+	 */
+	@Override
+	public long getContentVersion() {
+		return underlyingView.getContentVersion();
+	}
+
 	/**
 	 * Handles the double-click interaction within the view by specifying the
 	 * coordinates where the action occurred.
@@ -55,6 +55,16 @@ public class EditDefaultValueView extends AbstractView {
 
 	}
 
+	/**
+	 * This view paints the underlying view.
+	 *
+	 * @return The content version of the underlying view.
+	 */
+	@Override
+	public long getContentVersion() {
+		return underlyingView.getContentVersion();
+	}
+
 	/**
 	 * Handles a double-click event at a specific location.
 	 *
@@ -71,7 +71,7 @@ public class EditRowView extends AbstractView {
 	}
 
 	/**
-	 * Handles the backspace action, and adjusts cell contents.
+	 * Handles the backspace action, and adjusts cell contents. Only the region of the cell needs to be repainted.
 	 */
 	@Override
 	public void handleBackSpace() {
@@ -79,6 +79,7 @@ public class EditRowView extends AbstractView {
 			getMgr().updateCell(tableId, nameColumn, rowIndex, value.substring(0, value.length() - 1));
 			value = value.substring(0, value.length() - 1);
 		}
+		addDamage(underlyingView.getCellBounds(nameColumn, rowIndex));
 	}
 
 	/**
@@ -113,13 +114,14 @@ public class EditRowView extends AbstractView {
 	/**
 	 * Handles the typing of a single character into the editing view of a cell.
 	 * The character is appended to the current cell's value, and the cell is updated
-	 * with the new value.
+	 * with the new value. Only the region of the cell needs to be repainted.
 	 *
 	 * @param keyChar The character that was typed.
 	 */
 	@Override
 	public void handleCharTyped(char keyChar) {
 		getMgr().updateCell(tableId, nameColumn, rowIndex, value += keyChar);
+		addDamage(underlyingView.getCellBounds(nameColumn, rowIndex));
 	}
 
 	/**
@@ -143,6 +145,16 @@ public class EditRowView extends AbstractView {
 		underlyingView.paint(g);
 	}
 
+	/**
+	 * This view paints the underlying view.
+	 *
+	 * @return The content version of the underlying view.
+	 */
+	@Override
+	public long getContentVersion() {
+		return underlyingView.getContentVersion();
+	}
+
 	/**
 	 * this method is invoked if underlyingView is killed and should be disposed.
 	 * Returns true
@@ -141,6 +141,16 @@ public class EditTableNameView extends AbstractView {
 		underlyingView.paint(g);
 	}
 
+	/**
+	 * This view paints the underlying view.
+	 *
+	 * @return The content version of the underlying view.
+	 */
+	@Override
+	public long getContentVersion() {
+		return underlyingView.getContentVersion();
+	}
+
 	/**
 	 * this method is invoked if underlyingView is killed and should be disposed.
 	 * Returns true
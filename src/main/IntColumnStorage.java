@@ -0,0 +1,131 @@
+package main;
+
+import java.util.Arrays;
+
+/**
+ * Column storage for integer columns. Values are kept in a growable {@code int[]}
+ * and blank cells are tracked in a separate bitmap, so a cell costs four bytes and
+ * one bit instead of a {@link Cell} and an {@link IntValue} object.
+ */
+public class IntColumnStorage extends ColumnStorage {
+
+	private static final int INITIAL_CAPACITY = 16;
+
+	private int[] values;
+	private long[] blanks;
+	private int size;
+
+	/**
+	 * Constructs an empty integer column storage.
+	 */
+	public IntColumnStorage() {
+		this.values = new int[INITIAL_CAPACITY];
+		this.blanks = new long[Bits.words(INITIAL_CAPACITY)];
+		this.size = 0;
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	@Override
+	public void add(String value) {
+		insert(size, value);
+	}
+
+	@Override
+	public void insert(int index, String value) {
+		checkInsertIndex(index);
+		boolean blank = isBlankInput(value);
+		int parsed = blank ? 0 : Integer.parseInt(value);
+		ensureCapacity(size + 1);
+		System.arraycopy(values, index, values, index + 1, size - index);
+		Bits.insert(blanks, size, index);
+		size++;
+		values[index] = parsed;
+		Bits.set(blanks, index, blank);
+	}
+
+	@Override
+	public void set(int index, String value) {
+		checkIndex(index);
+		if (isBlankInput(value)) {
+			values[index] = 0;
+			Bits.set(blanks, index, true);
+		} else {
+			values[index] = Integer.parseInt(value);
+			Bits.set(blanks, index, false);
+		}
+	}
+
+	@Override
+	public String get(int index) {
+		checkIndex(index);
+		return Bits.get(blanks, index) ? "" : Integer.toString(values[index]);
+	}
+
+	@Override
+	public boolean isBlank(int index) {
+		checkIndex(index);
+		return Bits.get(blanks, index);
+	}
+
+	@Override
+	public void remove(int index) {
+		checkIndex(index);
+		System.arraycopy(values, index + 1, values, index, size - index - 1);
+		Bits.remove(blanks, size, index);
+		size--;
+	}
+
+	/**
+	 * Retrieves the integer value of the cell at the specified index.
+	 *
+	 * @param index The index of the cell.
+	 * @return The value of the cell, or 0 if the cell is blank.
+	 * @throws IndexOutOfBoundsException if the index is out of range
+	 */
+	@Override
+	public int getInt(int index) {
+		checkIndex(index);
+		return values[index];
+	}
+
+	/**
+	 * Sets the integer value of the cell at the specified index, clearing its blank flag.
+	 *
+	 * @param index The index of the cell.
+	 * @param value The new value.
+	 * @throws IndexOutOfBoundsException if the index is out of range
+	 */
+	@Override
+	public void setInt(int index, int value) {
+		checkIndex(index);
+		values[index] = value;
+		Bits.set(blanks, index, false);
+	}
+
+	/**
+	 * Appends the cells to another storage as integers, without formatting them.
+	 *
+	 * @param target The storage to append the cells to.
+	 */
+	@Override
+	public void copyTo(ColumnStorage target) {
+		for (int i = 0; i < size; i++) {
+			if (isBlank(i)) {
+				target.add("");
+			} else {
+				target.addInt(getInt(i));
+			}
+		}
+	}
+
+	private void ensureCapacity(int capacity) {
+		if (capacity > values.length) {
+			values = Arrays.copyOf(values, Math.max(capacity, values.length * 2));
+		}
+		blanks = Bits.ensureCapacity(blanks, capacity);
+	}
+}
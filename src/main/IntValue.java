@@ -11,6 +11,16 @@ package main;
  */
 public class IntValue extends CellValue {
 
+	private static final int CACHE_LOW = -128;
+	private static final int CACHE_HIGH = 1023;
+	private static final IntValue[] CACHE = new IntValue[CACHE_HIGH - CACHE_LOW + 1];
+
+	static {
+		for (int i = 0; i < CACHE.length; i++) {
+			CACHE[i] = new IntValue(i + CACHE_LOW);
+		}
+	}
+
 	private final int value;
 
 	/**
@@ -23,6 +33,28 @@ public class IntValue extends CellValue {
 		this.value = Integer.parseInt(input);
 	}
 
+	private IntValue(int value) {
+		this.value = value;
+	}
+
+	/**
+	 * Returns an {@code IntValue} for the integer represented by the given input.
+	 * Values between -128 and 1023 are served from a cache of shared instances,
+	 * other values are allocated.
+	 *
+	 * @param input The string input to be parsed into an integer.
+	 *              This value must be a valid representation of an integer.
+	 * @return An {@code IntValue} holding the parsed integer.
+	 * @throws NumberFormatException if the input is not a valid integer
+	 */
+	public static IntValue valueOf(String input) {
+		int parsed = Integer.parseInt(input);
+		if (parsed >= CACHE_LOW && parsed <= CACHE_HIGH) {
+			return CACHE[parsed - CACHE_LOW];
+		}
+		return new IntValue(parsed);
+	}
+
 	/**
 	 * Returns the string representation of the integer value encapsulated by this instance.
 	 *
@@ -1,6 +1,8 @@
 package main;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -12,6 +14,7 @@ import java.util.UUID;
 public class LayoutInfo {
 
 	private final Map<UUID, TableLayout> tableLayouts = new HashMap<>();
+	private final CellTextCache cellTextCache = new CellTextCache();
 	private static int offsetY = 20;
 	private static int offsetX = 20;
 
@@ -33,6 +36,13 @@ public class LayoutInfo {
 		tableLayouts.remove(tableId);
 	}
 
+	/**
+	 * @return The cache of the text painted for cells, shared by all views.
+	 */
+	public CellTextCache getCellTextCache() {
+		return cellTextCache;
+	}
+
 	/***
 	 *
 	 * @return The step size in vertical direction.
@@ -83,17 +93,26 @@ public class LayoutInfo {
 
 	/***
 	 * Layout specific to each view (TablesView, DesignView, RowView, etc.)
+	 * <p>
+	 * Besides the width of every element, the layout keeps a Fenwick tree over the
+	 * widths so that the position of an element, the element at a position and the
+	 * effect of resizing an element are all computed in logarithmic time.
 	 */
 	public static class ViewLayout {
 		private List<Integer> widths = new ArrayList<>();
+		// tree[i] holds the sum of the widths of elements i - lowbit(i) up to i - 1
+		private int[] tree = new int[8];
+		private long version;
 
 		/**
 		 * Retrieves the list of widths associated with the layout.
+		 * Widths are changed through {@link #setWidth(int, int)}, {@link #addElement(int)}
+		 * and {@link #deleteElement(int)}.
 		 *
-		 * @return A list of integers representing the widths.
+		 * @return An unmodifiable list of integers representing the widths.
 		 */
 		public List<Integer> getWidths() {
-			return widths;
+			return Collections.unmodifiableList(widths);
 		}
 
 		/**
@@ -102,7 +121,51 @@ public class LayoutInfo {
 		 * @param widths A list of integers representing the widths to be assigned.
 		 */
 		public void setWidths(List<Integer> widths) {
-			this.widths = widths;
+			this.widths = new ArrayList<>();
+			for (int width : widths) {
+				this.widths.add(Math.max(0, width));
+			}
+			rebuild();
+			version++;
+		}
+
+		/**
+		 * @param elementNumber The index of the element.
+		 * @return The width of the element.
+		 */
+		public int getWidth(int elementNumber) {
+			return widths.get(elementNumber);
+		}
+
+		/**
+		 * Changes the width of an element. Widths below zero are stored as zero.
+		 *
+		 * @param elementNumber The index of the element.
+		 * @param width         The new width.
+		 */
+		public void setWidth(int elementNumber, int width) {
+			int newWidth = Math.max(0, width);
+			int delta = newWidth - widths.set(elementNumber, newWidth);
+			for (int i = elementNumber + 1; i <= widths.size(); i += i & -i) {
+				tree[i] += delta;
+			}
+			version++;
+		}
+
+		/***
+		 *
+		 * @param elementNumber The index of the element, or the number of elements for the end of the last one.
+		 * @return The horizontal pixel position where the element starts.
+		 */
+		public int getElementStart(int elementNumber) {
+			return offsetX + prefixSum(elementNumber);
+		}
+
+		/**
+		 * @return The sum of the widths of all elements.
+		 */
+		public int getTotalWidth() {
+			return prefixSum(widths.size());
 		}
 
 		/***
@@ -111,15 +174,23 @@ public class LayoutInfo {
 		 * @return The number of the element to the left the pixel x position.
 		 */
 		public int getElementXNumber(int x) {
-			int runningSum = offsetX;
-
-			for (int i = 0; i < widths.size(); i++) {
-				runningSum += widths.get(i);
-				if (x < runningSum) {
-					return i;
+			int size = widths.size();
+			if (size == 0) {
+				return -1;
+			}
+			int remaining = x - offsetX;
+			if (remaining < 0) {
+				return 0;
+			}
+			// find the largest number of leading elements whose widths add up to at most x
+			int position = 0;
+			for (int step = Integer.highestOneBit(size); step > 0; step >>= 1) {
+				if (position + step <= size && tree[position + step] <= remaining) {
+					position += step;
+					remaining -= tree[position];
 				}
 			}
-			return -1; // x is beyond all elements
+			return position < size ? position : -1; // x is beyond all elements
 		}
 
 		/***
@@ -129,6 +200,8 @@ public class LayoutInfo {
 		 */
 		public void deleteElement(int elementNumber) {
 			widths.remove(elementNumber);
+			rebuild();
+			version++;
 		}
 
 		/***
@@ -137,7 +210,47 @@ public class LayoutInfo {
 		 * @param size The width.
 		 */
 		public void addElement(int size) {
-			widths.add(size);
+			int width = Math.max(0, size);
+			widths.add(width);
+			int i = widths.size();
+			if (i == tree.length) {
+				tree = Arrays.copyOf(tree, tree.length * 2);
+			}
+			tree[i] = width + prefixSum(i - 1) - prefixSum(i - (i & -i));
+			version++;
+		}
+
+		/**
+		 * @return A number that changes whenever a width of the layout changes.
+		 */
+		public long getVersion() {
+			return version;
+		}
+
+		/**
+		 * @param count A number of leading elements.
+		 * @return The sum of the widths of the first {@code count} elements.
+		 */
+		private int prefixSum(int count) {
+			int sum = 0;
+			for (int i = count; i > 0; i -= i & -i) {
+				sum += tree[i];
+			}
+			return sum;
+		}
+
+		/**
+		 * Rebuilds the Fenwick tree from the widths in linear time.
+		 */
+		private void rebuild() {
+			tree = new int[Math.max(8, Integer.highestOneBit(widths.size()) * 2 + 1)];
+			for (int i = 1; i <= widths.size(); i++) {
+				tree[i] += widths.get(i - 1);
+				int parent = i + (i & -i);
+				if (parent <= widths.size()) {
+					tree[parent] += tree[i];
+				}
+			}
 		}
 	}
 }
@@ -0,0 +1,251 @@
+package main;
+
+import static java.lang.foreign.ValueLayout.JAVA_BYTE;
+
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.function.Supplier;
+
+/**
+ * Column storage that reads its cells from the block of a column in a
+ * memory-mapped workspace file, encoded as described in {@link WorkspaceFile}.
+ * The pages of the block are only read from disk once a cell on them is accessed.
+ * The cells of a string block have different lengths, so the block is indexed
+ * when one of its cells is first accessed.
+ * <p>
+ * The storage is read-only. The first modification copies the cells into a heap
+ * storage, which takes its place when the column adapts its storage. Until then,
+ * freezing the storage only creates another view on the block, and the block can
+ * be written to another workspace file as it is.
+ */
+public class MappedColumnStorage extends ColumnStorage {
+
+	private static final ValueLayout.OfInt INT = ValueLayout.JAVA_INT_UNALIGNED.withOrder(ByteOrder.BIG_ENDIAN);
+	private static final ValueLayout.OfLong LONG = ValueLayout.JAVA_LONG_UNALIGNED.withOrder(ByteOrder.BIG_ENDIAN);
+
+	private final MemorySegment block;
+	private final String type;
+	private final int size;
+	private final Supplier<ColumnStorage> heapStorage;
+	private long[] offsets;
+	private ColumnStorage copy;
+
+	/**
+	 * Constructs a storage for the cells stored in a block.
+	 *
+	 * @param block       The block of the column in the mapped file.
+	 * @param type        The type of the column, which determines the encoding of the block.
+	 * @param size        The number of cells in the block.
+	 * @param heapStorage Creates the empty storage the cells are copied to when they are modified.
+	 */
+	public MappedColumnStorage(MemorySegment block, String type, int size, Supplier<ColumnStorage> heapStorage) {
+		this.block = block;
+		this.type = type;
+		this.size = size;
+		this.heapStorage = heapStorage;
+	}
+
+	@Override
+	public int size() {
+		return copy != null ? copy.size() : size;
+	}
+
+	@Override
+	public void add(String value) {
+		copy().add(value);
+	}
+
+	@Override
+	public void insert(int index, String value) {
+		copy().insert(index, value);
+	}
+
+	@Override
+	public void set(int index, String value) {
+		copy().set(index, value);
+	}
+
+	@Override
+	public String get(int index) {
+		if (copy != null) {
+			return copy.get(index);
+		}
+		checkIndex(index);
+		switch (type) {
+			case "int":
+				return isBlankBit(index) ? "" : Integer.toString(block.get(INT, 4L * index));
+			case "bool":
+				return isBlankBit(index) ? "" : Boolean.toString(getBit(0, index));
+			default:
+				long offset = getOffset(index);
+				int length = block.get(INT, offset);
+				if (length < 0) {
+					return "";
+				}
+				return new String(block.asSlice(offset + 4, length).toArray(JAVA_BYTE), StandardCharsets.UTF_8);
+		}
+	}
+
+	@Override
+	public boolean isBlank(int index) {
+		if (copy != null) {
+			return copy.isBlank(index);
+		}
+		checkIndex(index);
+		switch (type) {
+			case "int":
+			case "bool":
+				return isBlankBit(index);
+			default:
+				return block.get(INT, getOffset(index)) <= 0;
+		}
+	}
+
+	@Override
+	public void remove(int index) {
+		copy().remove(index);
+	}
+
+	/**
+	 * Retrieves the integer value of the cell at the specified index. Integer
+	 * blocks return the stored value without converting it to a string.
+	 *
+	 * @param index The index of the cell.
+	 * @return The value of the cell, or 0 if the cell is blank.
+	 * @throws IndexOutOfBoundsException if the index is out of range
+	 */
+	@Override
+	public int getInt(int index) {
+		if (copy != null) {
+			return copy.getInt(index);
+		}
+		if (!type.equals("int")) {
+			return super.getInt(index);
+		}
+		checkIndex(index);
+		return block.get(INT, 4L * index);
+	}
+
+	@Override
+	public void setInt(int index, int value) {
+		copy().setInt(index, value);
+	}
+
+	/**
+	 * Retrieves the boolean value of the cell at the specified index. Boolean
+	 * blocks return the stored bit without converting it to a string.
+	 *
+	 * @param index The index of the cell.
+	 * @return The value of the cell, or {@code false} if the cell is blank.
+	 * @throws IndexOutOfBoundsException if the index is out of range
+	 */
+	@Override
+	public boolean getBoolean(int index) {
+		if (copy != null) {
+			return copy.getBoolean(index);
+		}
+		if (!type.equals("bool")) {
+			return super.getBoolean(index);
+		}
+		checkIndex(index);
+		return !isBlankBit(index) && getBit(0, index);
+	}
+
+	@Override
+	public void setBoolean(int index, boolean value) {
+		copy().setBoolean(index, value);
+	}
+
+	/**
+	 * Returns the heap copy of the cells once they have been modified.
+	 *
+	 * @return The copy of the cells, or this storage if they have not been modified.
+	 */
+	@Override
+	public ColumnStorage adapt() {
+		return copy != null ? copy.adapt() : this;
+	}
+
+	/**
+	 * Returns another view on the block while the cells have not been modified, and
+	 * a frozen storage of the heap copy otherwise.
+	 *
+	 * @return The frozen storage.
+	 */
+	@Override
+	public ColumnStorage freeze() {
+		return copy != null ? copy.freeze() : new MappedColumnStorage(block, type, size, heapStorage);
+	}
+
+	@Override
+	public void close() {
+		if (copy != null) {
+			copy.close();
+		}
+	}
+
+	/**
+	 * Retrieves the block the cells are read from, as long as they have not been modified.
+	 *
+	 * @return The block of the column in the mapped file, or null if the cells have been copied.
+	 */
+	public MemorySegment getBlock() {
+		return copy == null ? block : null;
+	}
+
+	/**
+	 * Copies the cells to the heap if that has not been done yet.
+	 *
+	 * @return The heap storage holding the cells.
+	 */
+	private ColumnStorage copy() {
+		if (copy == null) {
+			ColumnStorage cells = heapStorage.get();
+			for (int i = 0; i < size; i++) {
+				if (isBlank(i)) {
+					cells.add("");
+				} else if (type.equals("int")) {
+					cells.addInt(getInt(i));
+				} else if (type.equals("bool")) {
+					cells.addBoolean(getBoolean(i));
+				} else {
+					cells.add(get(i));
+				}
+				cells = cells.adapt();
+			}
+			copy = cells;
+		}
+		return copy;
+	}
+
+	/**
+	 * @return Whether the cell is blank according to the blank bitmap that follows
+	 * the values of an integer or boolean block.
+	 */
+	private boolean isBlankBit(int index) {
+		long bitmap = type.equals("int") ? 4L * size : 8L * Bits.words(size);
+		return getBit(bitmap, index);
+	}
+
+	private boolean getBit(long bitmap, int index) {
+		return (block.get(LONG, bitmap + 8L * (index >>> 6)) & (1L << index)) != 0;
+	}
+
+	/**
+	 * Retrieves the offset of a cell in a string block, indexing the block on first use.
+	 */
+	private long getOffset(int index) {
+		if (offsets == null) {
+			long[] cellOffsets = new long[size];
+			long offset = 0;
+			for (int i = 0; i < size; i++) {
+				cellOffsets[i] = offset;
+				offset += 4 + Math.max(0, block.get(INT, offset));
+			}
+			offsets = cellOffsets;
+		}
+		return offsets[index];
+	}
+}
@@ -1,7 +1,11 @@
 package main;
 
+import java.awt.Color;
+import java.awt.Font;
 import java.awt.Graphics;
+import java.awt.Rectangle;
 import java.awt.event.KeyEvent;
+import java.util.function.Consumer;
 
 import canvaswindow.CanvasWindow;
 
@@ -11,6 +15,9 @@ import canvaswindow.CanvasWindow;
  */
 public class MyCanvasWindow extends CanvasWindow {
 
+	private static final int SCROLL_STEP = 20;
+	private static final int PAGE_STEP = 200;
+
 	private ViewManager viewManager;
 	private boolean dragging = false;
 	private int lastX, lastY;
@@ -42,6 +49,22 @@ public class MyCanvasWindow extends CanvasWindow {
 		viewManager.paint(g);
 	}
 
+	/**
+	 * Captures a frame rendered in the background. Sets the title of the canvas
+	 * window like {@link #paint(Graphics)} and lets the view manager capture the
+	 * views, so that the render thread also renders the views themselves.
+	 *
+	 * @param region The region of the canvas to render.
+	 * @param font   The font to paint with.
+	 * @param color  The color to paint with.
+	 * @return The painter that draws the frame.
+	 */
+	@Override
+	protected Consumer<Graphics> snapshot(Rectangle region, Font font, Color color) {
+		super.setTitle(viewManager.getTitle());
+		return viewManager.snapshot(region, font, color);
+	}
+
 	/**
 	 * Handles mouse events and dispatches single-click or double-click actions to
 	 * the appropriate methods in the associated view. This method differentiates
@@ -77,7 +100,7 @@ public class MyCanvasWindow extends CanvasWindow {
 				dragging = false;
 			}
 		}
-		this.repaint();
+		repaintDamage();
 	}
 
 	/**
@@ -116,6 +139,30 @@ public class MyCanvasWindow extends CanvasWindow {
 				}
 				break;
 
+			case KeyEvent.VK_UP:
+				action = () -> viewManager.handleScroll(0, -SCROLL_STEP);
+				break;
+
+			case KeyEvent.VK_DOWN:
+				action = () -> viewManager.handleScroll(0, SCROLL_STEP);
+				break;
+
+			case KeyEvent.VK_LEFT:
+				action = () -> viewManager.handleScroll(-SCROLL_STEP, 0);
+				break;
+
+			case KeyEvent.VK_RIGHT:
+				action = () -> viewManager.handleScroll(SCROLL_STEP, 0);
+				break;
+
+			case KeyEvent.VK_PAGE_UP:
+				action = () -> viewManager.handleScroll(0, -PAGE_STEP);
+				break;
+
+			case KeyEvent.VK_PAGE_DOWN:
+				action = () -> viewManager.handleScroll(0, PAGE_STEP);
+				break;
+
 			case KeyEvent.VK_BACK_SPACE:
 				action = () -> viewManager.handleBackSpace();
 				break;
@@ -146,6 +193,16 @@ public class MyCanvasWindow extends CanvasWindow {
 		if (action != null) {
 			action.run();
 		}
-		this.repaint();
+		repaintDamage();
+	}
+
+	/**
+	 * Repaints the part of the canvas the views changed while handling the last event.
+	 */
+	private void repaintDamage() {
+		Rectangle damage = viewManager.takeDamage();
+		if (!damage.isEmpty()) {
+			this.repaint(damage.x, damage.y, damage.width, damage.height);
+		}
 	}
 }
@@ -0,0 +1,151 @@
+package main;
+
+import static java.lang.foreign.ValueLayout.JAVA_INT;
+
+import java.lang.foreign.MemorySegment;
+
+/**
+ * Integer column storage that keeps its values and blank bitmap in off-heap
+ * segments allocated from the table's {@link OffHeapMemory}.
+ */
+public class OffHeapIntColumnStorage extends ColumnStorage {
+
+	private static final int INITIAL_CAPACITY = 64;
+
+	private final OffHeapMemory memory;
+	private MemorySegment values;
+	private MemorySegment blanks;
+	private int capacity;
+	private int size;
+
+	/**
+	 * Constructs an empty off-heap integer column storage.
+	 *
+	 * @param memory The memory from which the segments are allocated.
+	 */
+	public OffHeapIntColumnStorage(OffHeapMemory memory) {
+		this.memory = memory;
+		this.capacity = INITIAL_CAPACITY;
+		this.values = memory.allocate(JAVA_INT.byteSize() * capacity);
+		this.blanks = memory.allocate(Long.BYTES * Bits.words(capacity));
+		this.size = 0;
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	@Override
+	public void add(String value) {
+		insert(size, value);
+	}
+
+	@Override
+	public void insert(int index, String value) {
+		checkInsertIndex(index);
+		boolean blank = isBlankInput(value);
+		int parsed = blank ? 0 : Integer.parseInt(value);
+		ensureCapacity(size + 1);
+		long bytes = JAVA_INT.byteSize();
+		MemorySegment.copy(values, index * bytes, values, (index + 1) * bytes, (size - index) * bytes);
+		Bits.insert(blanks, size, index);
+		size++;
+		values.setAtIndex(JAVA_INT, index, parsed);
+		Bits.set(blanks, index, blank);
+	}
+
+	@Override
+	public void set(int index, String value) {
+		checkIndex(index);
+		if (isBlankInput(value)) {
+			values.setAtIndex(JAVA_INT, index, 0);
+			Bits.set(blanks, index, true);
+		} else {
+			values.setAtIndex(JAVA_INT, index, Integer.parseInt(value));
+			Bits.set(blanks, index, false);
+		}
+	}
+
+	@Override
+	public String get(int index) {
+		checkIndex(index);
+		return Bits.get(blanks, index) ? "" : Integer.toString(values.getAtIndex(JAVA_INT, index));
+	}
+
+	@Override
+	public boolean isBlank(int index) {
+		checkIndex(index);
+		return Bits.get(blanks, index);
+	}
+
+	@Override
+	public void remove(int index) {
+		checkIndex(index);
+		long bytes = JAVA_INT.byteSize();
+		MemorySegment.copy(values, (index + 1) * bytes, values, index * bytes, (size - index - 1) * bytes);
+		Bits.remove(blanks, size, index);
+		size--;
+	}
+
+	/**
+	 * Releases the segments of this storage.
+	 */
+	@Override
+	public void close() {
+		memory.free(values);
+		memory.free(blanks);
+	}
+
+	/**
+	 * Retrieves the integer value of the cell at the specified index.
+	 *
+	 * @param index The index of the cell.
+	 * @return The value of the cell, or 0 if the cell is blank.
+	 * @throws IndexOutOfBoundsException if the index is out of range
+	 */
+	@Override
+	public int getInt(int index) {
+		checkIndex(index);
+		return values.getAtIndex(JAVA_INT, index);
+	}
+
+	/**
+	 * Sets the integer value of the cell at the specified index, clearing its blank flag.
+	 *
+	 * @param index The index of the cell.
+	 * @param value The new value.
+	 * @throws IndexOutOfBoundsException if the index is out of range
+	 */
+	@Override
+	public void setInt(int index, int value) {
+		checkIndex(index);
+		values.setAtIndex(JAVA_INT, index, value);
+		Bits.set(blanks, index, false);
+	}
+
+	/**
+	 * Appends the cells to another storage as integers, without formatting them.
+	 *
+	 * @param target The storage to append the cells to.
+	 */
+	@Override
+	public void copyTo(ColumnStorage target) {
+		for (int i = 0; i < size; i++) {
+			if (isBlank(i)) {
+				target.add("");
+			} else {
+				target.addInt(getInt(i));
+			}
+		}
+	}
+
+	private void ensureCapacity(int needed) {
+		if (needed <= capacity) {
+			return;
+		}
+		capacity = Math.max(needed, capacity * 2);
+		values = memory.grow(values, JAVA_INT.byteSize() * capacity);
+		blanks = memory.grow(blanks, (long) Long.BYTES * Bits.words(capacity));
+	}
+}
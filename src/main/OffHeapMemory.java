@@ -0,0 +1,189 @@
+package main;
+
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Owner of the off-heap memory used by the columns of one {@link Table}.
+ * <p>
+ * All memory is allocated from a single shared {@link Arena}, because closing a
+ * shared arena is expensive. Segment sizes are rounded up to a power of two.
+ * Segments of up to {@value #SLAB_SIZE} bytes are cut from slabs of that size,
+ * larger segments are allocated from the arena directly. A segment handed back
+ * with {@link #free(MemorySegment)} is kept on a free list for its size and reused
+ * by the next allocation of that size, so a column that outgrows a segment does
+ * not make the memory grow. Closing the memory releases the arena and with it
+ * every segment; segments must not be accessed after that. A snapshot of the table
+ * that reads the segments on another thread retains the memory, which is then only
+ * released once the table and the snapshot have both closed it.
+ */
+public class OffHeapMemory implements AutoCloseable {
+
+	private static final long ALIGNMENT = Long.BYTES;
+	private static final int MIN_SIZE_SHIFT = 6;
+	private static final long SLAB_SIZE = 1 << 20;
+
+	private final Arena arena;
+	private final Map<MemorySegment, Integer> segments;
+	private final List<ArrayDeque<MemorySegment>> freeSegments;
+	private MemorySegment slab;
+	private long slabOffset;
+	private long allocatedBytes;
+	private long reservedBytes;
+	private int users;
+	private boolean closed;
+
+	/**
+	 * Constructs an empty off-heap memory owner.
+	 */
+	public OffHeapMemory() {
+		this.arena = Arena.ofShared();
+		this.segments = new IdentityHashMap<MemorySegment, Integer>();
+		this.freeSegments = new ArrayList<ArrayDeque<MemorySegment>>();
+		for (int i = 0; i < Long.SIZE; i++) {
+			this.freeSegments.add(new ArrayDeque<MemorySegment>());
+		}
+		this.allocatedBytes = 0;
+		this.reservedBytes = 0;
+		this.users = 1;
+		this.closed = false;
+	}
+
+	/**
+	 * Allocates a zeroed segment of at least the given size.
+	 *
+	 * @param byteSize The size of the segment in bytes.
+	 * @return The new segment.
+	 * @throws IllegalStateException if the memory has been closed
+	 */
+	public synchronized MemorySegment allocate(long byteSize) {
+		if (closed) {
+			throw new IllegalStateException("Off-heap memory is closed");
+		}
+		int sizeClass = sizeClass(byteSize);
+		long size = 1L << sizeClass;
+		MemorySegment segment = freeSegments.get(sizeClass).poll();
+		if (segment != null) {
+			segment.fill((byte) 0);
+		} else if (size > SLAB_SIZE) {
+			segment = arena.allocate(size, ALIGNMENT);
+			reservedBytes += size;
+		} else {
+			if (slab == null || slabOffset + size > SLAB_SIZE) {
+				slab = arena.allocate(SLAB_SIZE, ALIGNMENT);
+				slabOffset = 0;
+				reservedBytes += SLAB_SIZE;
+			}
+			segment = slab.asSlice(slabOffset, size);
+			slabOffset += size;
+		}
+		segments.put(segment, sizeClass);
+		allocatedBytes += size;
+		return segment;
+	}
+
+	/**
+	 * Allocates a zeroed segment of the given size and copies the contents of an existing
+	 * segment into it. The existing segment is freed.
+	 *
+	 * @param segment  The segment to grow.
+	 * @param byteSize The size of the new segment in bytes. Must not be smaller than the existing segment.
+	 * @return The new segment.
+	 */
+	public synchronized MemorySegment grow(MemorySegment segment, long byteSize) {
+		if (byteSize <= segment.byteSize()) {
+			return segment;
+		}
+		MemorySegment grown = allocate(byteSize);
+		MemorySegment.copy(segment, 0, grown, 0, segment.byteSize());
+		free(segment);
+		return grown;
+	}
+
+	/**
+	 * Hands a segment allocated by this memory back for reuse. Does nothing if the
+	 * segment is unknown.
+	 *
+	 * @param segment The segment to release.
+	 */
+	public synchronized void free(MemorySegment segment) {
+		Integer sizeClass = segments.remove(segment);
+		if (sizeClass != null) {
+			allocatedBytes -= segment.byteSize();
+			freeSegments.get(sizeClass).push(segment);
+		}
+	}
+
+	/**
+	 * Returns the number of bytes in the segments currently in use.
+	 *
+	 * @return The allocated size in bytes.
+	 */
+	public synchronized long getAllocatedBytes() {
+		return allocatedBytes;
+	}
+
+	/**
+	 * Returns the number of bytes taken from the arena, including the segments that
+	 * were freed for reuse and the unused rest of the current slab.
+	 *
+	 * @return The reserved size in bytes.
+	 */
+	public synchronized long getReservedBytes() {
+		return reservedBytes;
+	}
+
+	/**
+	 * Determines whether the memory has been closed.
+	 *
+	 * @return {@code true} if {@link #close()} has been called.
+	 */
+	public synchronized boolean isClosed() {
+		return closed;
+	}
+
+	/**
+	 * Adds a user of the memory, which must close the memory once it no longer
+	 * accesses the segments.
+	 *
+	 * @throws IllegalStateException if the memory has been closed
+	 */
+	public synchronized void retain() {
+		if (closed) {
+			throw new IllegalStateException("Off-heap memory is closed");
+		}
+		users++;
+	}
+
+	/**
+	 * Releases all memory once every user has closed it. Further allocations fail.
+	 */
+	@Override
+	public synchronized void close() {
+		if (closed || --users > 0) {
+			return;
+		}
+		arena.close();
+		segments.clear();
+		for (ArrayDeque<MemorySegment> free : freeSegments) {
+			free.clear();
+		}
+		slab = null;
+		allocatedBytes = 0;
+		reservedBytes = 0;
+		closed = true;
+	}
+
+	/**
+	 * @return The exponent of the smallest power of two of at least the given size.
+	 */
+	private static int sizeClass(long byteSize) {
+		long size = Math.max(byteSize, 1L << MIN_SIZE_SHIFT);
+		return Long.SIZE - Long.numberOfLeadingZeros(size - 1);
+	}
+}
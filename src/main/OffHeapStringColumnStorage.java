@@ -0,0 +1,212 @@
+package main;
+
+import static java.lang.foreign.ValueLayout.JAVA_BYTE;
+import static java.lang.foreign.ValueLayout.JAVA_INT;
+import static java.lang.foreign.ValueLayout.JAVA_LONG;
+
+import java.lang.foreign.MemorySegment;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * String column storage that keeps the UTF-8 bytes of its values off-heap.
+ * <p>
+ * Values are appended to a data segment; per row an offset and a length into that
+ * segment are stored, a length of -1 marking a blank cell. Overwritten and removed
+ * values leave unused bytes behind, which are reclaimed by copying the live values
+ * into a fresh data segment once they outweigh the live bytes.
+ */
+public class OffHeapStringColumnStorage extends ColumnStorage {
+
+	private static final int INITIAL_CAPACITY = 64;
+	private static final long INITIAL_DATA_CAPACITY = 4096;
+	private static final int BLANK = -1;
+
+	private final OffHeapMemory memory;
+	private MemorySegment offsets;
+	private MemorySegment lengths;
+	private MemorySegment data;
+	private int capacity;
+	private int size;
+	private long dataUsed;
+	private long garbage;
+
+	/**
+	 * Constructs an empty off-heap string column storage.
+	 *
+	 * @param memory The memory from which the segments are allocated.
+	 */
+	public OffHeapStringColumnStorage(OffHeapMemory memory) {
+		this.memory = memory;
+		this.capacity = INITIAL_CAPACITY;
+		this.offsets = memory.allocate(JAVA_LONG.byteSize() * capacity);
+		this.lengths = memory.allocate(JAVA_INT.byteSize() * capacity);
+		this.data = memory.allocate(INITIAL_DATA_CAPACITY);
+		this.size = 0;
+		this.dataUsed = 0;
+		this.garbage = 0;
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	@Override
+	public void add(String value) {
+		insert(size, value);
+	}
+
+	@Override
+	public void insert(int index, String value) {
+		checkInsertIndex(index);
+		ensureCapacity(size + 1);
+		long longBytes = JAVA_LONG.byteSize();
+		long intBytes = JAVA_INT.byteSize();
+		MemorySegment.copy(offsets, index * longBytes, offsets, (index + 1) * longBytes, (size - index) * longBytes);
+		MemorySegment.copy(lengths, index * intBytes, lengths, (index + 1) * intBytes, (size - index) * intBytes);
+		size++;
+		lengths.setAtIndex(JAVA_INT, index, BLANK);
+		store(index, value);
+	}
+
+	@Override
+	public void set(int index, String value) {
+		checkIndex(index);
+		discard(index);
+		store(index, value);
+		if (garbage > INITIAL_DATA_CAPACITY && garbage > dataUsed - garbage) {
+			compact();
+		}
+	}
+
+	@Override
+	public String get(int index) {
+		checkIndex(index);
+		int length = lengths.getAtIndex(JAVA_INT, index);
+		if (length == BLANK) {
+			return "";
+		}
+		byte[] bytes = new byte[length];
+		MemorySegment.copy(data, JAVA_BYTE, offsets.getAtIndex(JAVA_LONG, index), bytes, 0, length);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	@Override
+	public boolean isBlank(int index) {
+		checkIndex(index);
+		return lengths.getAtIndex(JAVA_INT, index) == BLANK;
+	}
+
+	@Override
+	public void remove(int index) {
+		checkIndex(index);
+		discard(index);
+		long longBytes = JAVA_LONG.byteSize();
+		long intBytes = JAVA_INT.byteSize();
+		MemorySegment.copy(offsets, (index + 1) * longBytes, offsets, index * longBytes, (size - index - 1) * longBytes);
+		MemorySegment.copy(lengths, (index + 1) * intBytes, lengths, index * intBytes, (size - index - 1) * intBytes);
+		size--;
+	}
+
+	/**
+	 * Counts the cells equal to the given value by comparing UTF-8 bytes in place,
+	 * without decoding the stored values.
+	 *
+	 * @param value The value to count, or an empty string to count blank cells.
+	 * @return The number of cells holding the value.
+	 */
+	@Override
+	public int countEqual(String value) {
+		int count = 0;
+		if (isBlankInput(value)) {
+			for (int i = 0; i < size; i++) {
+				if (lengths.getAtIndex(JAVA_INT, i) == BLANK) {
+					count++;
+				}
+			}
+			return count;
+		}
+		MemorySegment target = MemorySegment.ofArray(value.getBytes(StandardCharsets.UTF_8));
+		long targetLength = target.byteSize();
+		for (int i = 0; i < size; i++) {
+			if (lengths.getAtIndex(JAVA_INT, i) == targetLength) {
+				long offset = offsets.getAtIndex(JAVA_LONG, i);
+				if (MemorySegment.mismatch(data, offset, offset + targetLength, target, 0, targetLength) == -1) {
+					count++;
+				}
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * Releases the segments of this storage.
+	 */
+	@Override
+	public void close() {
+		memory.free(offsets);
+		memory.free(lengths);
+		memory.free(data);
+	}
+
+	private void store(int index, String value) {
+		if (isBlankInput(value)) {
+			lengths.setAtIndex(JAVA_INT, index, BLANK);
+			return;
+		}
+		byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+		ensureDataCapacity(bytes.length);
+		MemorySegment.copy(bytes, 0, data, JAVA_BYTE, dataUsed, bytes.length);
+		offsets.setAtIndex(JAVA_LONG, index, dataUsed);
+		lengths.setAtIndex(JAVA_INT, index, bytes.length);
+		dataUsed += bytes.length;
+	}
+
+	private void discard(int index) {
+		int length = lengths.getAtIndex(JAVA_INT, index);
+		if (length != BLANK) {
+			garbage += length;
+			lengths.setAtIndex(JAVA_INT, index, BLANK);
+		}
+	}
+
+	private void compact() {
+		long live = dataUsed - garbage;
+		MemorySegment compacted = memory.allocate(Math.max(INITIAL_DATA_CAPACITY, live * 2));
+		long position = 0;
+		for (int i = 0; i < size; i++) {
+			int length = lengths.getAtIndex(JAVA_INT, i);
+			if (length != BLANK) {
+				MemorySegment.copy(data, offsets.getAtIndex(JAVA_LONG, i), compacted, position, length);
+				offsets.setAtIndex(JAVA_LONG, i, position);
+				position += length;
+			}
+		}
+		memory.free(data);
+		data = compacted;
+		dataUsed = position;
+		garbage = 0;
+	}
+
+	private void ensureCapacity(int needed) {
+		if (needed <= capacity) {
+			return;
+		}
+		capacity = Math.max(needed, capacity * 2);
+		offsets = memory.grow(offsets, JAVA_LONG.byteSize() * capacity);
+		lengths = memory.grow(lengths, JAVA_INT.byteSize() * capacity);
+	}
+
+	private void ensureDataCapacity(int extra) {
+		if (dataUsed + extra <= data.byteSize()) {
+			return;
+		}
+		if (garbage > dataUsed - garbage) {
+			compact();
+			if (dataUsed + extra <= data.byteSize()) {
+				return;
+			}
+		}
+		data = memory.grow(data, Math.max(dataUsed + extra, data.byteSize() * 2));
+	}
+}
@@ -1,6 +1,8 @@
 package main;
 
+import java.awt.FontMetrics;
 import java.awt.Graphics;
+import java.awt.Rectangle;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
@@ -13,6 +15,20 @@ public class RowsView extends AbstractView {
 
 	private UUID tableId;
 	private List<Integer> selectedRows;
+	private int scrollX;
+	private int scrollY;
+	private FontMetrics metrics;
+
+	/**
+	 * Space in pixels left after the widest text when a column is fitted to its contents.
+	 */
+	private static final int AUTO_FIT_PADDING = 5;
+
+	/**
+	 * Width in pixels of a column that has not been given a width, like the columns of
+	 * a loaded or imported table that were never shown in the design view.
+	 */
+	private static final int DEFAULT_COLUMN_WIDTH = 50;
 
 	/**
 	 * Constructs a RowsView instance for managing the view of rows in a specific
@@ -32,6 +48,7 @@ public class RowsView extends AbstractView {
 
 	/**
 	 * Handles the double-click event. adds a new row if below the list of rows.
+	 * A double-click on the name of a column fits the column to its contents.
 	 *
 	 * @param x The x-coordinate of the double-click position.
 	 * @param y The y-coordinate of the double-click position. Determines the row
@@ -39,11 +56,16 @@ public class RowsView extends AbstractView {
 	 */
 	@Override
 	public void handleDoubleClick(int x, int y) {
-		int elementNumber = getLayoutInfo().getElementYNumber(y);
-		if (getMgr().getColumns(tableId).isEmpty()) {
+		int elementNumber = getElementYNumber(y);
+		List<ColumnReader> columns = getMgr().getColumnReaders(tableId);
+		if (columns.isEmpty()) {
 			return;
 		}
-		if (elementNumber > getMgr().getColumns(tableId).getFirst().size()) {
+		if (elementNumber == 0) {
+			if (x >= getLayoutInfo().getOffsetX() && metrics != null) {
+				autoFitColumn(getLayout().getElementXNumber(x + scrollX), metrics);
+			}
+		} else if (elementNumber > columns.getFirst().size()) {
 			this.getMgr().addRow(tableId);
 		}
 	}
@@ -60,15 +82,20 @@ public class RowsView extends AbstractView {
 	 */
 	@Override
 	public void handleSingleClick(int x, int y) {
-		int rowIndex = getLayoutInfo().getElementYNumber(y) - 1;
-		if (rowIndex <= getMgr().getColumnNames(tableId).size()) {
+		int rowIndex = getElementYNumber(y) - 1;
+		List<ColumnReader> columns = getMgr().getColumnReaders(tableId);
+		if (!columns.isEmpty() && rowIndex >= 0 && rowIndex < columns.getFirst().size()) {
 			if (x < getLayoutInfo().getOffsetX()) {
 				// Left margin of table, indicate that selected
 				selectedRows.add(rowIndex);
 			} else {
 				// Click on table, edit cell
-				String column = this.getMgr().getColumnNames(tableId)
-						.get(getLayoutInfo().getTableLayout(tableId).getViewLayout(getClass()).getElementXNumber(x));
+				List<String> names = this.getMgr().getColumnNames(tableId);
+				int columnIndex = getLayout().getElementXNumber(x + scrollX);
+				if (columnIndex < 0 || columnIndex >= names.size()) {
+					return;
+				}
+				String column = names.get(columnIndex);
 				if (getMgr().getClass(tableId, column) == "boolean") {
 					// edit boolean value
 					getMgr().updateCell(tableId, column, rowIndex,
@@ -83,6 +110,62 @@ public class RowsView extends AbstractView {
 		}
 	}
 
+	/**
+	 * Sets the width of a column to the width of its widest text, the name of the
+	 * column included. The widths of the cells are taken from the cell text cache,
+	 * so only the cells that changed since the column was last fitted or painted
+	 * are measured.
+	 *
+	 * @param columnIndex The position of the column in the table.
+	 * @param metrics     The metrics of the font the column is painted in.
+	 */
+	public void autoFitColumn(int columnIndex, FontMetrics metrics) {
+		List<ColumnReader> columns = getMgr().getColumnReaders(tableId);
+		LayoutInfo.ViewLayout layout = getLayout();
+		if (columnIndex < 0 || columnIndex >= columns.size() || columnIndex >= layout.getWidths().size()) {
+			return;
+		}
+		int nameWidth = metrics.stringWidth(getMgr().getColumnNames(tableId).get(columnIndex));
+		int cellWidth = getLayoutInfo().getCellTextCache().getMaxWidth(columns.get(columnIndex), metrics);
+		layout.setWidth(columnIndex, Math.max(nameWidth, cellWidth) + AUTO_FIT_PADDING);
+	}
+
+	/**
+	 * Scrolls the rows and columns. The header with the column names stays in place
+	 * vertically and the left margin horizontally. The rows can be scrolled until the
+	 * last row is at the top of the view, the columns until the last column is at
+	 * the left of the view.
+	 *
+	 * @param dx The horizontal distance in pixels, positive to scroll to the right.
+	 * @param dy The vertical distance in pixels, positive to scroll down.
+	 */
+	@Override
+	public void handleScroll(int dx, int dy) {
+		List<ColumnReader> columns = getMgr().getColumnReaders(tableId);
+		int rows = columns.isEmpty() ? 0 : columns.getFirst().size();
+		int maxScrollY = Math.max(0, (rows - 1) * getLayoutInfo().getOffsetY());
+		scrollY = Math.max(0, Math.min(scrollY + dy, maxScrollY));
+		LayoutInfo.ViewLayout layout = getLayout();
+		int nbColumns = layout.getWidths().size();
+		int maxScrollX = nbColumns == 0 ? 0 : layout.getElementStart(nbColumns - 1) - getLayoutInfo().getOffsetX();
+		scrollX = Math.max(0, Math.min(scrollX + dx, maxScrollX));
+	}
+
+	/**
+	 * Converts a vertical position in the view to an element number. Element 0 is
+	 * the header, element {@code r + 1} is row {@code r}. Below the header the
+	 * scroll offset is taken into account.
+	 *
+	 * @param y The vertical pixel position within the view.
+	 * @return The number of the element at the position.
+	 */
+	private int getElementYNumber(int y) {
+		if (y < getLayoutInfo().getOffsetY()) {
+			return getLayoutInfo().getElementYNumber(y);
+		}
+		return getLayoutInfo().getElementYNumber(y + scrollY);
+	}
+
 	/**
 	 * Handles the escape key press event in the RowsView. This method transitions
 	 * the view from the current RowsView instance to a new TablesView instance.
@@ -152,7 +235,9 @@ public class RowsView extends AbstractView {
 
 	/**
 	 * Paints the graphical representation of rows and columns for the associated
-	 * table.
+	 * table. Only the rows and columns that intersect the clip bounds of the graphics,
+	 * shifted by the scroll offsets, are drawn. The text of the cells is taken from
+	 * the cell text cache.
 	 *
 	 * @param g The {@code Graphics} object used for rendering the content on the
 	 *          screen.
@@ -164,31 +249,71 @@ public class RowsView extends AbstractView {
 			return;
 		}
 
-		List<List<String>> columns = getMgr().getColumns(tableId);
-		int xCoordinate = getLayoutInfo().getOffsetX();
-		List<Integer> margins = getLayoutInfo().getTableLayout(tableId).getViewLayout(getClass()).getWidths();
+		metrics = g.getFontMetrics();
+		CellTextCache texts = getLayoutInfo().getCellTextCache();
+		List<ColumnReader> columns = getMgr().getColumnReaders(tableId);
+		List<String> names = getMgr().getColumnNames(tableId);
+		LayoutInfo.ViewLayout layout = getLayout();
+		int offsetX = getLayoutInfo().getOffsetX();
+		int offsetY = getLayoutInfo().getOffsetY();
+		int nbRows = columns.isEmpty() ? 0 : columns.getFirst().size();
+		int nbColumns = Math.min(names.size(), layout.getWidths().size());
+		Rectangle clip = g.getClipBounds();
+		if (clip == null) {
+			clip = new Rectangle(0, 0, offsetX + layout.getTotalWidth(), (nbRows + 2) * offsetY);
+		}
+
+		// columns scrolled to the left must not overwrite the margin
+		int left = Math.max(clip.x, offsetX);
+		int right = clip.x + clip.width;
+		int firstColumn = layout.getElementXNumber(left + scrollX);
+		if (nbColumns == 0 || right <= left || firstColumn < 0 || firstColumn >= nbColumns) {
+			return;
+		}
+		int lastColumn = layout.getElementXNumber(right - 1 + scrollX);
+		if (lastColumn < 0 || lastColumn >= nbColumns) {
+			lastColumn = nbColumns - 1;
+		}
+		int firstX = layout.getElementStart(firstColumn) - scrollX;
+		Graphics cells = g.create();
+		cells.clipRect(left, clip.y, right - left, clip.height);
 
-		for (int col = 0; col < getMgr().getColumnNames(tableId).size(); col++) {
-			g.drawString(getMgr().getColumnNames(tableId).get(col), xCoordinate, getLayoutInfo().getOffsetY());
-			xCoordinate += margins.get(col);
+		int xCoordinate = firstX;
+		for (int col = firstColumn; col <= lastColumn; col++) {
+			cells.drawString(names.get(col), xCoordinate, offsetY);
+			xCoordinate += layout.getWidth(col);
 		}
-		if (columns.size() == 0) {
+
+		int top = Math.max(clip.y, offsetY);
+		int bottom = clip.y + clip.height;
+		if (nbRows == 0 || bottom <= top) {
+			cells.dispose();
 			return;
 		}
-		for (int row = 0; row < columns.getFirst().size(); row++) {
+		int firstRow = Math.max(0, (top + scrollY) / offsetY - 1);
+		int lastRow = Math.min(nbRows - 1, (bottom - 1 + scrollY) / offsetY - 1);
+		// rows scrolled halfway under the header must not overwrite it
+		cells.clipRect(left, top, right - left, bottom - top);
+		Graphics margin = g.create();
+		margin.clipRect(clip.x, top, clip.width, bottom - top);
+		for (int row = firstRow; row <= lastRow; row++) {
+			int y = (row + 2) * offsetY - scrollY;
 			if (selectedRows.contains(row)) {
-				g.drawString("*", 5, ((row + 1) * getLayoutInfo().getOffsetY()) + getLayoutInfo().getOffsetY());
+				margin.drawString("*", 5, y);
 			}
-			xCoordinate = getLayoutInfo().getOffsetX();
-			for (int col = 0; col < columns.size(); col++) {
-				g.drawString(columns.get(col).get(row), xCoordinate, ((row + 1) * getLayoutInfo().getOffsetY()) + getLayoutInfo().getOffsetY());
-				xCoordinate += margins.get(col);
+			xCoordinate = firstX;
+			for (int col = firstColumn; col <= lastColumn; col++) {
+				cells.drawString(texts.getText(columns.get(col), row), xCoordinate, y);
+				xCoordinate += layout.getWidth(col);
 			}
 		}
+		margin.dispose();
+		cells.dispose();
 	}
 
 	/**
-	 * Handles the mouse drag operation in the RowsView.
+	 * Handles the mouse drag operation in the RowsView. Dragging resizes the column
+	 * to the left of the column where the drag started.
 	 *
 	 * @param startX The starting x-coordinate of the mouse drag.
 	 * @param startY The starting y-coordinate of the mouse drag.
@@ -197,11 +322,59 @@ public class RowsView extends AbstractView {
 	 */
 	@Override
 	public void handleMouseDrag(int startX, int startY, int endX, int endY) {
-		int elementNumber = getLayoutInfo().getTableLayout(tableId).getViewLayout(getClass()).getElementXNumber(startX) - 1;
+		LayoutInfo.ViewLayout layout = getLayout();
+		int elementNumber = layout.getElementXNumber(startX + scrollX) - 1;
 		if (elementNumber >= 0) {
-			List<Integer> widths = getLayoutInfo().getTableLayout(tableId).getViewLayout(getClass()).getWidths();
-			int newWidth = widths.get(elementNumber) + (endX - startX);
-			widths.set(elementNumber, newWidth);
+			layout.setWidth(elementNumber, layout.getWidth(elementNumber) + (endX - startX));
+		}
+	}
+
+	/**
+	 * Computes the region of the view in which a cell is drawn. Text that does not
+	 * fit in its column runs into the columns to its right, so the region extends to
+	 * the right edge of the view. It also includes the descenders of the text, which
+	 * reach into the next row.
+	 *
+	 * @param column The name of the column of the cell.
+	 * @param row    The index of the row of the cell.
+	 * @return The region of the cell, empty if the cell is scrolled out of view.
+	 */
+	public Rectangle getCellBounds(String column, int row) {
+		int offsetX = getLayoutInfo().getOffsetX();
+		int offsetY = getLayoutInfo().getOffsetY();
+		int columnIndex = getMgr().getColumnIndex(tableId, column);
+		if (columnIndex < 0 || columnIndex >= getLayout().getWidths().size()) {
+			return new Rectangle();
+		}
+		int left = Math.max(offsetX, getLayout().getElementStart(columnIndex) - scrollX);
+		int top = Math.max(offsetY, (row + 1) * offsetY - scrollY);
+		int bottom = (row + 2) * offsetY + offsetY / 2 - scrollY;
+		if (bottom <= top) {
+			return new Rectangle();
+		}
+		return new Rectangle(left, top, Short.MAX_VALUE, bottom - top);
+	}
+
+	/**
+	 * The rows view only shows the data of its table and depends on the column widths.
+	 *
+	 * @return A version that changes when the table or the layout of its columns changes.
+	 */
+	@Override
+	public long getContentVersion() {
+		return getMgr().getModificationCount(tableId) + getLayout().getVersion();
+	}
+
+	/**
+	 * @return The layout of the columns of the table in rows views, with the default
+	 * width for every column that has no width yet.
+	 */
+	private LayoutInfo.ViewLayout getLayout() {
+		LayoutInfo.ViewLayout layout = getLayoutInfo().getTableLayout(tableId).getViewLayout(getClass());
+		int nbColumns = getMgr().getNumberOfColumns(tableId);
+		while (layout.getWidths().size() < nbColumns) {
+			layout.addElement(DEFAULT_COLUMN_WIDTH);
 		}
+		return layout;
 	}
 }
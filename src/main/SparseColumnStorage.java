@@ -0,0 +1,514 @@
+package main;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+
+/**
+ * Column storage for columns that mostly hold one value, typically the default
+ * value rows are created with. Only the cells that differ from that fill value are
+ * stored, as a sorted array of row indices with a parallel array of values; every
+ * other row reads back as the fill value.
+ * <p>
+ * The storage of an integer or boolean column keeps its entries and the fill value
+ * as primitives, so the typed accessors neither parse nor format strings. A string
+ * is only made when a cell is read as one.
+ * <p>
+ * Once more than one in {@link #DENSITY_LIMIT} cells differs from the fill value,
+ * {@link #adapt()} converts the storage to the dense storage made by the supplied factory.
+ * <p>
+ * A frozen storage shares the entries of the storage it was frozen from; whichever
+ * storage is modified first while both hold the entries copies them.
+ */
+public class SparseColumnStorage extends ColumnStorage {
+
+	/**
+	 * The storage is converted to dense storage once more than one in this many cells is stored explicitly.
+	 */
+	public static final int DENSITY_LIMIT = 8;
+
+	/**
+	 * Number of rows below which the storage is never converted.
+	 */
+	public static final int MIN_DENSE_SIZE = 64;
+
+	private final boolean ints;
+	private final boolean bools;
+	private final String fill;
+	private final boolean fillBlank;
+	private final int fillValue;
+	private final UnaryOperator<String> normalizer;
+	private final Supplier<ColumnStorage> denseFactory;
+	private int[] rows;
+	private String[] values;
+	private int[] typedValues;
+	private int nbEntries;
+	private int size;
+	private AtomicInteger holders;
+
+	/**
+	 * Constructs an empty sparse storage that keeps its values as strings.
+	 *
+	 * @param fill         The value of every cell that is not stored explicitly.
+	 * @param normalizer   Turns an input into the string the dense storage would read back for it,
+	 *                     so that equal values are recognised as such (e.g. "007" and "7").
+	 * @param denseFactory Creates the empty storage the cells are moved to when the column becomes dense.
+	 */
+	public SparseColumnStorage(String fill, UnaryOperator<String> normalizer, Supplier<ColumnStorage> denseFactory) {
+		this("string", fill, normalizer, denseFactory);
+	}
+
+	/**
+	 * Constructs an empty sparse storage for a column of the given type. The values of
+	 * an integer or boolean column are kept as primitives.
+	 *
+	 * @param type         The type of the column.
+	 * @param fill         The value of every cell that is not stored explicitly.
+	 * @param normalizer   Turns an input into the string the dense storage would read back for it,
+	 *                     so that equal values are recognised as such (e.g. "007" and "7").
+	 * @param denseFactory Creates the empty storage the cells are moved to when the column becomes dense.
+	 */
+	public SparseColumnStorage(String type, String fill, UnaryOperator<String> normalizer,
+			Supplier<ColumnStorage> denseFactory) {
+		this.ints = type.equals("int");
+		this.bools = type.equals("bool");
+		this.normalizer = normalizer;
+		this.fillBlank = isBlankInput(fill);
+		this.fillValue = isTyped() && !fillBlank ? parse(fill) : 0;
+		this.fill = isTyped() && !fillBlank ? format(fillValue) : normalize(fill);
+		this.denseFactory = denseFactory;
+		this.rows = new int[8];
+		this.values = new String[8];
+		this.typedValues = new int[8];
+		this.nbEntries = 0;
+		this.size = 0;
+		this.holders = new AtomicInteger(1);
+	}
+
+	/**
+	 * Constructs a storage holding the same entries as the given storage.
+	 *
+	 * @param frozen The storage to share the entries of.
+	 */
+	private SparseColumnStorage(SparseColumnStorage frozen) {
+		this.ints = frozen.ints;
+		this.bools = frozen.bools;
+		this.normalizer = frozen.normalizer;
+		this.fillBlank = frozen.fillBlank;
+		this.fillValue = frozen.fillValue;
+		this.fill = frozen.fill;
+		this.denseFactory = frozen.denseFactory;
+		this.rows = frozen.rows;
+		this.values = frozen.values;
+		this.typedValues = frozen.typedValues;
+		this.nbEntries = frozen.nbEntries;
+		this.size = frozen.size;
+		this.holders = frozen.holders;
+		holders.incrementAndGet();
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	@Override
+	public void add(String value) {
+		insert(size, value);
+	}
+
+	@Override
+	public void insert(int index, String value) {
+		checkInsertIndex(index);
+		unshare();
+		if (isTyped() && !isBlankInput(value)) {
+			insertTyped(index, parse(value));
+			return;
+		}
+		String normalized = normalize(value);
+		int position = shiftFrom(index);
+		if (!normalized.equals(fill)) {
+			insertEntry(position, index, normalized, 0);
+		}
+	}
+
+	@Override
+	public void set(int index, String value) {
+		checkIndex(index);
+		unshare();
+		if (isTyped() && !isBlankInput(value)) {
+			setTyped(index, parse(value));
+			return;
+		}
+		String normalized = normalize(value);
+		int position = find(index);
+		if (position >= 0) {
+			if (normalized.equals(fill)) {
+				removeEntry(position);
+			} else {
+				values[position] = normalized;
+			}
+		} else if (!normalized.equals(fill)) {
+			insertEntry(-position - 1, index, normalized, 0);
+		}
+	}
+
+	@Override
+	public String get(int index) {
+		checkIndex(index);
+		int position = find(index);
+		if (position < 0) {
+			return fill;
+		}
+		String value = values[position];
+		return value != null ? value : format(typedValues[position]);
+	}
+
+	@Override
+	public boolean isBlank(int index) {
+		checkIndex(index);
+		int position = find(index);
+		if (position < 0) {
+			return fillBlank;
+		}
+		String value = values[position];
+		return value != null && value.isEmpty();
+	}
+
+	@Override
+	public void remove(int index) {
+		checkIndex(index);
+		unshare();
+		int position = find(index);
+		if (position >= 0) {
+			removeEntry(position);
+		} else {
+			position = -position - 1;
+		}
+		for (int e = position; e < nbEntries; e++) {
+			rows[e]--;
+		}
+		size--;
+	}
+
+	/**
+	 * Retrieves the value of an integer cell without parsing it.
+	 */
+	@Override
+	public int getInt(int index) {
+		if (!ints) {
+			return super.getInt(index);
+		}
+		return typedValue(index);
+	}
+
+	/**
+	 * Sets the value of an integer cell without formatting it.
+	 */
+	@Override
+	public void setInt(int index, int value) {
+		if (!ints) {
+			super.setInt(index, value);
+			return;
+		}
+		checkIndex(index);
+		setTyped(index, value);
+	}
+
+	/**
+	 * Appends an integer cell without formatting it.
+	 */
+	@Override
+	public void addInt(int value) {
+		if (!ints) {
+			super.addInt(value);
+			return;
+		}
+		insertTyped(size, value);
+	}
+
+	/**
+	 * Retrieves the value of a boolean cell without parsing it.
+	 */
+	@Override
+	public boolean getBoolean(int index) {
+		if (!bools) {
+			return super.getBoolean(index);
+		}
+		return typedValue(index) != 0;
+	}
+
+	/**
+	 * Sets the value of a boolean cell without formatting it.
+	 */
+	@Override
+	public void setBoolean(int index, boolean value) {
+		if (!bools) {
+			super.setBoolean(index, value);
+			return;
+		}
+		checkIndex(index);
+		setTyped(index, value ? 1 : 0);
+	}
+
+	/**
+	 * Appends a boolean cell without formatting it.
+	 */
+	@Override
+	public void addBoolean(boolean value) {
+		if (!bools) {
+			super.addBoolean(value);
+			return;
+		}
+		insertTyped(size, value ? 1 : 0);
+	}
+
+	/**
+	 * Counts the cells equal to the given value, treating all implicit cells at once.
+	 *
+	 * @param value The value to count, or an empty string to count blank cells.
+	 * @return The number of cells holding the value.
+	 */
+	@Override
+	public int countEqual(String value) {
+		String target = isBlankInput(value) ? "" : value;
+		if (isTyped() && !target.isEmpty()) {
+			Integer typed = parseCanonical(target);
+			return typed == null ? 0 : countTyped(typed);
+		}
+		int count = target.equals(fill) ? size - nbEntries : 0;
+		for (int e = 0; e < nbEntries; e++) {
+			if (target.equals(values[e])) {
+				count++;
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * Counts the true cells, treating all implicit cells at once.
+	 *
+	 * @return The number of true cells.
+	 */
+	@Override
+	public int countTrue() {
+		return bools ? countTyped(1) : countEqual("true");
+	}
+
+	/**
+	 * Converts the storage to dense storage once the explicitly stored cells exceed
+	 * one in {@link #DENSITY_LIMIT} rows of a column of at least {@link #MIN_DENSE_SIZE} rows.
+	 * The values of an integer or boolean column are copied as primitives.
+	 *
+	 * @return This storage, or a dense copy of it.
+	 */
+	@Override
+	public ColumnStorage adapt() {
+		if (size < MIN_DENSE_SIZE || nbEntries * DENSITY_LIMIT <= size) {
+			return this;
+		}
+		ColumnStorage dense = denseFactory.get();
+		int e = 0;
+		for (int i = 0; i < size; i++) {
+			if (e < nbEntries && rows[e] == i) {
+				addTo(dense, values[e], typedValues[e]);
+				e++;
+			} else {
+				addTo(dense, fillBlank || !isTyped() ? fill : null, fillValue);
+			}
+		}
+		return dense.adapt();
+	}
+
+	/**
+	 * Returns a storage sharing the entries of this storage, see the class description.
+	 *
+	 * @return The frozen storage.
+	 */
+	@Override
+	public ColumnStorage freeze() {
+		return new SparseColumnStorage(this);
+	}
+
+	/**
+	 * Drops the hold of this storage on its entries.
+	 */
+	@Override
+	public void close() {
+		holders.decrementAndGet();
+	}
+
+	/**
+	 * Returns the number of cells stored explicitly because they differ from the fill value.
+	 *
+	 * @return The number of explicit cells.
+	 */
+	public int getNumberOfEntries() {
+		return nbEntries;
+	}
+
+	/**
+	 * Copies the entries before they are modified if another storage holds them as well.
+	 */
+	private void unshare() {
+		if (holders.get() > 1) {
+			rows = rows.clone();
+			values = values.clone();
+			typedValues = typedValues.clone();
+			holders.decrementAndGet();
+			holders = new AtomicInteger(1);
+		}
+	}
+
+	private boolean isTyped() {
+		return ints || bools;
+	}
+
+	private String normalize(String value) {
+		return isBlankInput(value) ? "" : normalizer.apply(value);
+	}
+
+	/**
+	 * @param value A non-blank input of an integer or boolean column.
+	 * @return The primitive value, with 1 and 0 standing for true and false.
+	 * @throws NumberFormatException if an integer column is given something else than an integer
+	 */
+	private int parse(String value) {
+		return ints ? Integer.parseInt(value) : Boolean.parseBoolean(value) ? 1 : 0;
+	}
+
+	/**
+	 * @param value A non-blank string.
+	 * @return The primitive value the string is the canonical form of, or null if it is
+	 * not the way any cell reads back.
+	 */
+	private Integer parseCanonical(String value) {
+		if (bools) {
+			return value.equals("true") ? Integer.valueOf(1) : value.equals("false") ? Integer.valueOf(0) : null;
+		}
+		try {
+			int parsed = Integer.parseInt(value);
+			return Integer.toString(parsed).equals(value) ? parsed : null;
+		} catch (NumberFormatException e) {
+			return null;
+		}
+	}
+
+	private String format(int value) {
+		return ints ? Integer.toString(value) : Boolean.toString(value != 0);
+	}
+
+	/**
+	 * @return The primitive value of a cell, 0 if it is blank.
+	 */
+	private int typedValue(int index) {
+		checkIndex(index);
+		int position = find(index);
+		if (position < 0) {
+			return fillValue;
+		}
+		return values[position] == null ? typedValues[position] : 0;
+	}
+
+	private boolean isFill(int value) {
+		return !fillBlank && value == fillValue;
+	}
+
+	private void insertTyped(int index, int value) {
+		checkInsertIndex(index);
+		unshare();
+		int position = shiftFrom(index);
+		if (!isFill(value)) {
+			insertEntry(position, index, null, value);
+		}
+	}
+
+	private void setTyped(int index, int value) {
+		unshare();
+		int position = find(index);
+		if (position >= 0) {
+			if (isFill(value)) {
+				removeEntry(position);
+			} else {
+				values[position] = null;
+				typedValues[position] = value;
+			}
+		} else if (!isFill(value)) {
+			insertEntry(-position - 1, index, null, value);
+		}
+	}
+
+	private int countTyped(int value) {
+		int count = isFill(value) ? size - nbEntries : 0;
+		for (int e = 0; e < nbEntries; e++) {
+			if (values[e] == null && typedValues[e] == value) {
+				count++;
+			}
+		}
+		return count;
+	}
+
+	private void addTo(ColumnStorage dense, String value, int typedValue) {
+		if (value != null) {
+			dense.add(value);
+		} else if (ints) {
+			dense.addInt(typedValue);
+		} else {
+			dense.addBoolean(typedValue != 0);
+		}
+	}
+
+	/**
+	 * Makes room for a new row by moving the entries from the given row on one row down.
+	 *
+	 * @param index The index of the new row.
+	 * @return The position an entry for the new row goes to.
+	 */
+	private int shiftFrom(int index) {
+		int position = find(index);
+		if (position < 0) {
+			position = -position - 1;
+		}
+		for (int e = position; e < nbEntries; e++) {
+			rows[e]++;
+		}
+		size++;
+		return position;
+	}
+
+	/**
+	 * @param index A row index.
+	 * @return The position of the row's entry, or {@code -(insertion point) - 1} if it has none.
+	 */
+	private int find(int index) {
+		return Arrays.binarySearch(rows, 0, nbEntries, index);
+	}
+
+	/**
+	 * @param value      The string value of the entry, or null if the entry holds a primitive value.
+	 * @param typedValue The primitive value of the entry, ignored if it holds a string.
+	 */
+	private void insertEntry(int position, int index, String value, int typedValue) {
+		if (nbEntries == rows.length) {
+			rows = Arrays.copyOf(rows, rows.length * 2);
+			values = Arrays.copyOf(values, values.length * 2);
+			typedValues = Arrays.copyOf(typedValues, typedValues.length * 2);
+		}
+		System.arraycopy(rows, position, rows, position + 1, nbEntries - position);
+		System.arraycopy(values, position, values, position + 1, nbEntries - position);
+		System.arraycopy(typedValues, position, typedValues, position + 1, nbEntries - position);
+		rows[position] = index;
+		values[position] = value;
+		typedValues[position] = typedValue;
+		nbEntries++;
+	}
+
+	private void removeEntry(int position) {
+		System.arraycopy(rows, position + 1, rows, position, nbEntries - position - 1);
+		System.arraycopy(values, position + 1, values, position, nbEntries - position - 1);
+		System.arraycopy(typedValues, position + 1, typedValues, position, nbEntries - position - 1);
+		nbEntries--;
+		values[nbEntries] = null;
+	}
+}
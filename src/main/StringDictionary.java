@@ -0,0 +1,160 @@
+package main;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Maps the distinct strings of a column to small integer codes.
+ * <p>
+ * Every code carries a reference count of the cells using it. Codes whose count
+ * drops to zero are released and reused, so values that were only held briefly
+ * (e.g. while a cell is being typed) do not make the dictionary grow.
+ * <p>
+ * A column retires its dictionary once it no longer encodes cells in it, e.g. when
+ * its blocks have been frozen for a snapshot. A retired dictionary no longer changes,
+ * so the blocks holding its codes can be read and closed on any thread.
+ */
+public class StringDictionary {
+
+	private final List<String> values;
+	private final Map<String, Integer> codes;
+	private int[] refCounts;
+	private int[] freeCodes;
+	private int nbFreeCodes;
+	private int references;
+	private volatile boolean retired;
+
+	/**
+	 * Constructs an empty dictionary.
+	 */
+	public StringDictionary() {
+		this.values = new ArrayList<String>();
+		this.codes = new HashMap<String, Integer>();
+		this.refCounts = new int[16];
+		this.freeCodes = new int[16];
+		this.nbFreeCodes = 0;
+		this.references = 0;
+	}
+
+	/**
+	 * Returns the code of the given value and adds one reference to it, creating
+	 * a new code if the value is not in the dictionary yet.
+	 *
+	 * @param value The value to encode. Must be non-null.
+	 * @return The code of the value.
+	 */
+	public int acquire(String value) {
+		Integer code = codes.get(value);
+		if (code == null) {
+			code = newCode(value);
+		}
+		refCounts[code]++;
+		references++;
+		return code;
+	}
+
+	/**
+	 * Removes one reference to the given code, releasing the code when it is no longer used.
+	 *
+	 * @param code The code to release.
+	 */
+	public void release(int code) {
+		if (retired) {
+			return;
+		}
+		references--;
+		if (--refCounts[code] == 0) {
+			codes.remove(values.get(code));
+			values.set(code, null);
+			if (nbFreeCodes == freeCodes.length) {
+				freeCodes = Arrays.copyOf(freeCodes, freeCodes.length * 2);
+			}
+			freeCodes[nbFreeCodes++] = code;
+		}
+	}
+
+	/**
+	 * Retrieves the code of the given value without adding a reference.
+	 *
+	 * @param value The value to look up.
+	 * @return The code of the value, or -1 if the value is not in the dictionary.
+	 */
+	public int codeOf(String value) {
+		Integer code = codes.get(value);
+		return code == null ? -1 : code;
+	}
+
+	/**
+	 * Retrieves the value encoded by the given code.
+	 *
+	 * @param code A code in use.
+	 * @return The value of the code.
+	 */
+	public String valueOf(int code) {
+		return values.get(code);
+	}
+
+	/**
+	 * Retrieves the number of cells that use the given code.
+	 *
+	 * @param code A code returned by this dictionary.
+	 * @return The number of references to the code.
+	 */
+	public int count(int code) {
+		return refCounts[code];
+	}
+
+	/**
+	 * Returns the number of distinct values currently in use.
+	 *
+	 * @return The cardinality of the dictionary.
+	 */
+	public int size() {
+		return codes.size();
+	}
+
+	/**
+	 * Returns the number of cells that use any code of the dictionary.
+	 *
+	 * @return The total number of references.
+	 */
+	public int references() {
+		return references;
+	}
+
+	/**
+	 * Stops the dictionary from changing: codes are no longer released, so that every
+	 * code keeps its value. No new values must be encoded afterwards.
+	 */
+	public void retire() {
+		retired = true;
+	}
+
+	/**
+	 * Determines whether the dictionary has been retired.
+	 *
+	 * @return {@code true} if {@link #retire()} has been called.
+	 */
+	public boolean isRetired() {
+		return retired;
+	}
+
+	private int newCode(String value) {
+		int code;
+		if (nbFreeCodes > 0) {
+			code = freeCodes[--nbFreeCodes];
+			values.set(code, value);
+		} else {
+			code = values.size();
+			values.add(value);
+			if (code == refCounts.length) {
+				refCounts = Arrays.copyOf(refCounts, refCounts.length * 2);
+			}
+		}
+		codes.put(value, code);
+		return code;
+	}
+}
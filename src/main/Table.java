@@ -3,6 +3,7 @@ package main;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
@@ -13,6 +14,9 @@ public class Table {
 	private final UUID id;
 	private String name;
 	private List<Column> columns;
+	private Map<String, Column> columnsByName;
+	private Map<String, Integer> columnPositions;
+	private OffHeapMemory memory;
 
 	/**
 	 * Constructs a new Table with the specified name.
@@ -20,16 +24,30 @@ public class Table {
 	 * @param name The name of the table.
 	 */
 	public Table(String name) {
+		this(UUID.randomUUID(), name);
+	}
+
+	/**
+	 * Constructs a new Table with the specified identifier and name, such as a
+	 * table read back from a file.
+	 *
+	 * @param id   The unique identifier of the table.
+	 * @param name The name of the table.
+	 */
+	public Table(UUID id, String name) {
 		this.setName(name);
 		columns = new ArrayList<Column>();
-		this.id = UUID.randomUUID();
+		columnsByName = new HashMap<String, Column>();
+		columnPositions = new HashMap<String, Integer>();
+		this.id = id;
 	}
 
 	/**
 	 * Adds a new column to the table. The column is assigned a unique name,
 	 * initialized with a default value, and configured to allow blank values.
-	 * If the table already contains columns with cells, the new column is
-	 * populated with the same number of cells, each initialized with the default value.
+	 * If the table already contains columns with more cells than the new column, the
+	 * new column is populated up to the same number of cells, each initialized with
+	 * the default value.
 	 *
 	 * @param column The column to be added to the table.
 	 *               Throws:
@@ -37,11 +55,15 @@ public class Table {
 	 */
 	public void addColumn(Column column) {
 		try {
+			if (memory != null) {
+				column.moveOffHeap(memory);
+			}
+			int rows = columns.isEmpty() ? 0 : columns.getFirst().getSize();
 			columns.add(column);
-			if (columns.getFirst().getSize() > 0) {
-				for (int i = 0; i < columns.getFirst().getSize(); i++) {
-					column.addCell();
-				}
+			columnsByName.putIfAbsent(column.getName(), column);
+			columnPositions.putIfAbsent(column.getName(), columns.size() - 1);
+			while (column.getSize() < rows) {
+				column.addCell();
 			}
 		} catch (Exception e) {
 			// TODO Auto-generated catch block
@@ -69,13 +91,10 @@ public class Table {
 	 *                and unique among all column names in the table.
 	 */
 	public void renameColumn(String name, String newName) {
-		for (Column col : columns) {
-			if (col.getName().equals(name)) {
-				if (newName != null && !this.getColumnNames().contains(newName)) {
-					col.setName(newName);
-					return;
-				}
-			}
+		Column col = findColumn(name);
+		if (col != null && newName != null && !columnsByName.containsKey(newName)) {
+			col.setName(newName);
+			reindexColumns();
 		}
 	}
 
@@ -87,9 +106,12 @@ public class Table {
 	 * @throws IllegalArgumentException if no column with the specified name is found.
 	 */
 	public void changeColumn(String name, Column newColumn) {
-		Column col = findColumn(name);
-		int index = columns.indexOf(col);
+		int index = getColumnIndex(name);
+		if (memory != null) {
+			newColumn.moveOffHeap(memory);
+		}
 		columns.set(index, newColumn);
+		reindexColumns();
 	}
 
 	/**
@@ -206,6 +228,34 @@ public class Table {
 		return columnsInfo;
 	}
 
+	/**
+	 * Retrieves information about the column at the specified position.
+	 *
+	 * @param index The zero-based position of the column.
+	 * @return A string with the column's name, type, whether it allows blank values, and the default value.
+	 */
+	public String getColumnInfo(int index) {
+		return columns.get(index).getInfo();
+	}
+
+	/**
+	 * Retrieves the column at the specified position.
+	 *
+	 * @param index The position of the column in the table.
+	 * @return The column at the position.
+	 * @throws IndexOutOfBoundsException if the index is out of range
+	 */
+	public Column getColumn(int index) {
+		return columns.get(index);
+	}
+
+	/**
+	 * @return The number of columns in the table.
+	 */
+	public int getNumberOfColumns() {
+		return columns.size();
+	}
+
 	/**
 	 * @return A list of all column names.
 	 */
@@ -219,7 +269,9 @@ public class Table {
 	 * @param colName The name of the column to be removed. It must match the name of an existing column in the table.
 	 */
 	public void removeColumn(String colName) {
-		columns.removeIf(t -> t.getName().equals(colName));
+		if (columns.removeIf(t -> t.getName().equals(colName))) {
+			reindexColumns();
+		}
 	}
 
 	/**
@@ -229,7 +281,7 @@ public class Table {
 	 */
 	private String generateUniqueName() {
 		int n = 0;
-		while (getColumnNames().contains("Column" + n)) {
+		while (columnsByName.containsKey("Column" + n)) {
 			n++;
 		}
 		return "Column" + n;
@@ -245,6 +297,16 @@ public class Table {
 		return columns.stream().map(Column::getColumn).toList();
 	}
 
+	/**
+	 * Retrieves read-only views on all columns of the table, in column order.
+	 * Unlike {@link #getColumns()}, no cell is copied.
+	 *
+	 * @return A list with a {@code ColumnReader} for each column.
+	 */
+	public List<ColumnReader> getColumnReaders() {
+		return columns.stream().map(Column::reader).toList();
+	}
+
 	/**
 	 * Updates the cell value in the specified column and row within the table.
 	 *
@@ -274,6 +336,61 @@ public class Table {
 		return col.getCell(rowIndex);
 	}
 
+	/**
+	 * Retrieves the value of an integer cell without converting it to a string.
+	 *
+	 * @param nameColumn The name of the column containing the desired cell.
+	 * @param rowIndex   The zero-based index of the row containing the desired cell.
+	 * @return The value of the cell, or 0 if the cell is blank.
+	 */
+	public int getInt(String nameColumn, int rowIndex) {
+		return findColumn(nameColumn).getInt(rowIndex);
+	}
+
+	/**
+	 * Retrieves the value of a boolean cell without converting it to a string.
+	 *
+	 * @param nameColumn The name of the column containing the desired cell.
+	 * @param rowIndex   The zero-based index of the row containing the desired cell.
+	 * @return The value of the cell, or {@code false} if the cell is blank.
+	 */
+	public boolean getBoolean(String nameColumn, int rowIndex) {
+		return findColumn(nameColumn).getBoolean(rowIndex);
+	}
+
+	/**
+	 * Determines whether a cell of the table is blank.
+	 *
+	 * @param nameColumn The name of the column containing the desired cell.
+	 * @param rowIndex   The zero-based index of the row containing the desired cell.
+	 * @return {@code true} if the cell holds no value.
+	 */
+	public boolean isBlank(String nameColumn, int rowIndex) {
+		return findColumn(nameColumn).isBlank(rowIndex);
+	}
+
+	/**
+	 * Updates a cell of an integer column without parsing a string.
+	 *
+	 * @param nameColumn The name of the integer column containing the cell to update.
+	 * @param rowIndex   The zero-based index of the row containing the cell to update.
+	 * @param value      The new value of the cell.
+	 */
+	public void setInt(String nameColumn, int rowIndex, int value) {
+		findColumn(nameColumn).setInt(rowIndex, value);
+	}
+
+	/**
+	 * Updates a cell of a boolean column without parsing a string.
+	 *
+	 * @param nameColumn The name of the boolean column containing the cell to update.
+	 * @param rowIndex   The zero-based index of the row containing the cell to update.
+	 * @param value      The new value of the cell.
+	 */
+	public void setBoolean(String nameColumn, int rowIndex, boolean value) {
+		findColumn(nameColumn).setBoolean(rowIndex, value);
+	}
+
 	/**
 	 * Toggles the allowance of blank (null or empty) values for the specified column in the table.
 	 *
@@ -326,12 +443,32 @@ public class Table {
 	 * @return The column with the specified name, or null if no column with the given name exists.
 	 */
 	public Column findColumn(String columnName) {
-		for (Column col : columns) {
-			if (col.getName().equals(columnName)) {
-				return col;
-			}
+		return columnsByName.get(columnName);
+	}
+
+	/**
+	 * Retrieves the position of a column in the table based on the specified column name.
+	 *
+	 * @param columnName The name of the column to find.
+	 * @return The zero-based position of the column, or -1 if no column with the given name exists.
+	 */
+	public int getColumnIndex(String columnName) {
+		Integer position = columnPositions.get(columnName);
+		return position == null ? -1 : position;
+	}
+
+	/**
+	 * Rebuilds the name index of the columns after columns have been renamed, replaced or removed.
+	 * Should several columns share a name, the index refers to the first of them.
+	 */
+	private void reindexColumns() {
+		columnsByName.clear();
+		columnPositions.clear();
+		for (int i = 0; i < columns.size(); i++) {
+			Column col = columns.get(i);
+			columnsByName.putIfAbsent(col.getName(), col);
+			columnPositions.putIfAbsent(col.getName(), i);
 		}
-		return null;
 	}
 
 	/**
@@ -361,6 +498,74 @@ public class Table {
 		col.setDefaultValue(value);
 	}
 
+	/**
+	 * Creates a read-only snapshot of the table with the same identifier, name and
+	 * columns, which does not change when the table does. The snapshot shares the
+	 * cells of the table, see {@link Column#snapshot()}, and the off-heap memory they
+	 * are stored in, so it takes time proportional to the number of columns and blocks
+	 * rather than cells.
+	 *
+	 * @return The snapshot of the table. It must be closed once it is no longer read.
+	 */
+	public Table snapshot() {
+		Table snapshot = new Table(id, name);
+		for (Column col : columns) {
+			snapshot.addColumn(col.snapshot());
+		}
+		if (memory != null) {
+			memory.retain();
+			snapshot.memory = memory;
+		}
+		return snapshot;
+	}
+
+	/**
+	 * Moves the data of all columns of the table into off-heap memory owned by the table.
+	 * Columns added afterwards are stored off-heap as well. Does nothing if the table
+	 * is already stored off-heap.
+	 */
+	public void moveOffHeap() {
+		if (memory != null) {
+			return;
+		}
+		memory = new OffHeapMemory();
+		for (Column col : columns) {
+			col.moveOffHeap(memory);
+		}
+	}
+
+	/**
+	 * Determines whether the data of the table is stored off-heap.
+	 *
+	 * @return {@code true} if the table has been moved off-heap.
+	 */
+	public boolean isOffHeap() {
+		return memory != null;
+	}
+
+	/**
+	 * Retrieves the number of bytes of off-heap memory held by the table.
+	 *
+	 * @return The allocated off-heap size in bytes, or 0 if the table is stored on the heap.
+	 */
+	public long getOffHeapBytes() {
+		return memory == null ? 0 : memory.getReservedBytes();
+	}
+
+	/**
+	 * Releases the storage of the columns and the off-heap memory of the table. The
+	 * table must no longer be used once it has been closed. Memory that a snapshot of
+	 * the table still reads is released when the snapshot is closed.
+	 */
+	public void close() {
+		for (Column col : columns) {
+			col.close();
+		}
+		if (memory != null) {
+			memory.close();
+		}
+	}
+
 	/**
 	 * Retrieves the unique identifier of the table.
 	 *
@@ -1,23 +1,55 @@
 package main;
 
 //import javax.swing.*;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
 
 /**
  * TablrApp is the main entry point for the Tablr application.
  * It initializes the application components.
  */
 public class TablrApp {
+	private static final long DEFAULT_CHECKPOINT_LOG_SIZE = 16 << 20;
+	private static final long DEFAULT_CHECKPOINT_INTERVAL = 300;
+
 	/**
 	 * The main method serves as the entry point for the Tablr application.
 	 *
+	 * Frames are rendered on a background thread if the system property
+	 * {@code tablr.backgroundRendering} is set to {@code true}.
+	 *
+	 * If the system property {@code tablr.workspace} names a directory, the tables
+	 * are restored from the snapshot and command log in that directory, and every
+	 * edit is logged there. A new snapshot is taken once the log grows beyond
+	 * {@code tablr.checkpointLogSize} bytes, or {@code tablr.checkpointInterval}
+	 * seconds after the last one if anything changed.
+	 *
 	 * @param args execution arguments. not used.
+	 * @throws IOException if the workspace cannot be restored
 	 */
-	public static void main(String[] args) {
-		ViewManager viewManager = new ViewManager();
+	public static void main(String[] args) throws IOException {
+		TablrManager tablrManager = new TablrManager();
+		String workspace = System.getProperty("tablr.workspace");
+		if (workspace != null) {
+			Checkpointer checkpointer = new Checkpointer(tablrManager, Path.of(workspace),
+					Long.getLong("tablr.checkpointLogSize", DEFAULT_CHECKPOINT_LOG_SIZE),
+					Duration.ofSeconds(Long.getLong("tablr.checkpointInterval", DEFAULT_CHECKPOINT_INTERVAL)));
+			checkpointer.start();
+			Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+				try {
+					checkpointer.close();
+				} catch (IOException e) {
+					e.printStackTrace();
+				}
+			}));
+		}
+		ViewManager viewManager = new ViewManager(tablrManager);
 
 		java.awt.EventQueue.invokeLater(() -> {
 			MyCanvasWindow window = new MyCanvasWindow("My Canvas Window", viewManager);
 			window.show();
+			window.setBackgroundRendering(Boolean.getBoolean("tablr.backgroundRendering"));
 		});
 	}
 }
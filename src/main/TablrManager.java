@@ -1,10 +1,18 @@
 package main;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
-import java.util.stream.Collectors;
 
 //Manage tables and their contents
 
@@ -14,9 +22,24 @@ import java.util.stream.Collectors;
  * and rows.
  */
 public class TablrManager {
-	private List<Table> tables;
+
+	/**
+	 * The number of commands that can be undone unless {@link #setUndoLimit(int)}
+	 * is called. Older commands are discarded, which releases the memory of tables
+	 * and columns they removed.
+	 */
+	public static final int DEFAULT_UNDO_LIMIT = 1000;
+
+	private Map<UUID, Table> tables;
+	private List<UUID> tableIds;
+	private List<String> tableNames;
 	private ArrayList<Command> undoStack = new ArrayList<>();
 	private int nbCommandsUndone;
+	private int undoLimit = DEFAULT_UNDO_LIMIT;
+	private long modificationCount;
+	private Map<UUID, Long> tableModificationCounts = new HashMap<>();
+	private volatile CommandLog log;
+	private final Object stateLock = new Object();
 
 	/**
 	 * Undoes the most recently executed command, if any commands remain to be undone.
@@ -31,8 +54,37 @@ public class TablrManager {
 	 * Redoes the most recently undone command if there are commands available to redo.
 	 */
 	public void redo() {
-		if (nbCommandsUndone > 0)
+		if (nbCommandsUndone > 0) {
 			undoStack.get(undoStack.size() - nbCommandsUndone--).execute();
+		}
+	}
+
+	/**
+	 * Executes the given command on a table. Executing, undoing and redoing the
+	 * command count as modifications of the table, and append the record of their
+	 * effect to the command log.
+	 *
+	 * @param record  The record describing the effect of executing the command.
+	 * @param inverse The record describing the effect of undoing the command.
+	 * @param tableId The UUID of the table the command modifies.
+	 * @param command The command to be executed.
+	 */
+	private void execute(CommandRecord record, CommandRecord inverse, UUID tableId, Command command) {
+		execute(target -> record, target -> inverse, tableId, command);
+	}
+
+	/**
+	 * Executes the given command on a table, like
+	 * {@link #execute(CommandRecord, CommandRecord, UUID, Command)}, with records
+	 * that are only made once the log they go to is known.
+	 *
+	 * @param record  Describes the effect of executing the command.
+	 * @param inverse Describes the effect of undoing the command.
+	 * @param tableId The UUID of the table the command modifies.
+	 * @param command The command to be executed.
+	 */
+	private void execute(RecordSource record, RecordSource inverse, UUID tableId, Command command) {
+		execute(new TableCommand(tableId, record, inverse, command));
 	}
 
 	/**
@@ -45,17 +97,197 @@ public class TablrManager {
 	private void execute(Command command) {
 		//clearPreviousUndoneCommands()
 		for (; nbCommandsUndone > 0; nbCommandsUndone--) {
-			undoStack.remove(undoStack.size() - 1);
+			undoStack.remove(undoStack.size() - 1).discard();
 		}
 		undoStack.add(command);
 		command.execute();
+		trimUndoStack();
+	}
+
+	/**
+	 * Retrieves the number of modifications made to any table so far. The count
+	 * increases whenever a command is executed, undone or redone, so views can tell
+	 * whether what they painted before is still up to date.
+	 *
+	 * @return The number of modifications made through this manager.
+	 */
+	public long getModificationCount() {
+		return modificationCount;
+	}
+
+	/**
+	 * Retrieves the number of modifications made to the specified table so far,
+	 * including its creation and removal.
+	 *
+	 * @param tableId The UUID of the table.
+	 * @return The number of modifications of the table, 0 if it has never been modified.
+	 */
+	public long getModificationCount(UUID tableId) {
+		return tableModificationCounts.getOrDefault(tableId, 0L);
+	}
+
+	/**
+	 * Records a modification of the specified table.
+	 *
+	 * @param tableId The UUID of the modified table.
+	 */
+	private void modified(UUID tableId) {
+		modificationCount++;
+		tableModificationCounts.merge(tableId, 1L, Long::sum);
+	}
+
+	/**
+	 * Makes the record of a modification for the command log it is appended to. A
+	 * record that puts back a whole table or column writes it next to the log first.
+	 */
+	private interface RecordSource {
+		CommandRecord describe(CommandLog log) throws IOException;
+	}
+
+	/**
+	 * A command on a single table that records a modification of the table whenever
+	 * it is executed or undone, and logs the record of what it did. Undoing is logged
+	 * as the inverse modification rather than as an undo, so the log can be replayed
+	 * without the undo history, for instance onto a snapshot taken after the command.
+	 * The tables are locked while the command changes them, so that a snapshot never
+	 * sees a command half done or misses a logged command.
+	 * <p>
+	 * The record is made before the tables are locked, since it may have to write a
+	 * table next to the log; if the log is switched to a new file in the meantime, it
+	 * is made again for the new file. If the record cannot be made, the command is
+	 * not applied.
+	 * <p>
+	 * Executing or undoing the command returns only once its record is on disk, so
+	 * a modification the user has seen is not lost in a crash. The lock is released
+	 * before waiting, and the log forces the records of concurrent commands to disk
+	 * together.
+	 */
+	private class TableCommand implements Command {
+		private final UUID tableId;
+		private final RecordSource record;
+		private final RecordSource inverse;
+		private final Command command;
+
+		TableCommand(UUID tableId, RecordSource record, RecordSource inverse, Command command) {
+			this.tableId = tableId;
+			this.record = record;
+			this.inverse = inverse;
+			this.command = command;
+		}
+
+		@Override
+		public void execute() {
+			apply(command::execute, record);
+		}
+
+		@Override
+		public void undo() {
+			apply(command::undo, inverse);
+		}
+
+		@Override
+		public void discard() {
+			command.discard();
+		}
+
+		private void apply(Runnable change, RecordSource source) {
+			CommandLog current;
+			while (true) {
+				current = log;
+				CommandRecord described = describe(source, current);
+				synchronized (stateLock) {
+					if (log == current) {
+						change.run();
+						modified(tableId);
+						if (current != null) {
+							log(current, described);
+						}
+						break;
+					}
+				}
+			}
+			if (current != null) {
+				try {
+					current.sync();
+				} catch (IOException e) {
+					throw new UncheckedIOException(e);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Makes the record of a modification for the given log.
+	 *
+	 * @param source The source of the record.
+	 * @param target The log the record goes to, or null if commands are not being logged.
+	 * @return The record, or null if commands are not being logged.
+	 * @throws UncheckedIOException if the record refers to a file that cannot be written
+	 */
+	private static CommandRecord describe(RecordSource source, CommandLog target) {
+		if (target == null) {
+			return null;
+		}
+		try {
+			return source.describe(target);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/**
+	 * Appends a record to the command log.
+	 *
+	 * @param target The current command log.
+	 * @param record The record describing a modification.
+	 */
+	private void log(CommandLog target, CommandRecord record) {
+		target.append(record);
+	}
+
+	/**
+	 * Writes a removed column next to the log, as the only column of a table.
+	 *
+	 * @param target  The command log.
+	 * @param tableId The UUID of the table the column belonged to.
+	 * @param column  The removed column.
+	 * @return The file holding the column.
+	 * @throws IOException if the file cannot be written
+	 */
+	private static Path writeColumn(CommandLog target, UUID tableId, Column column) throws IOException {
+		Table holder = new Table(tableId, "");
+		holder.addColumn(column);
+		return target.writeTables(List.of(holder));
+	}
+
+	/**
+	 * Limits the number of commands kept for undo. The oldest commands are discarded
+	 * once the limit is exceeded.
+	 *
+	 * @param limit The maximum number of commands that can be undone. Must be positive.
+	 */
+	public void setUndoLimit(int limit) {
+		if (limit <= 0) {
+			throw new IllegalArgumentException("Undo limit must be positive");
+		}
+		this.undoLimit = limit;
+		trimUndoStack();
+	}
+
+	/**
+	 * Discards the oldest commands until the undo stack respects the undo limit.
+	 */
+	private void trimUndoStack() {
+		while (undoStack.size() - nbCommandsUndone > undoLimit) {
+			undoStack.remove(0).discard();
+		}
 	}
 
 	/**
 	 * Constructs a new instance of the TablrManager class.
 	 */
 	public TablrManager() {
-		this.tables = new ArrayList<Table>();
+		this.tables = new LinkedHashMap<UUID, Table>();
 	}
 
 	/**
@@ -64,18 +296,39 @@ public class TablrManager {
 	 * @return the UUID of the newly created table.
 	 */
 	public UUID addTable() {
-		String uniqueName = generateUniqueName();
-		Table newTable = new Table(uniqueName);
-		UUID uuid = newTable.getId();
-		execute(new Command() {
+		return addTable(UUID.randomUUID(), generateUniqueName());
+	}
+
+	/**
+	 * Adds a table with the given id and name. Replaying the command log uses this to
+	 * create tables under the ids later records refer to.
+	 *
+	 * @param uuid The UUID of the new table.
+	 * @param name The name of the new table.
+	 * @return the UUID of the newly created table.
+	 * @throws IllegalArgumentException if a table with the UUID already exists
+	 */
+	UUID addTable(UUID uuid, String name) {
+		if (tables.containsKey(uuid)) {
+			throw new IllegalArgumentException("Table already exists");
+		}
+		Table newTable = new Table(uuid, name);
+		execute(new CommandRecord.AddTable(uuid, name), new CommandRecord.RemoveTable(uuid), uuid, new Command() {
 			@Override
 			public void execute() {
-				tables.add(newTable);
+				putTable(newTable);
 			}
 
 			@Override
 			public void undo() {
-				tables.remove(newTable);
+				removeFromTables(newTable);
+			}
+
+			@Override
+			public void discard() {
+				if (tables.get(newTable.getId()) != newTable) {
+					newTable.close();
+				}
 			}
 
 		});
@@ -90,39 +343,325 @@ public class TablrManager {
 	 */
 	public void removeTable(UUID tableId) {
 		Table table = findTable(tableId);
-		execute(new Command() {
+		execute(target -> new CommandRecord.RemoveTable(tableId),
+				target -> new CommandRecord.RestoreTable(tableId, target.writeTables(List.of(table))), tableId, new Command() {
 
 			@Override
 			public void execute() {
-				tables.remove(table);
+				removeFromTables(table);
 
 			}
 
 			@Override
 			public void undo() {
-				tables.add(table);
+				putTable(table);
+
+			}
 
+			@Override
+			public void discard() {
+				if (tables.get(table.getId()) != table) {
+					table.close();
+				}
 			}
 
 		});
 	}
 
+	/**
+	 * Puts back a table with its columns and cells, as undoing its removal does.
+	 * Replaying the command log uses this to repeat such an undo, and importing a
+	 * CSV file uses it to add the imported table.
+	 *
+	 * @param table The table to put back.
+	 * @throws IllegalArgumentException if a table with the same UUID already exists
+	 */
+	void restoreTable(Table table) {
+		if (tables.containsKey(table.getId())) {
+			throw new IllegalArgumentException("Table already exists");
+		}
+		execute(target -> new CommandRecord.RestoreTable(table.getId(), target.writeTables(List.of(table))),
+				target -> new CommandRecord.RemoveTable(table.getId()), table.getId(), new Command() {
+
+					@Override
+					public void execute() {
+						putTable(table);
+					}
+
+					@Override
+					public void undo() {
+						removeFromTables(table);
+					}
+
+					@Override
+					public void discard() {
+						if (tables.get(table.getId()) != table) {
+							table.close();
+						}
+					}
+
+				});
+	}
+
+	/**
+	 * Moves the data of the specified table into off-heap memory owned by the table.
+	 * The memory is released once the table has been removed and its removal can no
+	 * longer be undone.
+	 *
+	 * @param tableId The UUID of the table to move off-heap.
+	 */
+	public void moveTableOffHeap(UUID tableId) {
+		Table t = findTable(tableId);
+		synchronized (stateLock) {
+			t.moveOffHeap();
+		}
+	}
+
+	/**
+	 * Saves all tables to a workspace file, see {@link WorkspaceFile}.
+	 *
+	 * @param path The file to write.
+	 * @throws IOException if the file cannot be written
+	 */
+	public void save(Path path) throws IOException {
+		WorkspaceFile.write(path, tables.values());
+	}
+
+	/**
+	 * Replaces all tables by the tables stored in a workspace file. Loading cannot be
+	 * undone and discards the commands executed before. If the file cannot be read,
+	 * the tables are left unchanged.
+	 *
+	 * @param path The file to read.
+	 * @throws IOException           if the file cannot be read or is not a valid workspace file
+	 * @throws IllegalStateException if commands are being logged
+	 */
+	public void load(Path path) throws IOException {
+		checkNotLogging();
+		replaceTables(WorkspaceFile.read(path));
+	}
+
+	/**
+	 * Replaces all tables by the tables stored in a workspace file, like
+	 * {@link #load(Path)}, but only reads the metadata of the tables. Their cells
+	 * are read from the memory-mapped file when they are first accessed, see
+	 * {@link WorkspaceFile#open(Path)}.
+	 *
+	 * @param path The file to open.
+	 * @throws IOException           if the file cannot be read or is not a valid workspace file
+	 * @throws IllegalStateException if commands are being logged
+	 */
+	public void open(Path path) throws IOException {
+		checkNotLogging();
+		replaceTables(WorkspaceFile.open(path));
+	}
+
+	/**
+	 * Imports a CSV file as a new table, see {@link CsvImporter}. The table is named
+	 * after the file, unless a table with that name already exists. The cells are
+	 * added in bulk instead of row by row, so the whole import is undone at once.
+	 * The new table is logged like a restored table, in a file next to the log, so
+	 * the log does not depend on the imported file.
+	 *
+	 * @param path The file to import.
+	 * @return the UUID of the new table.
+	 * @throws IOException if the file cannot be read
+	 */
+	public UUID importCsv(Path path) throws IOException {
+		String name = path.getFileName().toString();
+		if (name.contains(".")) {
+			name = name.substring(0, name.lastIndexOf('.'));
+		}
+		if (name.isEmpty() || getTableNames().contains(name)) {
+			name = generateUniqueName();
+		}
+		Table table = CsvImporter.read(path, name);
+		restoreTable(table);
+		return table.getId();
+	}
+
+	/**
+	 * Restores the workspace after the application stopped: opens the snapshot, if it
+	 * exists, like {@link #open(Path)} does, and replays the commands logged since the
+	 * snapshot was saved. From then
+	 * on, every command that is executed, undone or redone is appended to the log, so
+	 * the workspace can be restored again without saving it after every edit.
+	 * The replayed modifications can be undone one by one.
+	 *
+	 * @param snapshot The workspace file saved last, see {@link #save(Path)}.
+	 * @param logFile  The command log written since the snapshot was saved.
+	 * @throws IOException if the snapshot or the log cannot be read, or a logged
+	 *                     command cannot be replayed
+	 * @throws IllegalStateException if commands are already being logged
+	 */
+	public void recover(Path snapshot, Path logFile) throws IOException {
+		recover(snapshot, List.of(logFile), logFile);
+	}
+
+	/**
+	 * Restores the workspace from a snapshot and the command logs written since, like
+	 * {@link #recover(Path, Path)}, and continues logging to the given file.
+	 *
+	 * @param snapshot The workspace file saved last; ignored if it does not exist.
+	 * @param logFiles The command logs written since the snapshot was saved, in order.
+	 * @param logFile  The command log to append new commands to.
+	 * @throws IOException if the snapshot or a log cannot be read, or a logged
+	 *                     command cannot be replayed
+	 * @throws IllegalStateException if commands are already being logged
+	 */
+	public void recover(Path snapshot, List<Path> logFiles, Path logFile) throws IOException {
+		checkNotLogging();
+		replaceTables(Files.exists(snapshot) ? WorkspaceFile.open(snapshot) : List.of());
+		for (Path file : logFiles) {
+			for (CommandRecord record : CommandLog.read(file)) {
+				try {
+					record.apply(this);
+				} catch (RuntimeException e) {
+					throw new IOException("Cannot replay " + record + " from " + file, e);
+				}
+			}
+		}
+		log = new CommandLog(logFile);
+	}
+
+	/**
+	 * Takes snapshots of all tables and continues logging commands to a new file, as
+	 * one step: the snapshots hold exactly the modifications logged to the previous
+	 * files. A snapshot shares the cells of its table instead of copying them, see
+	 * {@link Table#snapshot()}, so the tables are only locked for a time proportional
+	 * to the number of blocks, and the snapshots can be saved while the tables are
+	 * being edited. The previous log file is written to disk and closed before this
+	 * method returns.
+	 *
+	 * @param nextLogFile The file to log commands to from now on.
+	 * @return Snapshots of all tables, in order. They must be closed once they have been saved.
+	 * @throws IOException           if the new log cannot be opened or the previous one
+	 *                               cannot be written
+	 * @throws IllegalStateException if commands are not being logged
+	 */
+	public List<Table> checkpoint(Path nextLogFile) throws IOException {
+		CommandLog previous;
+		List<Table> snapshots = new ArrayList<>();
+		CommandLog next = new CommandLog(nextLogFile);
+		synchronized (stateLock) {
+			previous = log;
+			if (previous == null) {
+				next.close();
+				throw new IllegalStateException("Commands are not being logged");
+			}
+			for (Table table : tables.values()) {
+				snapshots.add(table.snapshot());
+			}
+			log = next;
+		}
+		previous.close();
+		return snapshots;
+	}
+
+	/**
+	 * Retrieves the number of bytes in the current command log file.
+	 *
+	 * @return The size of the log file including the commands that are not written yet,
+	 * 0 if commands are not being logged.
+	 */
+	public long getLogSize() {
+		CommandLog current = log;
+		return current == null ? 0 : current.size();
+	}
+
+	/**
+	 * Waits until all commands logged so far have been written to disk.
+	 * Does nothing if commands are not being logged.
+	 *
+	 * @throws IOException if the commands cannot be written
+	 */
+	public void syncLog() throws IOException {
+		CommandLog current = log;
+		if (current != null) {
+			current.sync();
+		}
+	}
+
+	/**
+	 * Writes the remaining logged commands to disk and stops logging commands.
+	 * Does nothing if commands are not being logged.
+	 *
+	 * @throws IOException if the commands cannot be written
+	 */
+	public void closeLog() throws IOException {
+		CommandLog closing;
+		synchronized (stateLock) {
+			closing = log;
+			log = null;
+		}
+		if (closing != null) {
+			closing.close();
+		}
+	}
+
+	/**
+	 * Replacing the tables is not a logged command, so it must not happen while
+	 * commands are being logged.
+	 */
+	private void checkNotLogging() {
+		if (log != null) {
+			throw new IllegalStateException("Commands are being logged");
+		}
+	}
+
+	/**
+	 * Replaces all tables, discarding the commands executed before.
+	 *
+	 * @param loaded The new tables.
+	 */
+	private void replaceTables(List<Table> loaded) {
+		synchronized (stateLock) {
+			for (Command command : undoStack) {
+				command.discard();
+			}
+			undoStack.clear();
+			nbCommandsUndone = 0;
+			for (Table table : new ArrayList<>(tables.values())) {
+				removeFromTables(table);
+				modified(table.getId());
+				table.close();
+			}
+			for (Table table : loaded) {
+				putTable(table);
+				modified(table.getId());
+			}
+		}
+	}
+
+
 	/**
 	 * Retrieves a list of table names managed by the TablrManager.
+	 * The list is a snapshot that is shared until the tables or their names change.
 	 *
-	 * @return a list of strings representing the names of all tables.
+	 * @return an unmodifiable list of strings representing the names of all tables.
 	 */
 	public List<String> getTableNames() {
-		return tables.stream().map(t -> t.getName()).collect(Collectors.toList());
+		if (tableNames == null) {
+			List<String> names = new ArrayList<String>(tables.size());
+			for (Table t : tables.values()) {
+				names.add(t.getName());
+			}
+			tableNames = Collections.unmodifiableList(names);
+		}
+		return tableNames;
 	}
 
 	/**
 	 * Retrieves a list of unique identifiers for all the tables managed by the system.
+	 * The list is a snapshot that is shared until tables are added or removed.
 	 *
-	 * @return A list of UUIDs representing the unique identifiers of the tables.
+	 * @return An unmodifiable list of UUIDs representing the unique identifiers of the tables.
 	 */
 	public List<UUID> getTableIds() {
-		return tables.stream().map(t -> t.getId()).collect(Collectors.toList());
+		if (tableIds == null) {
+			tableIds = List.copyOf(tables.keySet());
+		}
+		return tableIds;
 	}
 
 	/**
@@ -142,8 +681,9 @@ public class TablrManager {
 	 * @return a unique string representing a new table name.
 	 */
 	private String generateUniqueName() {
+		Set<String> names = new HashSet<String>(getTableNames());
 		int n = 0;
-		while (getTableNames().contains("Table" + n)) {
+		while (names.contains("Table" + n)) {
 			n++;
 		}
 		return "Table" + n;
@@ -158,6 +698,25 @@ public class TablrManager {
 		return t.getColumnsInfo();
 	}
 
+	/**
+	 * @param tableId The UUID of the table.
+	 * @param index   The position of the column in the table.
+	 * @return The info of the column at the position.
+	 */
+	public String getColumnInfo(UUID tableId, int index) {
+		Table t = findTable(tableId);
+		return t.getColumnInfo(index);
+	}
+
+	/**
+	 * @param tableId The UUID of the table.
+	 * @return The number of columns in the table.
+	 */
+	public int getNumberOfColumns(UUID tableId) {
+		Table t = findTable(tableId);
+		return t.getNumberOfColumns();
+	}
+
 	/**
 	 * @param tableId The UUID of the table.
 	 * @param newName The new name of the table.
@@ -165,16 +724,18 @@ public class TablrManager {
 	public void changeName(UUID tableId, String newName) {
 		Table t = findTable(tableId);
 		final String oldName = t.getName();
-		execute(new Command() {
+		execute(new CommandRecord.ChangeName(tableId, newName), new CommandRecord.ChangeName(tableId, oldName), tableId, new Command() {
 
 			@Override
 			public void execute() {
 				t.setName(newName);
+				tableNames = null;
 			}
 
 			@Override
 			public void undo() {
 				t.setName(oldName);
+				tableNames = null;
 			}
 
 		});
@@ -189,7 +750,8 @@ public class TablrManager {
 	public void changeNameColumn(UUID table, String column, String newName) {
 		Table t = findTable(table);
 		final String oldName = t.findColumn(column).getName();
-		execute(new Command() {
+		execute(new CommandRecord.ChangeNameColumn(table, column, newName),
+				new CommandRecord.ChangeNameColumn(table, newName, oldName), table, new Command() {
 
 			@Override
 			public void execute() {
@@ -213,7 +775,7 @@ public class TablrManager {
 	public void addColumn(UUID table) {
 		Table t = findTable(table);
 		Column column = t.newColumn();
-		execute(new Command() {
+		execute(new CommandRecord.AddColumn(table), new CommandRecord.RemoveColumn(table, column.getName()), table, new Command() {
 
 			@Override
 			public void execute() {
@@ -239,6 +801,16 @@ public class TablrManager {
 		return t.getColumnNames();
 	}
 
+	/**
+	 * @param table  The id of the table wherein the column is.
+	 * @param column The name of the column.
+	 * @return The position of the column in the table, or -1 if the table has no such column.
+	 */
+	public int getColumnIndex(UUID table, String column) {
+		Table t = findTable(table);
+		return t.getColumnIndex(column);
+	}
+
 	/**
 	 * @param table The name of the table wherein the column is.
 	 * @param c     The name of the column to remove.
@@ -246,7 +818,8 @@ public class TablrManager {
 	public void removeColumn(UUID table, String c) {
 		Table t = findTable(table);
 		Column column = t.findColumn(c);
-		execute(new Command() {
+		execute(target -> new CommandRecord.RemoveColumn(table, c),
+				target -> new CommandRecord.RestoreColumn(table, writeColumn(target, table, column)), table, new Command() {
 
 			@Override
 			public void execute() {
@@ -260,6 +833,30 @@ public class TablrManager {
 		});
 	}
 
+	/**
+	 * Puts back a column with its cells, as undoing its removal does. Replaying the
+	 * command log uses this to repeat such an undo.
+	 *
+	 * @param table  The UUID of the table.
+	 * @param column The column to put back.
+	 */
+	void restoreColumn(UUID table, Column column) {
+		Table t = findTable(table);
+		execute(target -> new CommandRecord.RestoreColumn(table, writeColumn(target, table, column)),
+				target -> new CommandRecord.RemoveColumn(table, column.getName()), table, new Command() {
+
+					@Override
+					public void execute() {
+						t.addColumn(column);
+					}
+
+					@Override
+					public void undo() {
+						t.removeColumn(column.getName());
+					}
+				});
+	}
+
 	/**
 	 * Retrieves all columns of the specified table.
 	 *
@@ -273,6 +870,18 @@ public class TablrManager {
 		return t.getColumns();
 	}
 
+	/**
+	 * Retrieves read-only views on all columns of the specified table. The views
+	 * read the cells from the table when they are accessed instead of copying them.
+	 *
+	 * @param table The UUID of the table.
+	 * @return A list with a {@code ColumnReader} for each column, in column order.
+	 */
+	public List<ColumnReader> getColumnReaders(UUID table) {
+		Table t = findTable(table);
+		return t.getColumnReaders();
+	}
+
 	/**
 	 * Adds a new row to the specified table, identified by its name.
 	 *
@@ -280,7 +889,8 @@ public class TablrManager {
 	 */
 	public void addRow(UUID table) {
 		Table t = findTable(table);
-		execute(new Command() {
+		int newRow = t.getNumberOfColumns() == 0 ? 0 : t.getNumberOfRows();
+		execute(new CommandRecord.AddRow(table), new CommandRecord.RemoveRow(table, newRow), table, new Command() {
 
 			@Override
 			public void execute() {
@@ -303,7 +913,7 @@ public class TablrManager {
 	public void removeRow(UUID table, int rowIndx) {
 		Table t = findTable(table);
 		List<String> row = t.getRow(rowIndx);
-		execute(new Command() {
+		execute(new CommandRecord.RemoveRow(table, rowIndx), new CommandRecord.InsertRow(table, rowIndx, row), table, new Command() {
 
 			@Override
 			public void execute() {
@@ -320,6 +930,33 @@ public class TablrManager {
 
 	}
 
+	/**
+	 * Inserts a row with the given values, as undoing the removal of a row does.
+	 * Replaying the command log uses this to repeat such an undo.
+	 *
+	 * @param table   The UUID of the table.
+	 * @param rowIndx The index of the new row.
+	 * @param row     The values of the new row, one per column.
+	 */
+	void insertRow(UUID table, int rowIndx, List<String> row) {
+		Table t = findTable(table);
+		execute(new CommandRecord.InsertRow(table, rowIndx, row), new CommandRecord.RemoveRow(table, rowIndx), table,
+				new Command() {
+
+					@Override
+					public void execute() {
+						t.insertRow(rowIndx);
+						t.updateRow(rowIndx, row);
+					}
+
+					@Override
+					public void undo() {
+						t.removeRow(rowIndx);
+					}
+
+				});
+	}
+
 	/**
 	 * Updates the value of a cell in a specified table and column at the given row
 	 * index.
@@ -332,7 +969,8 @@ public class TablrManager {
 	public void updateCell(UUID nameTable, String nameColumn, Integer rowIndex, String newValue) {
 		Table t = findTable(nameTable);
 		final String oldValue = t.getCell(nameColumn, rowIndex);
-		execute(new Command() {
+		execute(new CommandRecord.UpdateCell(nameTable, nameColumn, rowIndex, newValue),
+				new CommandRecord.UpdateCell(nameTable, nameColumn, rowIndex, oldValue), nameTable, new Command() {
 
 			@Override
 			public void execute() {
@@ -362,6 +1000,117 @@ public class TablrManager {
 
 	}
 
+	/**
+	 * Retrieves the value of an integer cell in a table without converting it to a string.
+	 *
+	 * @param table    The UUID of the table containing the desired cell.
+	 * @param column   The name of the column containing the desired cell.
+	 * @param rowIndex The index of the row containing the desired cell.
+	 * @return The value of the cell, or 0 if the cell is blank.
+	 */
+	public int getInt(UUID table, String column, int rowIndex) {
+		Table t = findTable(table);
+		return t.getInt(column, rowIndex);
+	}
+
+	/**
+	 * Retrieves the value of a boolean cell in a table without converting it to a string.
+	 *
+	 * @param table    The UUID of the table containing the desired cell.
+	 * @param column   The name of the column containing the desired cell.
+	 * @param rowIndex The index of the row containing the desired cell.
+	 * @return The value of the cell, or {@code false} if the cell is blank.
+	 */
+	public boolean getBoolean(UUID table, String column, int rowIndex) {
+		Table t = findTable(table);
+		return t.getBoolean(column, rowIndex);
+	}
+
+	/**
+	 * Determines whether a cell in a table is blank.
+	 *
+	 * @param table    The UUID of the table containing the desired cell.
+	 * @param column   The name of the column containing the desired cell.
+	 * @param rowIndex The index of the row containing the desired cell.
+	 * @return {@code true} if the cell holds no value.
+	 */
+	public boolean isBlank(UUID table, String column, int rowIndex) {
+		Table t = findTable(table);
+		return t.isBlank(column, rowIndex);
+	}
+
+	/**
+	 * Updates a cell of an integer column without parsing a string. The update can be undone.
+	 *
+	 * @param table    The UUID of the table containing the cell to update.
+	 * @param column   The name of the integer column containing the cell to update.
+	 * @param rowIndex The index of the row containing the cell to update.
+	 * @param newValue The new value of the cell.
+	 */
+	public void setInt(UUID table, String column, int rowIndex, int newValue) {
+		Table t = findTable(table);
+		if (!"int".equals(t.getClass(column))) {
+			throw new IllegalArgumentException("Invalid cell value");
+		}
+		final boolean wasBlank = t.isBlank(column, rowIndex);
+		final int oldValue = t.getInt(column, rowIndex);
+		execute(new CommandRecord.SetInt(table, column, rowIndex, newValue),
+				wasBlank ? new CommandRecord.UpdateCell(table, column, rowIndex, "") : new CommandRecord.SetInt(table, column, rowIndex, oldValue),
+				table, new Command() {
+
+			@Override
+			public void execute() {
+				t.setInt(column, rowIndex, newValue);
+			}
+
+			@Override
+			public void undo() {
+				if (wasBlank) {
+					t.updateCell(column, rowIndex, "");
+				} else {
+					t.setInt(column, rowIndex, oldValue);
+				}
+			}
+
+		});
+	}
+
+	/**
+	 * Updates a cell of a boolean column without parsing a string. The update can be undone.
+	 *
+	 * @param table    The UUID of the table containing the cell to update.
+	 * @param column   The name of the boolean column containing the cell to update.
+	 * @param rowIndex The index of the row containing the cell to update.
+	 * @param newValue The new value of the cell.
+	 */
+	public void setBoolean(UUID table, String column, int rowIndex, boolean newValue) {
+		Table t = findTable(table);
+		if (!"bool".equals(t.getClass(column))) {
+			throw new IllegalArgumentException("Invalid cell value");
+		}
+		final boolean wasBlank = t.isBlank(column, rowIndex);
+		final boolean oldValue = t.getBoolean(column, rowIndex);
+		execute(new CommandRecord.SetBoolean(table, column, rowIndex, newValue),
+				wasBlank ? new CommandRecord.UpdateCell(table, column, rowIndex, "") : new CommandRecord.SetBoolean(table, column, rowIndex, oldValue),
+				table, new Command() {
+
+			@Override
+			public void execute() {
+				t.setBoolean(column, rowIndex, newValue);
+			}
+
+			@Override
+			public void undo() {
+				if (wasBlank) {
+					t.updateCell(column, rowIndex, "");
+				} else {
+					t.setBoolean(column, rowIndex, oldValue);
+				}
+			}
+
+		});
+	}
+
 	/**
 	 * Toggles the ability to allow blank values in a specific column of a specified
 	 * table. This method updates the blank allowance setting for the given column
@@ -372,7 +1121,8 @@ public class TablrManager {
 	 */
 	public void changeAllowBlanks(UUID tableName, String columnName) {
 		Table t = findTable(tableName);
-		execute(new Command() {
+		execute(new CommandRecord.ChangeAllowBlanks(tableName, columnName),
+				new CommandRecord.ChangeAllowBlanks(tableName, columnName), tableName, new Command() {
 
 			@Override
 			public void execute() {
@@ -398,12 +1148,29 @@ public class TablrManager {
 	 * with the given name is found.
 	 */
 	private Table findTable(UUID tableId) {
-		for (Table t : tables) {
-			if (t.getId().equals(tableId)) {
-				return t;
-			}
-		}
-		return null;
+		return tables.get(tableId);
+	}
+
+	/**
+	 * Adds a table at the end of the managed tables and invalidates the cached snapshots.
+	 *
+	 * @param table The table to add.
+	 */
+	private void putTable(Table table) {
+		tables.put(table.getId(), table);
+		tableIds = null;
+		tableNames = null;
+	}
+
+	/**
+	 * Removes a table from the managed tables and invalidates the cached snapshots.
+	 *
+	 * @param table The table to remove.
+	 */
+	private void removeFromTables(Table table) {
+		tables.remove(table.getId());
+		tableIds = null;
+		tableNames = null;
 	}
 
 	/**
@@ -418,7 +1185,7 @@ public class TablrManager {
 		Table t = findTable(table);
 		final String oldType = t.findColumn(column).getType();
 
-		execute(new Command() {
+		execute(new CommandRecord.ChangeType(table, column), new CommandRecord.RestoreType(table, column, oldType), table, new Command() {
 
 			@Override
 			public void execute() {
@@ -427,14 +1194,48 @@ public class TablrManager {
 
 			@Override
 			public void undo() {
-				while (oldType != t.findColumn(column).getType()) {
-					t.changeType(column);
-				}
+				changeTypeTo(t, column, oldType);
 			}
 
 		});
 	}
 
+	/**
+	 * Changes the type of a column until it has the given type, as undoing a change
+	 * of type does. Replaying the command log uses this to repeat such an undo.
+	 *
+	 * @param table  The UUID of the table.
+	 * @param column The name of the column.
+	 * @param type   The type the column must get.
+	 */
+	void restoreType(UUID table, String column, String type) {
+		Table t = findTable(table);
+		final String oldType = t.findColumn(column).getType();
+		execute(new CommandRecord.RestoreType(table, column, type), new CommandRecord.RestoreType(table, column, oldType),
+				table, new Command() {
+
+					@Override
+					public void execute() {
+						changeTypeTo(t, column, type);
+					}
+
+					@Override
+					public void undo() {
+						changeTypeTo(t, column, oldType);
+					}
+
+				});
+	}
+
+	/**
+	 * Changes the type of a column until it has the given type, or every type has been tried.
+	 */
+	private static void changeTypeTo(Table t, String column, String type) {
+		for (int i = 0; i < 3 && !type.equals(t.findColumn(column).getType()); i++) {
+			t.changeType(column);
+		}
+	}
+
 	/**
 	 * Retrieves the default value of a specific column in a specified table.
 	 *
@@ -475,7 +1276,8 @@ public class TablrManager {
 	public void setDefaultValue(UUID table, String column, String newValue) {
 		Table t = findTable(table);
 		final String oldValue = t.getDefaultValue(column);
-		execute(new Command() {
+		execute(new CommandRecord.SetDefaultValue(table, column, newValue),
+				new CommandRecord.SetDefaultValue(table, column, oldValue), table, new Command() {
 
 			@Override
 			public void execute() {
@@ -499,7 +1301,7 @@ public class TablrManager {
 	 */
 	public HashMap<String, HashMap<String, List<String>>> getData() {
 		HashMap<String, HashMap<String, List<String>>> data = new HashMap<>();
-		for (Table table : tables) {
+		for (Table table : tables.values()) {
 			data.put(table.getName(), table.getData());
 		}
 		return data;
@@ -1,7 +1,14 @@
 package main;
 
 import java.awt.*;
+import java.awt.geom.Area;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+import canvaswindow.RecordingGraphics;
 
 /**
  * Manages the set of open AbstractViews in TablrApp
@@ -11,6 +18,9 @@ public class ViewManager implements ViewList {
 	private final TablrManager tablrManager;
 	private final LayoutInfo layoutInfo;
 	private final int newWindowOffset = 10;
+	private Rectangle damage = new Rectangle();
+	private MetaView eventTarget;
+	private long versionBeforeEvent;
 
 
 	/**
@@ -23,6 +33,10 @@ public class ViewManager implements ViewList {
 		int width;
 		int height;
 		AbstractView view;
+		private BufferedImage image;
+		private long renderedVersion;
+		private boolean dirty = true;
+		private Rectangle damaged;
 
 		private final int defaultWidth = 300;
 		private final int defaultHeight = 300;
@@ -56,6 +70,121 @@ public class ViewManager implements ViewList {
 		int translateY(int y) {
 			return y - this.y;
 		}
+
+		/**
+		 * Discards the cached rendering of the view, so that the view is painted again
+		 * the next time this MetaView is painted.
+		 */
+		void invalidate() {
+			dirty = true;
+		}
+
+		/**
+		 * Records the region of the view changed by an event. Only that region of the
+		 * cached rendering is painted again, provided the rendering was up to date
+		 * before the event.
+		 *
+		 * @param region        The changed region in the coordinates of the view, or null if the whole view may have changed.
+		 * @param versionBefore The content version of the view before the event.
+		 */
+		void damage(Rectangle region, long versionBefore) {
+			if (region == null || versionBefore != renderedVersion) {
+				invalidate();
+				return;
+			}
+			if (!region.isEmpty()) {
+				damaged = damaged == null ? new Rectangle(region) : damaged.union(region);
+			}
+			renderedVersion = view.getContentVersion();
+		}
+
+		/**
+		 * @return The part of the canvas where this MetaView must be drawn again, or null if its drawing is up to date.
+		 */
+		Rectangle getPendingDamage() {
+			if (needsRendering()) {
+				return getBounds();
+			}
+			if (damaged == null) {
+				return null;
+			}
+			Rectangle region = damaged.intersection(new Rectangle(0, 0, width, height));
+			region.translate(x, y);
+			return region;
+		}
+
+		/**
+		 * @return The area of the canvas covered by this MetaView.
+		 */
+		Rectangle getBounds() {
+			return new Rectangle(x, y, width, height);
+		}
+
+		private boolean needsRendering() {
+			return dirty || image == null || view.getContentVersion() != renderedVersion
+					|| image.getWidth() != width || image.getHeight() != height;
+		}
+
+		/**
+		 * Captures how the view is drawn at the position of this MetaView. The view is rendered into an off-screen image
+		 * which is reused as long as the view has not been sent any event and its content version has not changed. If
+		 * the view reported which region an event changed, only that region is rendered again.
+		 * <p>
+		 * The view paints what must be rendered again into a recording, which only holds the text and positions it
+		 * draws; the returned painter renders the recording into the image and draws the image. The painter does not
+		 * use the view, so it can run on another thread while the view handles events.
+		 *
+		 * @param font  The font the view paints with.
+		 * @param color The color the view paints with.
+		 * @return The painter that draws the view.
+		 */
+		Consumer<Graphics> snapshot(Font font, Color color) {
+			Rectangle region = null;
+			if (needsRendering()) {
+				if (image == null || image.getWidth() != width || image.getHeight() != height) {
+					image = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+				}
+				dirty = false;
+				renderedVersion = view.getContentVersion();
+				region = new Rectangle(0, 0, width, height);
+			} else if (damaged != null) {
+				region = damaged;
+			}
+			damaged = null;
+			BufferedImage image = this.image;
+			int x = this.x;
+			int y = this.y;
+			if (region == null) {
+				return g -> {
+					synchronized (image) {
+						g.drawImage(image, x, y, null);
+					}
+				};
+			}
+			RecordingGraphics recording = new RecordingGraphics(font, color, new Rectangle(0, 0, width, height));
+			recording.clipRect(region.x, region.y, region.width, region.height);
+			view.setSize(width, height);
+			view.paint(recording);
+			Rectangle rendered = region;
+			return g -> {
+				synchronized (image) {
+					render(image, rendered, recording, g);
+					g.drawImage(image, x, y, null);
+				}
+			};
+		}
+
+		private void render(BufferedImage image, Rectangle region, RecordingGraphics recording, Graphics g) {
+			Graphics2D imageGraphics = image.createGraphics();
+			imageGraphics.setComposite(AlphaComposite.Clear);
+			imageGraphics.fillRect(region.x, region.y, region.width, region.height);
+			imageGraphics.setComposite(AlphaComposite.SrcOver);
+			if (g instanceof Graphics2D graphics2D) {
+				imageGraphics.setRenderingHints(graphics2D.getRenderingHints());
+			}
+			recording.replay(imageGraphics);
+			imageGraphics.dispose();
+		}
 	}
 
 	/**
@@ -92,7 +221,9 @@ public class ViewManager implements ViewList {
 		int offset = newWindowOffset;
 		if (hasActiveView())
 			offset = getActiveView().x + 10;
-		metaViews.add(new MetaView(view, offset, offset));
+		MetaView metaView = new MetaView(view, offset, offset);
+		metaViews.add(metaView);
+		addDamage(metaView.getBounds());
 	}
 
 	/**
@@ -103,9 +234,14 @@ public class ViewManager implements ViewList {
 	 */
 	@Override
 	public void closeView(AbstractView view) {
-		metaViews.remove(getMetaView(view));
+		MetaView closed = getMetaView(view);
+		if (closed != null) {
+			metaViews.remove(closed);
+			addDamage(closed.getBounds());
+		}
 		for (MetaView metaView : metaViews) {
 			metaView.view.handleDeadView(view);
+			metaView.invalidate();
 		}
 	}
 
@@ -117,7 +253,9 @@ public class ViewManager implements ViewList {
 	 */
 	@Override
 	public void substituteView(AbstractView oldView, AbstractView newView) {
-		getMetaView(oldView).view = newView;
+		MetaView metaView = getMetaView(oldView);
+		metaView.view = newView;
+		metaView.invalidate();
 
 	}
 
@@ -131,8 +269,11 @@ public class ViewManager implements ViewList {
 	 */
 	@Override
 	public void moveViewLocation(AbstractView view, int x, int y) {
-		getMetaView(view).x += x;
-		getMetaView(view).y += y;
+		MetaView metaView = getMetaView(view);
+		addDamage(metaView.getBounds());
+		metaView.x += x;
+		metaView.y += y;
+		addDamage(metaView.getBounds());
 	}
 
 	private MetaView getMetaView(AbstractView view) {
@@ -143,12 +284,68 @@ public class ViewManager implements ViewList {
 		if (metaViews.contains(view))
 			metaViews.remove(view);
 		metaViews.add(view);
+		// the parts that were covered by other views become visible
+		addDamage(view.getBounds());
 	}
 
 	private boolean hasActiveView() {
 		return getActiveView() != null;
 	}
 
+	/**
+	 * Retrieves the active view to pass an event to. What the event changed is
+	 * collected from the view when the next event is passed or when the views are
+	 * painted or asked for their damage.
+	 *
+	 * @return The view of the active MetaView.
+	 */
+	private AbstractView getViewForEvent() {
+		collectEventDamage();
+		eventTarget = getActiveView();
+		versionBeforeEvent = eventTarget.view.getContentVersion();
+		return eventTarget.view;
+	}
+
+	/**
+	 * Passes the region changed by the last event, as reported by the view that
+	 * handled it, to its MetaView.
+	 */
+	private void collectEventDamage() {
+		if (eventTarget != null) {
+			MetaView target = eventTarget;
+			eventTarget = null;
+			Rectangle region = target.view.takeDamage();
+			if (metaViews.contains(target)) {
+				target.damage(region, versionBeforeEvent);
+			}
+		}
+	}
+
+	private void addDamage(Rectangle region) {
+		damage = damage.isEmpty() ? new Rectangle(region) : damage.union(region);
+	}
+
+	/**
+	 * Retrieves and forgets the part of the canvas that changed since the last call.
+	 * It covers the views that were opened, closed, moved or brought to the front and
+	 * the regions of the views that changed, either as reported by the view handling
+	 * an event or entirely because their content version changed.
+	 *
+	 * @return The changed region of the canvas, which is empty if nothing changed.
+	 */
+	public Rectangle takeDamage() {
+		collectEventDamage();
+		for (MetaView metaView : metaViews) {
+			Rectangle region = metaView.getPendingDamage();
+			if (region != null && !region.isEmpty()) {
+				addDamage(region);
+			}
+		}
+		Rectangle region = damage;
+		damage = new Rectangle();
+		return region;
+	}
+
 	private MetaView getActiveView() {
 		try {
 			return metaViews.getLast();
@@ -203,7 +400,7 @@ public class ViewManager implements ViewList {
 		if (hasActiveView()) {
 			if (getViewClicked(x, y) != null) {
 				setViewActiveAt(x, y);
-				getActiveView().view.handleDoubleClick(
+				getViewForEvent().handleDoubleClick(
 						getActiveView().translateX(x), getActiveView().translateY(y));
 			}
 		}
@@ -222,7 +419,7 @@ public class ViewManager implements ViewList {
 		if (hasActiveView()) {
 			if (getViewClicked(x, y) != null) {
 				setViewActiveAt(x, y);
-				getActiveView().view.handleSingleClick(
+				getViewForEvent().handleSingleClick(
 						getActiveView().translateX(x), getActiveView().translateY(y));
 			}
 		}
@@ -243,7 +440,7 @@ public class ViewManager implements ViewList {
 		if (hasActiveView()) {
 			if (getViewClicked(startX, startY) != null) {
 				setViewActiveAt(startX, startY);
-				getActiveView().view.handleMouseDrag(
+				getViewForEvent().handleMouseDrag(
 						getActiveView().translateX(startX),
 						getActiveView().translateY(startY),
 						getActiveView().translateX(endX),
@@ -252,12 +449,23 @@ public class ViewManager implements ViewList {
 		}
 	}
 
+	/**
+	 * invokes handleScroll() on the activeView.
+	 *
+	 * @param dx The horizontal distance in pixels.
+	 * @param dy The vertical distance in pixels.
+	 */
+	public void handleScroll(int dx, int dy) {
+		if (hasActiveView())
+			getViewForEvent().handleScroll(dx, dy);
+	}
+
 	/**
 	 * invokes handleEscape() on the activeView.
 	 */
 	public void handleEscape() {
 		if (hasActiveView())
-			getActiveView().view.handleEscape();
+			getViewForEvent().handleEscape();
 
 	}
 
@@ -267,7 +475,7 @@ public class ViewManager implements ViewList {
 	public void handleCtrlEnter() {
 		System.out.println("ctrl enter");
 		if (hasActiveView())
-			getActiveView().view.handleCtrlEnter();
+			getViewForEvent().handleCtrlEnter();
 
 	}
 
@@ -276,7 +484,7 @@ public class ViewManager implements ViewList {
 	 */
 	public void handleEnter() {
 		if (hasActiveView())
-			getActiveView().view.handleEnter();
+			getViewForEvent().handleEnter();
 
 	}
 
@@ -285,7 +493,7 @@ public class ViewManager implements ViewList {
 	 */
 	public void handleBackSpace() {
 		if (hasActiveView())
-			getActiveView().view.handleBackSpace();
+			getViewForEvent().handleBackSpace();
 
 	}
 
@@ -294,7 +502,7 @@ public class ViewManager implements ViewList {
 	 */
 	public void handleDelete() {
 		if (hasActiveView())
-			getActiveView().view.handleDelete();
+			getViewForEvent().handleDelete();
 
 	}
 
@@ -308,19 +516,75 @@ public class ViewManager implements ViewList {
 			// CTRL+T opens new default view
 			openView(viewAssembler.getDefaultView(this.tablrManager, this.layoutInfo, this));
 		else if (hasActiveView())
-			getActiveView().view.handleCharTyped(keyChar);
+			getViewForEvent().handleCharTyped(keyChar);
 	}
 
 	/**
-	 * invokes paint(g') on each view in order of last used, where g' is created from g
-	 * with bounds corresponding to the dimensions of each view.
+	 * Draws each view in order of last used at its position. Views are rendered
+	 * off-screen with bounds corresponding to their dimensions; the rendering is
+	 * reused until the view handles an event or its content version changes.
+	 * <p>
+	 * Windows are opaque, so the part of a view covered by views above it is not
+	 * drawn, and views that are completely covered or lie outside the clip bounds of
+	 * g are neither rendered nor drawn.
 	 *
 	 * @param g The Graphics object used for drawing the views.
 	 */
 	public void paint(Graphics g) {
-		for (MetaView metaView : metaViews)
-			metaView.view.paint(
-					g.create(metaView.x, metaView.y, metaView.width, metaView.height));
+		snapshot(g.getClipBounds(), g.getFont(), g.getColor()).accept(g);
+	}
+
+	/**
+	 * Captures what {@link #paint(Graphics)} draws, so that it can be drawn later
+	 * on another thread. The views that must be rendered again paint into
+	 * recordings now, which reads the visible rows and the layout of the views but
+	 * does not render anything. The returned painter renders the recordings and
+	 * draws the views; it does not use the views or the tables, so events can be
+	 * handled while it runs. Painters must be called in the order they were
+	 * captured.
+	 *
+	 * @param clip  The region of the canvas to draw, or null for all of it.
+	 * @param font  The font the views paint with.
+	 * @param color The color the views paint with.
+	 * @return The painter that draws the views.
+	 */
+	public Consumer<Graphics> snapshot(Rectangle clip, Font font, Color color) {
+		collectEventDamage();
+		MetaView[] views = metaViews.toArray(new MetaView[0]);
+		Area[] visibleRegions = new Area[views.length];
+		Area covered = new Area();
+		for (int i = views.length - 1; i >= 0; i--) {
+			Rectangle bounds = new Rectangle(views[i].x, views[i].y, views[i].width, views[i].height);
+			Area visible = new Area(clip == null ? bounds : bounds.intersection(clip));
+			visible.subtract(covered);
+			if (!visible.isEmpty()) {
+				visibleRegions[i] = visible;
+			}
+			covered.add(new Area(bounds));
+		}
+		List<Rectangle> bounds = new ArrayList<>();
+		List<Area> regions = new ArrayList<>();
+		List<Consumer<Graphics>> painters = new ArrayList<>();
+		for (int i = 0; i < views.length; i++) {
+			if (visibleRegions[i] != null) {
+				bounds.add(views[i].getBounds());
+				regions.add(visibleRegions[i]);
+				painters.add(views[i].snapshot(font, color));
+			}
+		}
+		return g -> {
+			for (int i = 0; i < painters.size(); i++) {
+				Graphics clipped = g.create();
+				if (clipped instanceof Graphics2D graphics2D) {
+					graphics2D.clip(regions.get(i));
+				} else {
+					Rectangle view = bounds.get(i);
+					clipped.clipRect(view.x, view.y, view.width, view.height);
+				}
+				painters.get(i).accept(clipped);
+				clipped.dispose();
+			}
+		};
 	}
 
 
@@ -330,7 +594,7 @@ public class ViewManager implements ViewList {
 	 */
 	public void handleCtrlZ() {
 		if (hasActiveView()) {
-			getActiveView().view.handleCtrlZ();
+			getViewForEvent().handleCtrlZ();
 		}
 	}
 
@@ -341,7 +605,7 @@ public class ViewManager implements ViewList {
 	 */
 	public void handleCtrlShiftZ() {
 		if (hasActiveView()) {
-			getActiveView().view.handleCtrlShiftZ();
+			getViewForEvent().handleCtrlShiftZ();
 		}
 	}
 
@@ -12,6 +12,8 @@ class Window extends AbstractView implements ViewList {
 	private final int titleOffset = 10;
 	private final int closeButtonWidth = 10;
 	private int closeButtonX = 0;
+	private int width;
+	private int height;
 
 	Window(AbstractView view, TablrManager mgr, LayoutInfo layoutInfo, ViewList viewList) {
 		super(mgr, layoutInfo, viewList);
@@ -72,10 +74,23 @@ class Window extends AbstractView implements ViewList {
 		if (startY > titleOffset) {
 			view.handleMouseDrag(startX, startY, endX, endY);
 		} else {
+			// moving does not change what the window paints
+			addDamage(new Rectangle());
 			getViewList().moveViewLocation(this, endX - startX, endY - startY);
 		}
 	}
 
+	/**
+	 * Forwards the handleScroll() event to the underlying view.
+	 *
+	 * @param dx The horizontal distance in pixels.
+	 * @param dy The vertical distance in pixels.
+	 */
+	@Override
+	public void handleScroll(int dx, int dy) {
+		view.handleScroll(dx, dy);
+	}
+
 	/**
 	 * Forwards the handleEscape() event to the underlying view.
 	 */
@@ -190,7 +205,47 @@ class Window extends AbstractView implements ViewList {
 
 
 	/**
-	 * Renders the Window on the bounds of g, then translates and bounds g before invoking paint on the underlying view
+	 * The window paints its title and the wrapped view.
+	 *
+	 * @return The content version of the wrapped view.
+	 */
+	@Override
+	public long getContentVersion() {
+		return view == null ? 0 : view.getContentVersion();
+	}
+
+	/**
+	 * Remembers the size of the window, which is needed to paint the title bar and border when only part of the window is repainted.
+	 *
+	 * @param width  The width of the window in pixels.
+	 * @param height The height of the window in pixels.
+	 */
+	@Override
+	public void setSize(int width, int height) {
+		this.width = width;
+		this.height = height;
+	}
+
+	/**
+	 * The damage reported by the wrapped view is moved below the title bar.
+	 *
+	 * @return The region changed by the last event, or null if the whole window may have changed.
+	 */
+	@Override
+	public Rectangle takeDamage() {
+		Rectangle damage = super.takeDamage();
+		if (damage != null || view == null) {
+			return damage;
+		}
+		damage = view.takeDamage();
+		if (damage != null) {
+			damage.translate(0, titleOffset);
+		}
+		return damage;
+	}
+
+	/**
+	 * Renders the Window on its size, or the bounds of g if it was not given, then translates and bounds g before invoking paint on the underlying view
 	 *
 	 * @param g The Graphics context used for painting.
 	 */
@@ -199,7 +254,7 @@ class Window extends AbstractView implements ViewList {
 		if (view == null) {
 			getViewList().closeView(this);
 		}
-		Rectangle bounds = g.getClipBounds();
+		Rectangle bounds = width > 0 ? new Rectangle(0, 0, width, height) : g.getClipBounds();
 
 		//clear window
 		g.clearRect(0, 0, bounds.width, bounds.height);
@@ -0,0 +1,431 @@
+package main;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.IntPredicate;
+
+/**
+ * Reads and writes workspaces, the tables managed by a {@link TablrManager}, in a
+ * binary columnar file format. The cells of every column are stored together in
+ * one block in the representation of the column's type, so a column is read back
+ * with a few bulk copies instead of parsing every cell:
+ * <ul>
+ * <li>int columns store a 4 byte value per row, followed by a bitmap of the blank rows;</li>
+ * <li>bool columns store a bitmap of the true rows, followed by a bitmap of the blank rows;</li>
+ * <li>other columns store the length of the UTF-8 encoding of every cell, or -1 for
+ * a blank cell, followed by the encoding itself.</li>
+ * </ul>
+ * Bitmaps are stored as 64 bit words. The file is laid out as follows, with all
+ * numbers in big-endian order:
+ * <pre>
+ * header   int magic, int version
+ * blocks   the block of every column, table after table
+ * metadata int number of tables, then for every table
+ *            long, long identifier, string name, int number of rows, int number of columns
+ *            and for every column
+ *              string name, string type, byte allows blanks, string default value,
+ *              long offset of the block, long length of the block
+ * trailer  long offset of the metadata, int magic
+ * </pre>
+ * Strings in the metadata are stored as the length of their UTF-8 encoding, or -1 for null,
+ * followed by the encoding.
+ */
+public final class WorkspaceFile {
+
+	/**
+	 * The first and last four bytes of every workspace file, "TBLR" in ASCII.
+	 */
+	public static final int MAGIC = 0x54424C52;
+
+	/**
+	 * The version of the format written by this class.
+	 */
+	public static final int VERSION = 1;
+
+	private static final int HEADER_SIZE = 8;
+	private static final int TRAILER_SIZE = 12;
+	private static final int BUFFER_SIZE = 1 << 20;
+
+	private WorkspaceFile() {
+	}
+
+	/**
+	 * Writes the given tables to a workspace file. The file is first written under a
+	 * temporary name and then moved in place, so an existing file is only replaced
+	 * once the new one is complete.
+	 *
+	 * @param path   The file to write.
+	 * @param tables The tables to store, in order.
+	 * @throws IOException if the file cannot be written
+	 */
+	public static void write(Path path, Collection<Table> tables) throws IOException {
+		Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+		try (Output out = new Output(FileChannel.open(temporary, StandardOpenOption.CREATE,
+				StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE))) {
+			out.putInt(MAGIC);
+			out.putInt(VERSION);
+			List<long[]> blocks = new ArrayList<>();
+			for (Table table : tables) {
+				for (int c = 0; c < table.getNumberOfColumns(); c++) {
+					long start = out.position();
+					writeBlock(out, table.getColumn(c));
+					blocks.add(new long[]{start, out.position() - start});
+				}
+			}
+			long metadata = out.position();
+			out.putInt(tables.size());
+			int block = 0;
+			for (Table table : tables) {
+				out.putLong(table.getId().getMostSignificantBits());
+				out.putLong(table.getId().getLeastSignificantBits());
+				out.putString(table.getName());
+				out.putInt(getNumberOfRows(table));
+				out.putInt(table.getNumberOfColumns());
+				for (int c = 0; c < table.getNumberOfColumns(); c++) {
+					Column column = table.getColumn(c);
+					out.putString(column.getName());
+					out.putString(column.getType());
+					out.putByte(column.getAllowsBlanks() ? 1 : 0);
+					out.putString(column.getDefaultValue());
+					out.putLong(blocks.get(block)[0]);
+					out.putLong(blocks.get(block)[1]);
+					block++;
+				}
+			}
+			out.putLong(metadata);
+			out.putInt(MAGIC);
+			out.force();
+		}
+		Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+	}
+
+	/**
+	 * Reads the tables stored in a workspace file. All cells are copied to the heap,
+	 * the file is no longer needed afterwards.
+	 *
+	 * @param path The file to read.
+	 * @return The tables of the workspace, in the order they were written.
+	 * @throws IOException if the file cannot be read or is not a valid workspace file
+	 */
+	public static List<Table> read(Path path) throws IOException {
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			return readTables(channel, path,
+					(column, offset, length, nbRows) -> readBlock(read(channel, offset, length), column, nbRows));
+		}
+	}
+
+	/**
+	 * Opens the tables stored in a workspace file without reading their cells. The
+	 * file is mapped into memory and every column reads its cells from its block,
+	 * so only the metadata is read when opening and the pages of a column are only
+	 * read from disk once its cells are accessed. A column copies its cells to the
+	 * heap when it is first modified.
+	 * <p>
+	 * The mapping stays valid as long as any of the tables is reachable, also when
+	 * the file is replaced by {@link #write(Path, Collection)}. The file must not be
+	 * modified in place while the tables are in use.
+	 *
+	 * @param path The file to open.
+	 * @return The tables of the workspace, in the order they were written.
+	 * @throws IOException if the file cannot be read or is not a valid workspace file
+	 */
+	public static List<Table> open(Path path) throws IOException {
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			MemorySegment file = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size(), Arena.ofAuto());
+			return readTables(channel, path,
+					(column, offset, length, nbRows) -> column.mapCells(file.asSlice(offset, length), nbRows));
+		}
+	}
+
+	/**
+	 * Fills a column with the cells stored in its block.
+	 */
+	private interface BlockReader {
+		void read(Column column, long offset, long length, int nbRows) throws IOException;
+	}
+
+	/**
+	 * Reads the metadata of a workspace file and creates its tables, leaving the
+	 * cells of every column to the given block reader.
+	 */
+	private static List<Table> readTables(FileChannel channel, Path path, BlockReader blocks) throws IOException {
+		long size = channel.size();
+		if (size < HEADER_SIZE + TRAILER_SIZE) {
+			throw new IOException("Not a workspace file: " + path);
+		}
+		ByteBuffer header = read(channel, 0, HEADER_SIZE);
+		ByteBuffer trailer = read(channel, size - TRAILER_SIZE, TRAILER_SIZE);
+		long metadataOffset = trailer.getLong();
+		if (header.getInt() != MAGIC || trailer.getInt() != MAGIC) {
+			throw new IOException("Not a workspace file: " + path);
+		}
+		int version = header.getInt();
+		if (version != VERSION) {
+			throw new IOException("Unsupported workspace file version " + version + ": " + path);
+		}
+		if (metadataOffset < HEADER_SIZE || metadataOffset > size - TRAILER_SIZE) {
+			throw new IOException("Corrupt workspace file: " + path);
+		}
+		try {
+			ByteBuffer metadata = read(channel, metadataOffset, size - TRAILER_SIZE - metadataOffset);
+			int nbTables = metadata.getInt();
+			List<Table> tables = new ArrayList<>();
+			for (int t = 0; t < nbTables; t++) {
+				UUID id = new UUID(metadata.getLong(), metadata.getLong());
+				Table table = new Table(id, getString(metadata));
+				int nbRows = metadata.getInt();
+				int nbColumns = metadata.getInt();
+				long[] offsets = new long[nbColumns];
+				long[] lengths = new long[nbColumns];
+				// all columns are added before they are filled, the table would fill them with default values otherwise
+				for (int c = 0; c < nbColumns; c++) {
+					String name = getString(metadata);
+					// types are compared by identity elsewhere, so they must be the interned literals
+					String type = getString(metadata).intern();
+					boolean allowsBlanks = metadata.get() != 0;
+					table.addColumn(new Column(name, type, allowsBlanks, getString(metadata)));
+					offsets[c] = metadata.getLong();
+					lengths[c] = metadata.getLong();
+				}
+				for (int c = 0; c < nbColumns; c++) {
+					Column column = table.getColumn(c);
+					if (nbRows < 0 || offsets[c] < HEADER_SIZE || lengths[c] < 0
+							|| offsets[c] + lengths[c] > metadataOffset || !hasValidLength(column, nbRows, lengths[c])) {
+						throw new IOException("Corrupt workspace file: " + path);
+					}
+					blocks.read(column, offsets[c], lengths[c], nbRows);
+				}
+				tables.add(table);
+			}
+			return tables;
+		} catch (BufferUnderflowException | IllegalArgumentException | IndexOutOfBoundsException e) {
+			throw new IOException("Corrupt workspace file: " + path, e);
+		}
+	}
+
+	/**
+	 * Checks the length of a block whose length follows from the number of rows.
+	 */
+	private static boolean hasValidLength(Column column, int nbRows, long length) {
+		long words = Bits.words(nbRows);
+		switch (column.getType()) {
+			case "int":
+				return length == 4L * nbRows + 8 * words;
+			case "bool":
+				return length == 16 * words;
+			default:
+				return length >= 4L * nbRows;
+		}
+	}
+
+	private static int getNumberOfRows(Table table) {
+		return table.getNumberOfColumns() == 0 ? 0 : table.getColumn(0).getSize();
+	}
+
+	/**
+	 * Writes the cells of a column in the representation of its type. The cells of a
+	 * column that still reads them from a mapped block are already in that
+	 * representation, so the block is written as it is.
+	 */
+	private static void writeBlock(Output out, Column column) throws IOException {
+		MemorySegment mapped = column.getMappedBlock();
+		if (mapped != null) {
+			out.putSegment(mapped);
+			return;
+		}
+		ColumnReader cells = column.reader();
+		int size = cells.size();
+		switch (column.getType()) {
+			case "int":
+				for (int row = 0; row < size; row++) {
+					out.putInt(cells.isBlank(row) ? 0 : cells.getInt(row));
+				}
+				writeBitmap(out, size, cells::isBlank);
+				break;
+			case "bool":
+				writeBitmap(out, size, row -> !cells.isBlank(row) && cells.getBoolean(row));
+				writeBitmap(out, size, cells::isBlank);
+				break;
+			default:
+				for (int row = 0; row < size; row++) {
+					out.putString(cells.isBlank(row) ? null : cells.get(row));
+				}
+				break;
+		}
+	}
+
+	private static void writeBitmap(Output out, int size, IntPredicate bit) throws IOException {
+		for (int word = 0; word < Bits.words(size); word++) {
+			long bits = 0;
+			for (int i = 0; i < 64 && word * 64 + i < size; i++) {
+				if (bit.test(word * 64 + i)) {
+					bits |= 1L << i;
+				}
+			}
+			out.putLong(bits);
+		}
+	}
+
+	/**
+	 * Appends the cells stored in a block to an empty column.
+	 */
+	private static void readBlock(ByteBuffer block, Column column, int nbRows) {
+		int words = Bits.words(nbRows);
+		switch (column.getType()) {
+			case "int": {
+				int[] values = new int[nbRows];
+				block.asIntBuffer().get(values);
+				block.position(4 * nbRows);
+				column.appendInts(values, getBitmap(block, words), nbRows);
+				break;
+			}
+			case "bool": {
+				long[] values = getBitmap(block, words);
+				column.appendBooleans(values, getBitmap(block, words), nbRows);
+				break;
+			}
+			default: {
+				String[] values = new String[nbRows];
+				for (int row = 0; row < nbRows; row++) {
+					values[row] = getString(block);
+				}
+				column.appendStrings(values, nbRows);
+				break;
+			}
+		}
+	}
+
+	private static long[] getBitmap(ByteBuffer block, int words) {
+		long[] bits = new long[words];
+		block.asLongBuffer().get(bits);
+		block.position(block.position() + 8 * words);
+		return bits;
+	}
+
+	private static String getString(ByteBuffer buffer) {
+		int length = buffer.getInt();
+		if (length < 0) {
+			return null;
+		}
+		if (length > buffer.remaining()) {
+			throw new BufferUnderflowException();
+		}
+		String value = new String(buffer.array(), buffer.arrayOffset() + buffer.position(), length, StandardCharsets.UTF_8);
+		buffer.position(buffer.position() + length);
+		return value;
+	}
+
+	/**
+	 * Reads a part of a file into a heap buffer.
+	 */
+	private static ByteBuffer read(FileChannel channel, long position, long length) throws IOException {
+		if (length > Integer.MAX_VALUE - 8) {
+			throw new IOException("Block of " + length + " bytes is too large");
+		}
+		ByteBuffer buffer = ByteBuffer.allocate((int) length);
+		while (buffer.hasRemaining()) {
+			if (channel.read(buffer, position + buffer.position()) < 0) {
+				throw new EOFException("Workspace file ends within a block");
+			}
+		}
+		return buffer.flip();
+	}
+
+	/**
+	 * Buffered output to a file channel that keeps track of its position.
+	 */
+	private static class Output implements Closeable {
+		private final FileChannel channel;
+		private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+		private long flushed;
+
+		Output(FileChannel channel) {
+			this.channel = channel;
+		}
+
+		long position() {
+			return flushed + buffer.position();
+		}
+
+		void putByte(int value) throws IOException {
+			ensure(1);
+			buffer.put((byte) value);
+		}
+
+		void putInt(int value) throws IOException {
+			ensure(4);
+			buffer.putInt(value);
+		}
+
+		void putLong(long value) throws IOException {
+			ensure(8);
+			buffer.putLong(value);
+		}
+
+		void putString(String value) throws IOException {
+			if (value == null) {
+				putInt(-1);
+				return;
+			}
+			byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+			putInt(bytes.length);
+			for (int offset = 0; offset < bytes.length; ) {
+				ensure(1);
+				int length = Math.min(buffer.remaining(), bytes.length - offset);
+				buffer.put(bytes, offset, length);
+				offset += length;
+			}
+		}
+
+		void putSegment(MemorySegment segment) throws IOException {
+			flush();
+			ByteBuffer bytes = segment.asByteBuffer();
+			while (bytes.hasRemaining()) {
+				flushed += channel.write(bytes);
+			}
+		}
+
+		void force() throws IOException {
+			flush();
+			channel.force(true);
+		}
+
+		private void ensure(int bytes) throws IOException {
+			if (buffer.remaining() < bytes) {
+				flush();
+			}
+		}
+
+		private void flush() throws IOException {
+			buffer.flip();
+			while (buffer.hasRemaining()) {
+				flushed += channel.write(buffer);
+			}
+			buffer.clear();
+		}
+
+		@Override
+		public void close() throws IOException {
+			try {
+				flush();
+			} finally {
+				channel.close();
+			}
+		}
+	}
+}
@@ -62,4 +62,13 @@ public class CellTest {
         assertNull(cell.getValue()); // Check reset to null
     }
 
+    @Test
+    public void valueOf_SharesImmutableValues() {
+        assertSame(BoolValue.TRUE, BoolValue.valueOf("TRUE"));
+        assertSame(BoolValue.FALSE, BoolValue.valueOf("false"));
+        assertSame(IntValue.valueOf("42"), IntValue.valueOf("42"));
+        assertEquals("-128", IntValue.valueOf("-128").toString());
+        assertEquals("123456", IntValue.valueOf("123456").toString());
+    }
+
 }
@@ -0,0 +1,101 @@
+package test;
+
+import static org.junit.Assert.*;
+
+import java.awt.FontMetrics;
+import java.awt.image.BufferedImage;
+
+import org.junit.Test;
+
+import main.CellTextCache;
+import main.Column;
+import main.ColumnReader;
+
+public class CellTextCacheTest {
+
+	/**
+	 * Reader that counts how often the text of a cell is read.
+	 */
+	private static class CountingReader implements ColumnReader {
+		private final ColumnReader reader;
+		int reads;
+
+		CountingReader(ColumnReader reader) {
+			this.reader = reader;
+		}
+
+		@Override
+		public int size() {
+			return reader.size();
+		}
+
+		@Override
+		public String get(int rowIndex) {
+			reads++;
+			return reader.get(rowIndex);
+		}
+
+		@Override
+		public boolean isBlank(int rowIndex) {
+			return reader.isBlank(rowIndex);
+		}
+
+		@Override
+		public int getInt(int rowIndex) {
+			return reader.getInt(rowIndex);
+		}
+
+		@Override
+		public boolean getBoolean(int rowIndex) {
+			return reader.getBoolean(rowIndex);
+		}
+
+		@Override
+		public long getVersion(int chunk) {
+			return reader.getVersion(chunk);
+		}
+	}
+
+	private static FontMetrics metrics() {
+		return new BufferedImage(1, 1, BufferedImage.TYPE_INT_ARGB).getGraphics().getFontMetrics();
+	}
+
+	@Test
+	public void testTextFollowsUpdates() {
+		Column column = new Column("Numbers", "int", true, "0");
+		column.addCell();
+		column.addCell();
+		CellTextCache cache = new CellTextCache();
+		ColumnReader reader = column.reader();
+
+		assertEquals("0", cache.getText(reader, 1));
+		column.updateCell(1, "12");
+		assertEquals("12", cache.getText(reader, 1));
+		column.updateCell(0, "");
+		assertEquals("", cache.getText(reader, 0));
+	}
+
+	@Test
+	public void testMaxWidthMeasuresOnlyChangedChunks() {
+		Column column = new Column("Words", "string", true, "a");
+		int rows = 4 * ColumnReader.VERSION_CHUNK_SIZE;
+		for (int i = 0; i < rows; i++) {
+			column.addCell();
+		}
+		CountingReader reader = new CountingReader(column.reader());
+		CellTextCache cache = new CellTextCache();
+		FontMetrics metrics = metrics();
+
+		assertEquals(metrics.stringWidth("a"), cache.getMaxWidth(reader, metrics));
+		assertEquals(rows, reader.reads);
+
+		assertEquals(metrics.stringWidth("a"), cache.getMaxWidth(reader, metrics));
+		assertEquals(rows, reader.reads);
+
+		column.updateCell(rows - 1, "a much longer value");
+		assertEquals(metrics.stringWidth("a much longer value"), cache.getMaxWidth(reader, metrics));
+		assertEquals(rows + ColumnReader.VERSION_CHUNK_SIZE, reader.reads);
+		assertEquals(metrics.stringWidth("a much longer value"), cache.getWidth(reader, rows - 1, metrics));
+		assertEquals(rows + ColumnReader.VERSION_CHUNK_SIZE, reader.reads);
+	}
+}
@@ -0,0 +1,205 @@
+package test;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import org.junit.Test;
+
+import main.Checkpointer;
+import main.TablrManager;
+
+public class CheckpointerTest {
+
+	private static final Duration HOUR = Duration.ofHours(1);
+
+	@Test
+	public void testUndoAfterCheckpointIsRecovered() throws IOException {
+		Path directory = Files.createTempDirectory("workspace");
+		try {
+			TablrManager manager = new TablrManager();
+			Checkpointer checkpointer = new Checkpointer(manager, directory, Long.MAX_VALUE, HOUR);
+			checkpointer.start();
+			UUID id = manager.addTable();
+			UUID other = manager.addTable();
+			manager.addColumn(id);
+			manager.addColumn(id);
+			manager.changeType(id, "Column0");
+			manager.changeType(id, "Column0");
+			for (int i = 0; i < 5; i++) {
+				manager.addRow(id);
+				manager.updateCell(id, "Column1", i, "row " + i);
+			}
+			manager.removeRow(id, 2);
+			manager.removeColumn(id, "Column1");
+			manager.setDefaultValue(id, "Column0", "3");
+			manager.removeTable(other);
+			checkpointer.checkpoint();
+			assertEquals(1, checkpointer.getCheckpointCount());
+
+			// undo commands executed before the snapshot
+			manager.undo();
+			manager.undo();
+			manager.undo();
+			manager.undo();
+			manager.setInt(id, "Column0", 0, 7);
+			checkpointer.close();
+
+			TablrManager recovered = new TablrManager();
+			Checkpointer restarted = new Checkpointer(recovered, directory, Long.MAX_VALUE, HOUR);
+			restarted.start();
+			assertEquals(manager.getTableIds(), recovered.getTableIds());
+			assertEquals(manager.getTableNames(), recovered.getTableNames());
+			assertEquals(manager.getColumnsInfo(id), recovered.getColumnsInfo(id));
+			assertEquals(manager.getColumns(id), recovered.getColumns(id));
+			assertEquals(7, recovered.getInt(id, "Column0", 0));
+			restarted.close();
+		} finally {
+			delete(directory);
+		}
+	}
+
+	@Test
+	public void testCheckpointDeletesOldSegments() throws IOException {
+		Path directory = Files.createTempDirectory("workspace");
+		try {
+			TablrManager manager = new TablrManager();
+			Checkpointer checkpointer = new Checkpointer(manager, directory, Long.MAX_VALUE, HOUR);
+			checkpointer.start();
+			UUID id = manager.addTable();
+			checkpointer.checkpoint();
+			manager.changeName(id, "Renamed");
+			checkpointer.checkpoint();
+			List<String> files = list(directory);
+			assertEquals(2, files.size());
+			assertTrue(files.get(0).endsWith(".log") && files.get(1).startsWith("snapshot-"));
+			assertTrue(checkpointer.getMaxCheckpointDuration().compareTo(checkpointer.getLastCheckpointDuration()) >= 0);
+			assertTrue(checkpointer.getLastSnapshotSize() > 0);
+			checkpointer.close();
+
+			TablrManager recovered = new TablrManager();
+			Checkpointer restarted = new Checkpointer(recovered, directory, Long.MAX_VALUE, HOUR);
+			restarted.start();
+			assertEquals(List.of("Renamed"), recovered.getTableNames());
+			restarted.close();
+		} finally {
+			delete(directory);
+		}
+	}
+
+	@Test
+	public void testLogSizeTriggersCheckpoint() throws IOException, InterruptedException {
+		Path directory = Files.createTempDirectory("workspace");
+		try {
+			TablrManager manager = new TablrManager();
+			Checkpointer checkpointer = new Checkpointer(manager, directory, 1, HOUR);
+			checkpointer.start();
+			manager.addTable();
+			for (int i = 0; i < 50 && checkpointer.getCheckpointCount() == 0; i++) {
+				Thread.sleep(100);
+			}
+			assertEquals(1, checkpointer.getCheckpointCount());
+			assertNull(checkpointer.getLastFailure());
+			assertEquals(0, manager.getLogSize());
+			checkpointer.close();
+		} finally {
+			delete(directory);
+		}
+	}
+
+	@Test
+	public void testImportIsRecoveredWithoutTheFile() throws IOException {
+		Path directory = Files.createTempDirectory("workspace");
+		Path file = Files.createTempFile("imported", ".csv");
+		try {
+			Files.writeString(file, "a,b\n1,true\n");
+			TablrManager manager = new TablrManager();
+			Checkpointer checkpointer = new Checkpointer(manager, directory, Long.MAX_VALUE, HOUR);
+			checkpointer.start();
+			UUID id = manager.importCsv(file);
+			checkpointer.close();
+			assertEquals(0, checkpointer.getCheckpointCount());
+			Files.writeString(file, "changed\nx\n");
+
+			TablrManager recovered = new TablrManager();
+			Checkpointer restarted = new Checkpointer(recovered, directory, Long.MAX_VALUE, HOUR);
+			restarted.start();
+			assertEquals(manager.getColumnsInfo(id), recovered.getColumnsInfo(id));
+			assertEquals(manager.getColumns(id), recovered.getColumns(id));
+			restarted.checkpoint();
+			restarted.close();
+			List<String> files = list(directory);
+			assertEquals(2, files.size());
+			assertTrue(files.get(0).endsWith(".log") && files.get(1).startsWith("snapshot-"));
+		} finally {
+			Files.deleteIfExists(file);
+			delete(directory);
+		}
+	}
+
+	@Test
+	public void testPauseDoesNotGrowWithTheTables() throws IOException {
+		Path directory = Files.createTempDirectory("workspace");
+		Path file = Files.createTempFile("large", ".csv");
+		try {
+			StringBuilder csv = new StringBuilder("n,text,flag\n");
+			for (int i = 0; i < 1_000_000; i++) {
+				csv.append(i).append(",word ").append(i % 1000).append(',').append(i % 3 == 0).append('\n');
+			}
+			Files.writeString(file, csv);
+			TablrManager manager = new TablrManager();
+			Checkpointer checkpointer = new Checkpointer(manager, directory, Long.MAX_VALUE, HOUR);
+			checkpointer.start();
+			UUID id = manager.importCsv(file);
+			checkpointer.checkpoint();
+			Duration pause = checkpointer.getLastPause();
+			assertTrue(pause + " of " + checkpointer.getLastCheckpointDuration(),
+					pause.compareTo(Duration.ofMillis(100)) < 0
+							&& pause.multipliedBy(10).compareTo(checkpointer.getLastCheckpointDuration()) < 0);
+			checkpointer.close();
+
+			// the restarted workspace maps the snapshot; the next snapshot copies the
+			// untouched columns from it
+			TablrManager recovered = new TablrManager();
+			Checkpointer restarted = new Checkpointer(recovered, directory, Long.MAX_VALUE, HOUR);
+			restarted.start();
+			recovered.setInt(id, "n", 0, -1);
+			restarted.checkpoint();
+			assertTrue(restarted.getLastPause().compareTo(Duration.ofMillis(100)) < 0);
+			restarted.close();
+
+			TablrManager reopened = new TablrManager();
+			Checkpointer again = new Checkpointer(reopened, directory, Long.MAX_VALUE, HOUR);
+			again.start();
+			assertEquals(-1, reopened.getInt(id, "n", 0));
+			assertEquals(999_999, reopened.getInt(id, "n", 999_999));
+			assertEquals("word 999", reopened.getCell(id, "text", 999_999));
+			assertTrue(reopened.getBoolean(id, "flag", 999_999));
+			again.close();
+		} finally {
+			Files.deleteIfExists(file);
+			delete(directory);
+		}
+	}
+
+	private static List<String> list(Path directory) throws IOException {
+		try (Stream<Path> files = Files.list(directory)) {
+			return files.map(file -> file.getFileName().toString()).sorted().toList();
+		}
+	}
+
+	private static void delete(Path directory) throws IOException {
+		try (Stream<Path> files = Files.walk(directory)) {
+			for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+				Files.delete(file);
+			}
+		}
+	}
+}
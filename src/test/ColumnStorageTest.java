@@ -0,0 +1,468 @@
+package test;
+
+import static org.junit.Assert.*;
+
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+
+import main.BoolColumnStorage;
+import main.CellColumnStorage;
+import main.ChunkedColumnStorage;
+import main.ColumnStorage;
+import main.DictionaryColumnStorage;
+import main.IntColumnStorage;
+import main.OffHeapBoolColumnStorage;
+import main.OffHeapIntColumnStorage;
+import main.OffHeapMemory;
+import main.OffHeapStringColumnStorage;
+import main.SparseColumnStorage;
+import main.StringDictionary;
+import main.StringValue;
+import org.junit.Test;
+
+public class ColumnStorageTest {
+
+	@Test
+	public void testIntStorageAddGetSet() {
+		IntColumnStorage storage = new IntColumnStorage();
+		for (int i = 0; i < 100; i++) {
+			storage.add(Integer.toString(i));
+		}
+		assertEquals(100, storage.size());
+		assertEquals("42", storage.get(42));
+		storage.set(42, "-7");
+		assertEquals(-7, storage.getInt(42));
+		storage.setInt(43, 9);
+		assertEquals("9", storage.get(43));
+	}
+
+	@Test
+	public void testIntStorageInsertAndRemoveKeepBlanksAligned() {
+		IntColumnStorage storage = new IntColumnStorage();
+		for (int i = 0; i < 130; i++) {
+			storage.add(i % 3 == 0 ? "" : Integer.toString(i));
+		}
+		storage.insert(64, "1000");
+		assertEquals(131, storage.size());
+		assertEquals("1000", storage.get(64));
+		assertFalse(storage.isBlank(65));
+		assertTrue(storage.isBlank(67));
+		assertTrue(storage.isBlank(130));
+		assertEquals("", storage.get(130));
+		storage.remove(0);
+		storage.remove(63);
+		assertEquals(129, storage.size());
+		for (int row = 0; row < storage.size(); row++) {
+			assertEquals((row + 1) % 3 == 0, storage.isBlank(row));
+		}
+	}
+
+	@Test
+	public void testIntStorageRejectsInvalidInputWithoutChange() {
+		IntColumnStorage storage = new IntColumnStorage();
+		storage.add("1");
+		assertThrows(NumberFormatException.class, () -> storage.insert(0, "abc"));
+		assertEquals(1, storage.size());
+		assertEquals("1", storage.get(0));
+		assertThrows(IndexOutOfBoundsException.class, () -> storage.get(1));
+	}
+
+	@Test
+	public void testBoolStorageCountsTrueValues() {
+		BoolColumnStorage storage = new BoolColumnStorage();
+		for (int i = 0; i < 200; i++) {
+			storage.add(i % 4 == 0 ? "TRUE" : i % 4 == 1 ? "" : "false");
+		}
+		assertEquals(50, storage.countTrue());
+		assertEquals("true", storage.get(0));
+		assertEquals("", storage.get(1));
+		assertTrue(storage.isBlank(1));
+		storage.remove(0);
+		assertEquals(49, storage.countTrue());
+		storage.insert(0, "true");
+		storage.setBoolean(1, true);
+		assertFalse(storage.isBlank(1));
+		assertEquals(51, storage.countTrue());
+		assertTrue(storage.getBoolean(4));
+	}
+
+	@Test
+	public void testDictionaryStorageCountsOnCodes() {
+		DictionaryColumnStorage storage = new DictionaryColumnStorage();
+		String[] countries = {"BE", "NL", "FR"};
+		for (int i = 0; i < 300; i++) {
+			storage.add(countries[i % 3]);
+		}
+		storage.set(0, "");
+		assertEquals(3, storage.getCardinality());
+		assertEquals(99, storage.countEqual("BE"));
+		assertEquals(1, storage.countEqual(""));
+		assertEquals(0, storage.countEqual("DE"));
+		assertTrue(storage.cellsEqual(1, 4));
+		assertFalse(storage.cellsEqual(1, 2));
+		storage.remove(1);
+		assertEquals(99, storage.countEqual("NL"));
+		assertSame(storage, storage.adapt());
+	}
+
+	@Test
+	public void testDictionaryStorageReusesReleasedCodes() {
+		DictionaryColumnStorage storage = new DictionaryColumnStorage();
+		storage.add("");
+		String typed = "";
+		for (char c : "a long value typed one key at a time".toCharArray()) {
+			typed += c;
+			storage.set(0, typed);
+		}
+		assertEquals(1, storage.getCardinality());
+		assertEquals(typed, storage.get(0));
+	}
+
+	@Test
+	public void testDictionaryStorageConvertsWhenCardinalityIsHigh() {
+		DictionaryColumnStorage storage = new DictionaryColumnStorage();
+		ColumnStorage adapted = storage;
+		for (int i = 0; i < 1000; i++) {
+			adapted.add("value" + i);
+			adapted = adapted.adapt();
+		}
+		assertTrue(adapted instanceof CellColumnStorage);
+		assertEquals(1000, adapted.size());
+		assertEquals("value999", adapted.get(999));
+		assertEquals(1, adapted.countEqual("value500"));
+	}
+
+	@Test
+	public void testChunkedBlocksShareDictionary() {
+		StringDictionary dictionary = new StringDictionary();
+		ChunkedColumnStorage chunked = new ChunkedColumnStorage(() -> new DictionaryColumnStorage(dictionary));
+		String[] countries = {"BE", "NL", "FR"};
+		int rows = 3 * ChunkedColumnStorage.BLOCK_SIZE;
+		for (int i = 0; i < rows; i++) {
+			chunked.add(countries[i % 3]);
+			chunked.adapt();
+		}
+		chunked.insert(1, "DE");
+		chunked.adapt();
+		assertEquals(4, chunked.getNumberOfBlocks());
+		assertEquals(4, dictionary.size());
+		assertEquals(rows + 1, dictionary.references());
+		assertEquals(rows / 3, chunked.countEqual("BE"));
+		assertEquals(1, chunked.countEqual("DE"));
+		chunked.remove(1);
+		assertEquals(3, dictionary.size());
+		assertEquals("NL", chunked.get(1));
+		chunked.close();
+		assertEquals(0, dictionary.references());
+	}
+
+	@Test
+	public void testChunkedStorageAdaptsEveryAppendedBlock() {
+		StringDictionary dictionary = new StringDictionary();
+		ChunkedColumnStorage chunked = new ChunkedColumnStorage(() -> new DictionaryColumnStorage(dictionary));
+		int rows = 3 * ChunkedColumnStorage.BLOCK_SIZE;
+		for (int i = 0; i < rows; i++) {
+			chunked.add("value" + i);
+		}
+		assertEquals(rows, dictionary.references());
+		assertSame(chunked, chunked.adapt());
+		assertEquals(0, dictionary.references());
+		assertEquals("value" + (rows - 1), chunked.get(rows - 1));
+		assertEquals(1, chunked.countEqual("value7"));
+	}
+
+	@Test
+	public void testConvertedBlocksStayPlain() {
+		StringDictionary dictionary = new StringDictionary();
+		ChunkedColumnStorage chunked = new ChunkedColumnStorage(() -> DictionaryColumnStorage.paysOff(dictionary)
+				? new DictionaryColumnStorage(dictionary) : new CellColumnStorage(StringValue::new));
+		for (int i = 0; i < ChunkedColumnStorage.BLOCK_SIZE; i++) {
+			chunked.add("value" + i);
+			chunked.adapt();
+		}
+		assertEquals(0, dictionary.references());
+		for (int i = 0; i < ChunkedColumnStorage.BLOCK_SIZE; i++) {
+			chunked.set(i, "same");
+			chunked.adapt();
+		}
+		assertEquals(0, dictionary.references());
+		for (int i = 0; i < ChunkedColumnStorage.BLOCK_SIZE; i++) {
+			chunked.add("other");
+			chunked.adapt();
+		}
+		assertEquals(2, chunked.getNumberOfBlocks());
+		assertEquals(ChunkedColumnStorage.BLOCK_SIZE, dictionary.references());
+		assertEquals(ChunkedColumnStorage.BLOCK_SIZE, chunked.countEqual("same"));
+		assertEquals(ChunkedColumnStorage.BLOCK_SIZE, chunked.countEqual("other"));
+	}
+
+	@Test
+	public void testOffHeapIntAndBoolStorage() {
+		try (OffHeapMemory memory = new OffHeapMemory()) {
+			OffHeapIntColumnStorage ints = new OffHeapIntColumnStorage(memory);
+			OffHeapBoolColumnStorage bools = new OffHeapBoolColumnStorage(memory);
+			for (int i = 0; i < 1000; i++) {
+				ints.add(i % 10 == 0 ? "" : Integer.toString(i));
+				bools.add(i % 2 == 0 ? "true" : "false");
+			}
+			ints.insert(0, "-1");
+			bools.remove(0);
+			assertEquals(1001, ints.size());
+			assertEquals(-1, ints.getInt(0));
+			assertTrue(ints.isBlank(1));
+			assertEquals("999", ints.get(1000));
+			assertEquals(499, bools.countTrue());
+			assertEquals("false", bools.get(0));
+			assertTrue(memory.getAllocatedBytes() > 0);
+		}
+	}
+
+	@Test
+	public void testOffHeapMemoryReusesFreedSegments() {
+		try (OffHeapMemory memory = new OffHeapMemory()) {
+			long reserved = 0;
+			for (int i = 0; i < 1000; i++) {
+				MemorySegment grown = memory.grow(memory.allocate(100), 5000);
+				grown.set(ValueLayout.JAVA_LONG, 0, i + 1);
+				memory.free(grown);
+				if (i == 0) {
+					reserved = memory.getReservedBytes();
+				}
+			}
+			assertEquals(0, memory.getAllocatedBytes());
+			assertEquals(reserved, memory.getReservedBytes());
+			MemorySegment segment = memory.allocate(5000);
+			assertEquals(0, segment.get(ValueLayout.JAVA_LONG, 0));
+			assertEquals(reserved, memory.getReservedBytes());
+		}
+	}
+
+	@Test
+	public void testFrozenChunkedStorageCopiesOnlyModifiedBlocks() {
+		try (OffHeapMemory memory = new OffHeapMemory()) {
+			ColumnStorage storage = new ChunkedColumnStorage(() -> new OffHeapIntColumnStorage(memory));
+			for (int i = 0; i < 10 * ChunkedColumnStorage.BLOCK_SIZE; i++) {
+				storage.addInt(i);
+			}
+			long allocated = memory.getAllocatedBytes();
+			ColumnStorage frozen = storage.freeze();
+			assertEquals(allocated, memory.getAllocatedBytes());
+
+			storage.setInt(5, -1);
+			long copied = memory.getAllocatedBytes() - allocated;
+			assertTrue(copied > 0 && copied * 5 < allocated);
+			storage.setInt(6, -2);
+			storage.remove(7);
+			assertEquals(allocated + copied, memory.getAllocatedBytes());
+			assertEquals(-1, storage.getInt(5));
+			assertEquals(8, storage.getInt(7));
+			assertEquals(5, frozen.getInt(5));
+			assertEquals(6, frozen.getInt(6));
+			assertEquals(7, frozen.getInt(7));
+			assertEquals(10 * ChunkedColumnStorage.BLOCK_SIZE, frozen.size());
+
+			// the block only the frozen storage still held is freed, the shared ones are not
+			frozen.close();
+			assertEquals(allocated, memory.getAllocatedBytes());
+			storage.setInt(ChunkedColumnStorage.BLOCK_SIZE * 5, 0);
+			assertEquals(allocated, memory.getAllocatedBytes());
+		}
+	}
+
+	@Test
+	public void testFrozenSparseStorageKeepsItsEntries() {
+		ColumnStorage storage = new SparseColumnStorage("int", "0", s -> s, IntColumnStorage::new);
+		for (int i = 0; i < 1000; i++) {
+			storage.addInt(i % 100 == 0 ? i : 0);
+		}
+		ColumnStorage frozen = storage.freeze();
+		storage.setInt(100, 1);
+		storage.setInt(101, 2);
+		storage.insert(0, "");
+		assertEquals(1, storage.getInt(101));
+		assertEquals(2, storage.getInt(102));
+		assertTrue(storage.isBlank(0));
+		assertEquals(1000, frozen.size());
+		assertEquals(100, frozen.getInt(100));
+		assertEquals(0, frozen.getInt(101));
+		assertFalse(frozen.isBlank(0));
+		assertEquals(9, ((SparseColumnStorage) frozen).getNumberOfEntries());
+	}
+
+	@Test
+	public void testRetiredDictionaryKeepsItsCodes() {
+		StringDictionary dictionary = new StringDictionary();
+		ColumnStorage storage = new DictionaryColumnStorage(dictionary);
+		storage.add("a");
+		storage.add("b");
+		dictionary.retire();
+		storage.close();
+		assertEquals(0, dictionary.codeOf("a"));
+		assertEquals("b", dictionary.valueOf(dictionary.codeOf("b")));
+	}
+
+	@Test
+	public void testOffHeapStringStorageReclaimsOverwrittenValues() {
+		OffHeapMemory memory = new OffHeapMemory();
+		OffHeapStringColumnStorage strings = new OffHeapStringColumnStorage(memory);
+		for (int i = 0; i < 100; i++) {
+			strings.add("row " + i);
+		}
+		strings.set(5, "");
+		strings.set(6, "caf\u00e9");
+		for (int i = 0; i < 10000; i++) {
+			strings.set(7, "edit " + i);
+		}
+		long allocated = memory.getAllocatedBytes();
+		assertTrue(allocated < 64 * 1024);
+		assertEquals("", strings.get(5));
+		assertTrue(strings.isBlank(5));
+		assertEquals("caf\u00e9", strings.get(6));
+		assertEquals("edit 9999", strings.get(7));
+		assertEquals("row 99", strings.get(99));
+		assertEquals(1, strings.countEqual("row 42"));
+		assertEquals(1, strings.countEqual(""));
+		memory.close();
+		assertEquals(0, memory.getAllocatedBytes());
+		assertThrows(IllegalStateException.class, () -> strings.get(0));
+	}
+
+	@Test
+	public void testChunkedStorageMatchesFlatStorage() {
+		ChunkedColumnStorage chunked = new ChunkedColumnStorage(IntColumnStorage::new);
+		IntColumnStorage flat = new IntColumnStorage();
+		int rows = 3 * ChunkedColumnStorage.BLOCK_SIZE;
+		for (int i = 0; i < rows; i++) {
+			chunked.add(Integer.toString(i));
+			flat.add(Integer.toString(i));
+		}
+		assertEquals(3, chunked.getNumberOfBlocks());
+		for (int i = 0; i < 500; i++) {
+			int index = (i * 7919) % chunked.size();
+			chunked.insert(index, Integer.toString(-i));
+			flat.insert(index, Integer.toString(-i));
+			chunked.remove(0);
+			flat.remove(0);
+		}
+		chunked.set(rows - 1, "");
+		flat.set(rows - 1, "");
+		assertEquals(flat.size(), chunked.size());
+		for (int i = 0; i < flat.size(); i++) {
+			assertEquals(flat.get(i), chunked.get(i));
+		}
+		assertTrue(chunked.isBlank(rows - 1));
+	}
+
+	@Test
+	public void testChunkedStorageSplitsAndDropsBlocks() {
+		ChunkedColumnStorage chunked = new ChunkedColumnStorage(BoolColumnStorage::new);
+		for (int i = 0; i < ChunkedColumnStorage.BLOCK_SIZE; i++) {
+			chunked.add("true");
+		}
+		chunked.insert(0, "false");
+		assertEquals(2, chunked.getNumberOfBlocks());
+		assertEquals("false", chunked.get(0));
+		assertEquals(ChunkedColumnStorage.BLOCK_SIZE, chunked.countTrue());
+		while (chunked.size() > 0) {
+			chunked.remove(0);
+		}
+		assertEquals(1, chunked.getNumberOfBlocks());
+		chunked.add("true");
+		assertEquals(1, chunked.countTrue());
+	}
+
+	@Test
+	public void testSparseStorageStoresOnlyEditedCells() {
+		SparseColumnStorage sparse = new SparseColumnStorage("0",
+				value -> Integer.toString(Integer.parseInt(value)), IntColumnStorage::new);
+		for (int i = 0; i < 1000; i++) {
+			sparse.add("0");
+		}
+		sparse.set(10, "007");
+		sparse.set(20, "");
+		sparse.insert(0, "5");
+		sparse.add("00");
+		assertEquals(3, sparse.getNumberOfEntries());
+		assertEquals("7", sparse.get(11));
+		assertTrue(sparse.isBlank(21));
+		assertEquals("0", sparse.get(1000));
+		assertEquals(999, sparse.countEqual("0"));
+		sparse.set(11, "0");
+		sparse.remove(0);
+		assertEquals(1, sparse.getNumberOfEntries());
+		assertTrue(sparse.isBlank(20));
+		assertSame(sparse, sparse.adapt());
+	}
+
+	@Test
+	public void testSparseStorageTurnsDense() {
+		SparseColumnStorage sparse = new SparseColumnStorage("x", value -> value, IntColumnStorage::new);
+		for (int i = 0; i < 100; i++) {
+			sparse.add(Integer.toString(i % 10 == 0 ? i : 0));
+		}
+		ColumnStorage adapted = sparse.adapt();
+		assertTrue(adapted instanceof IntColumnStorage);
+		assertEquals(100, adapted.size());
+		assertEquals("90", adapted.get(90));
+		assertEquals("0", adapted.get(91));
+	}
+
+	@Test
+	public void testSparseStorageKeepsTypedValues() {
+		int[] normalized = new int[1];
+		SparseColumnStorage sparse = new SparseColumnStorage("int", "7", value -> {
+			normalized[0]++;
+			return value;
+		}, IntColumnStorage::new);
+		for (int i = 0; i < 1000; i++) {
+			sparse.addInt(7);
+		}
+		sparse.setInt(10, -3);
+		sparse.setInt(20, 7);
+		sparse.set(30, "");
+		sparse.insert(0, "0042");
+		assertEquals(3, sparse.getNumberOfEntries());
+		assertEquals(42, sparse.getInt(0));
+		assertEquals(-3, sparse.getInt(11));
+		assertEquals(7, sparse.getInt(21));
+		assertEquals(0, sparse.getInt(31));
+		assertTrue(sparse.isBlank(31));
+		assertEquals("-3", sparse.get(11));
+		assertEquals("42", sparse.get(0));
+		assertEquals(998, sparse.countEqual("7"));
+		assertEquals(1, sparse.countEqual("-3"));
+		assertEquals(0, sparse.countEqual("07"));
+		assertEquals(1, sparse.countEqual(""));
+		assertEquals(0, normalized[0]);
+		for (int i = 0; i < 200; i++) {
+			sparse.setInt(i * 5, i);
+		}
+		ColumnStorage adapted = sparse.adapt();
+		assertTrue(adapted instanceof IntColumnStorage);
+		assertEquals(1001, adapted.size());
+		assertEquals(199, adapted.getInt(995));
+		assertEquals(7, adapted.getInt(996));
+		assertTrue(adapted.isBlank(31));
+		assertEquals(0, normalized[0]);
+	}
+
+	@Test
+	public void testSparseBoolStorageCountsWithoutParsing() {
+		SparseColumnStorage sparse = new SparseColumnStorage("bool", "TRUE", value -> {
+			throw new AssertionError("normalized " + value);
+		}, BoolColumnStorage::new);
+		for (int i = 0; i < 100; i++) {
+			sparse.addBoolean(i % 10 != 0);
+		}
+		sparse.setBoolean(1, false);
+		sparse.set(2, "");
+		assertFalse(sparse.getBoolean(1));
+		assertTrue(sparse.getBoolean(3));
+		assertFalse(sparse.getBoolean(2));
+		assertEquals("false", sparse.get(0));
+		assertEquals(88, sparse.countTrue());
+		assertEquals(88, sparse.countEqual("true"));
+		assertEquals(11, sparse.countEqual("false"));
+		assertEquals(0, sparse.countEqual("TRUE"));
+	}
+}
@@ -3,6 +3,7 @@ package test;
 import static org.junit.Assert.*;
 
 import main.Column;
+import main.ColumnReader;
 import org.junit.Test;
 
 import java.util.List;
@@ -127,4 +128,108 @@ public class ColumnTest {
 		integerCol.setDefaultValue("1");
 		assertEquals("1", integerCol.getDefaultValue());
 	}
+
+	@Test
+	public void testIntColumnBlanks() {
+		Column integer = new Column("Integer", "int", true, "5");
+		integer.addCell();
+		integer.addCell();
+		integer.updateCell(1, "");
+		assertEquals("5", integer.getCell(0));
+		assertEquals("", integer.getCell(1));
+		integer.insertCell(1);
+		assertEquals("5", integer.getCell(1));
+		assertEquals("", integer.getCell(2));
+		integer.removeRow(0);
+		assertEquals(List.of("5", ""), integer.getColumn());
+	}
+
+	@Test
+	public void testIntColumnRejectsBlankWhenNotAllowed() {
+		Column integer = new Column("Integer", "int", false, "5");
+		integer.addCell();
+		assertThrows(IllegalArgumentException.class, () -> integer.updateCell(0, ""));
+		assertThrows(IllegalArgumentException.class, () -> integer.updateCell(0, "x"));
+		assertEquals("5", integer.getCell(0));
+	}
+
+	@Test
+	public void testCountTrue() {
+		Column bool = new Column("Bool", "bool", true, "true");
+		for (int i = 0; i < 10; i++) {
+			bool.addCell();
+		}
+		bool.updateCell(3, "false");
+		bool.updateCell(4, "");
+		assertEquals(8, bool.countTrue());
+		assertEquals("", bool.getCell(4));
+	}
+
+	@Test
+	public void testCountEqual() {
+		Column string = new Column("Status", "string", true, "open");
+		for (int i = 0; i < 10; i++) {
+			string.addCell();
+		}
+		string.updateCell(0, "closed");
+		string.updateCell(1, "");
+		assertEquals(8, string.countEqual("open"));
+		assertEquals(1, string.countEqual("closed"));
+		assertEquals(1, string.countEqual(""));
+	}
+
+	@Test
+	public void testParsedDefaultValueIsShared() {
+		Column column = new Column("Custom", "string", true, "shared");
+		assertSame(column.parseInput("shared"), column.parseInput("shared"));
+		assertNotSame(column.parseInput("other"), column.parseInput("other"));
+		column.setDefaultValue("changed");
+		assertEquals("changed", column.parseInput("changed").toString());
+		assertSame(column.parseInput("changed"), column.parseInput("changed"));
+	}
+
+	@Test
+	public void testTypedAccessors() {
+		Column integer = new Column("Integer", "int", true, "5");
+		Column bool = new Column("Bool", "bool", true, "false");
+		for (int i = 0; i < 100; i++) {
+			integer.addCell();
+			bool.addCell();
+			integer.setInt(i, i * 3);
+			bool.setBoolean(i, i % 2 == 0);
+		}
+		integer.updateCell(7, "");
+		assertEquals(9, integer.getInt(3));
+		assertEquals("9", integer.getCell(3));
+		assertTrue(integer.isBlank(7));
+		assertEquals(0, integer.getInt(7));
+		assertTrue(bool.getBoolean(4));
+		assertFalse(bool.getBoolean(5));
+		assertEquals(50, bool.countTrue());
+		assertThrows(IllegalArgumentException.class, () -> integer.setBoolean(0, true));
+		assertThrows(IllegalArgumentException.class, () -> bool.setInt(0, 1));
+	}
+
+	@Test
+	public void testChunkVersions() {
+		Column column = new Column("StringColumn", "string", true, "");
+		for (int i = 0; i < 3 * ColumnReader.VERSION_CHUNK_SIZE; i++) {
+			column.addCell();
+		}
+		ColumnReader reader = column.reader();
+		long first = reader.getVersion(0);
+		long second = reader.getVersion(1);
+		long third = reader.getVersion(2);
+
+		column.updateCell(ColumnReader.VERSION_CHUNK_SIZE + 5, "a");
+		assertEquals(first, reader.getVersion(0));
+		assertNotEquals(second, reader.getVersion(1));
+		assertEquals(third, reader.getVersion(2));
+
+		second = reader.getVersion(1);
+		column.removeRow(ColumnReader.VERSION_CHUNK_SIZE);
+		assertEquals(first, reader.getVersion(0));
+		assertNotEquals(second, reader.getVersion(1));
+		assertNotEquals(third, reader.getVersion(2));
+	}
 }
@@ -0,0 +1,180 @@
+package test;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import org.junit.Test;
+
+import main.CommandLog;
+import main.CommandRecord;
+import main.TablrManager;
+
+public class CommandLogTest {
+
+	@Test
+	public void testAppendAndRead() throws IOException {
+		Path file = Files.createTempFile("commands", ".log");
+		try {
+			UUID table = UUID.randomUUID();
+			List<CommandRecord> records = List.of(
+					new CommandRecord.AddTable(table, "T\u00e4ble"),
+					new CommandRecord.UpdateCell(table, "Column0", 3, null),
+					new CommandRecord.SetBoolean(table, "Column1", 0, true),
+					new CommandRecord.RemoveRow(table, 2));
+			try (CommandLog log = new CommandLog(file)) {
+				for (CommandRecord record : records) {
+					log.append(record);
+				}
+				log.sync();
+				assertEquals(records, CommandLog.read(file));
+			}
+			assertEquals(records, CommandLog.read(file));
+		} finally {
+			Files.delete(file);
+		}
+	}
+
+	@Test
+	public void testTornRecordIsCutOff() throws IOException {
+		Path file = Files.createTempFile("commands", ".log");
+		try {
+			UUID table = UUID.randomUUID();
+			try (CommandLog log = new CommandLog(file)) {
+				log.append(new CommandRecord.AddRow(table));
+				log.append(new CommandRecord.AddRow(table));
+			}
+			long complete = Files.size(file);
+			try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+				channel.truncate(complete - 3);
+			}
+			assertEquals(List.of(new CommandRecord.AddRow(table)), CommandLog.read(file));
+			assertEquals(complete / 2, Files.size(file));
+			try (CommandLog log = new CommandLog(file)) {
+				log.append(new CommandRecord.AddColumn(table));
+			}
+			assertEquals(List.of(new CommandRecord.AddRow(table), new CommandRecord.AddColumn(table)), CommandLog.read(file));
+		} finally {
+			Files.delete(file);
+		}
+	}
+
+	@Test
+	public void testRecover() throws IOException {
+		Path directory = Files.createTempDirectory("workspace");
+		Path snapshot = directory.resolve("workspace.tablr");
+		Path logFile = directory.resolve("commands.log");
+		try {
+			TablrManager manager = new TablrManager();
+			manager.recover(snapshot, logFile);
+			UUID id = manager.addTable();
+			manager.addColumn(id);
+			manager.addRow(id);
+			manager.addRow(id);
+			manager.updateCell(id, "Column0", 1, "saved");
+			manager.closeLog();
+			manager.save(snapshot);
+			Files.delete(logFile);
+
+			manager.recover(snapshot, logFile);
+			manager.updateCell(id, "Column0", 0, "logged");
+			manager.addColumn(id);
+			manager.undo();
+			manager.removeRow(id, 1);
+			manager.undo();
+			manager.redo();
+			UUID second = manager.addTable();
+			manager.changeName(second, "Second");
+			manager.syncLog();
+			manager.closeLog();
+
+			TablrManager recovered = new TablrManager();
+			recovered.recover(snapshot, logFile);
+			assertEquals(manager.getTableIds(), recovered.getTableIds());
+			assertEquals(manager.getTableNames(), recovered.getTableNames());
+			assertEquals(manager.getColumnsInfo(id), recovered.getColumnsInfo(id));
+			assertEquals(manager.getColumns(id), recovered.getColumns(id));
+			recovered.undo();
+			recovered.undo();
+			recovered.undo();
+			assertEquals(2, recovered.getColumns(id).get(0).size());
+			assertEquals(List.of(id), recovered.getTableIds());
+			recovered.closeLog();
+		} finally {
+			Files.deleteIfExists(snapshot);
+			Files.deleteIfExists(logFile);
+			Files.delete(directory);
+		}
+	}
+
+	@Test
+	public void testRestoredTablesAreLoggedAsFiles() throws IOException {
+		Path directory = Files.createTempDirectory("workspace");
+		Path snapshot = directory.resolve("workspace.tablr");
+		Path logFile = directory.resolve("commands.log");
+		try {
+			TablrManager manager = new TablrManager();
+			manager.recover(snapshot, logFile);
+			UUID id = manager.addTable();
+			manager.addColumn(id);
+			manager.addColumn(id);
+			for (int i = 0; i < 1000; i++) {
+				manager.addRow(id);
+				manager.updateCell(id, "Column1", i, "a somewhat longer value in row " + i);
+			}
+			long size = manager.getLogSize();
+			manager.removeColumn(id, "Column1");
+			manager.undo();
+			manager.removeTable(id);
+			manager.undo();
+			assertTrue(manager.getLogSize() - size < 1000);
+			manager.closeLog();
+
+			TablrManager recovered = new TablrManager();
+			recovered.recover(snapshot, logFile);
+			assertEquals(List.of(id), recovered.getTableIds());
+			assertEquals(manager.getColumnsInfo(id), recovered.getColumnsInfo(id));
+			assertEquals(manager.getColumns(id), recovered.getColumns(id));
+			recovered.closeLog();
+
+			CommandLog.delete(logFile);
+			try (Stream<Path> files = Files.list(directory)) {
+				assertEquals(0, files.count());
+			}
+		} finally {
+			CommandLog.delete(logFile);
+			Files.delete(directory);
+		}
+	}
+
+	@Test
+	public void testCommandsAreOnDiskWhenTheyReturn() throws IOException {
+		Path directory = Files.createTempDirectory("workspace");
+		Path snapshot = directory.resolve("workspace.tablr");
+		Path logFile = directory.resolve("commands.log");
+		try {
+			TablrManager manager = new TablrManager();
+			manager.recover(snapshot, logFile);
+			UUID id = manager.addTable();
+			assertEquals(manager.getLogSize(), Files.size(logFile));
+			manager.addColumn(id);
+			manager.addRow(id);
+			manager.updateCell(id, "Column0", 0, "durable");
+			assertEquals(manager.getLogSize(), Files.size(logFile));
+			manager.undo();
+			assertEquals(manager.getLogSize(), Files.size(logFile));
+			assertEquals(5, CommandLog.read(logFile).size());
+			manager.closeLog();
+		} finally {
+			CommandLog.delete(logFile);
+			Files.delete(directory);
+		}
+	}
+}
@@ -0,0 +1,129 @@
+package test;
+
+import static org.junit.Assert.*;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.Test;
+
+import main.CommandLog;
+import main.CsvImporter;
+import main.TablrManager;
+
+public class CsvImporterTest {
+
+	@Test
+	public void testImportInfersTypes() throws IOException {
+		Path file = Files.createTempFile("people", ".csv");
+		try {
+			Files.writeString(file, "name,age,member,note\r\n"
+					+ "Ann,31,true,\"likes \"\"tea\"\", coffee\"\r\n"
+					+ "\r\n"
+					+ "\"Böb\",,FALSE,\"two\nlines\"\r\n"
+					+ "Cy,-7\r\n");
+			TablrManager manager = new TablrManager();
+			UUID id = manager.importCsv(file);
+			String name = file.getFileName().toString();
+			assertEquals(List.of(name.substring(0, name.length() - 4)), manager.getTableNames());
+			assertEquals(List.of("name", "age", "member", "note"), manager.getColumnNames(id));
+			assertEquals("string", manager.getClass(id, "name"));
+			assertEquals("int", manager.getClass(id, "age"));
+			assertEquals("bool", manager.getClass(id, "member"));
+			assertEquals(List.of("Ann", "Böb", "Cy"), manager.getColumns(id).get(0));
+			assertEquals(List.of("31", "", "-7"), manager.getColumns(id).get(1));
+			assertEquals(List.of("true", "false", ""), manager.getColumns(id).get(2));
+			assertEquals(List.of("likes \"tea\", coffee", "two\nlines", ""), manager.getColumns(id).get(3));
+			assertEquals(-7, manager.getInt(id, "age", 2));
+
+			manager.undo();
+			assertTrue(manager.getTableIds().isEmpty());
+			manager.redo();
+			assertEquals(List.of(id), manager.getTableIds());
+		} finally {
+			Files.delete(file);
+		}
+	}
+
+	@Test
+	public void testValueAfterSampleTurnsColumnIntoStrings() throws IOException {
+		Path file = Files.createTempFile("numbers", ".csv");
+		int rows = CsvImporter.SAMPLE_SIZE * 400;
+		try {
+			try (BufferedWriter out = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+				out.write("n,square,even,text\n");
+				for (int i = 0; i < rows; i++) {
+					out.write(i + "," + (i == rows - 1 ? "many" : Long.toString((long) i * i)) + "," + (i % 2 == 0)
+							+ ",\"row\n" + i + "\"\n");
+				}
+			}
+			TablrManager manager = new TablrManager();
+			UUID id = manager.importCsv(file);
+			assertEquals("int", manager.getClass(id, "n"));
+			assertEquals("string", manager.getClass(id, "square"));
+			assertEquals("bool", manager.getClass(id, "even"));
+			List<List<String>> columns = manager.getColumns(id);
+			assertEquals(rows, columns.get(0).size());
+			for (int i = 0; i < rows; i += 997) {
+				assertEquals(Integer.toString(i), columns.get(0).get(i));
+				assertEquals(Long.toString((long) i * i), columns.get(1).get(i));
+				assertEquals(i % 2 == 0, manager.getBoolean(id, "even", i));
+				assertEquals("row\n" + i, columns.get(3).get(i));
+			}
+			assertEquals("many", columns.get(1).get(rows - 1));
+		} finally {
+			Files.delete(file);
+		}
+	}
+
+	@Test
+	public void testImportEmptyFile() throws IOException {
+		Path file = Files.createTempFile("empty", ".csv");
+		try {
+			TablrManager manager = new TablrManager();
+			UUID id = manager.importCsv(file);
+			assertEquals(0, manager.getNumberOfColumns(id));
+		} finally {
+			Files.delete(file);
+		}
+	}
+
+	@Test
+	public void testImportIsLoggedAsFile() throws IOException {
+		Path directory = Files.createTempDirectory("workspace");
+		Path file = directory.resolve("numbers.csv");
+		Path snapshot = directory.resolve("workspace.tablr");
+		Path logFile = directory.resolve("commands.log");
+		try {
+			try (BufferedWriter out = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+				out.write("n,text\n");
+				for (int i = 0; i < 10000; i++) {
+					out.write(i + ",row " + i + "\n");
+				}
+			}
+			TablrManager manager = new TablrManager();
+			manager.recover(snapshot, logFile);
+			UUID id = manager.importCsv(file);
+			manager.closeLog();
+			assertTrue(Files.size(logFile) < 200);
+			Files.delete(file);
+
+			TablrManager recovered = new TablrManager();
+			recovered.recover(snapshot, logFile);
+			assertEquals(List.of(id), recovered.getTableIds());
+			assertEquals(List.of("numbers"), recovered.getTableNames());
+			assertEquals(manager.getColumnsInfo(id), recovered.getColumnsInfo(id));
+			assertEquals(manager.getColumns(id), recovered.getColumns(id));
+			recovered.closeLog();
+		} finally {
+			Files.deleteIfExists(file);
+			CommandLog.delete(logFile);
+			Files.delete(directory);
+		}
+	}
+}
@@ -109,7 +109,7 @@ public class FlowTests {
 		TablrManager mgr = new TablrManager();
 
 		replaySession(mgr, "SessionRecordings/createMultipleTables/createMultipleTables");
-		List<String> tables = mgr.getTableNames();
+		List<String> tables = new ArrayList<>(mgr.getTableNames());
 //		delete table 1 and 4
 		mgr = new TablrManager();
 		replaySession(mgr, "SessionRecordings/deleteMultipleTables/deleteMultipleTables");
@@ -124,7 +124,7 @@ public class FlowTests {
 		TablrManager mgr = new TablrManager();
 
 		replaySession(mgr, "SessionRecordings/createMultipleTables/createMultipleTables");
-		List<String> tables = mgr.getTableNames();
+		List<String> tables = new ArrayList<>(mgr.getTableNames());
 		List<String> originalTables = mgr.getTableNames();
 
 //		delete table 1 and 4
@@ -139,14 +139,14 @@ public class FlowTests {
 //		undo
 		view.handleCtrlZ();
 		view.handleCtrlZ();
-		List<String> newTables = mgr.getTableNames();
+		List<String> newTables = new ArrayList<>(mgr.getTableNames());
 		Collections.sort(newTables);
 		assertArrayEquals(originalTables.toArray(), newTables.toArray());
 
 //				redo
 		view.handleCtrlShiftZ();
 		view.handleCtrlShiftZ();
-		newTables = mgr.getTableNames();
+		newTables = new ArrayList<>(mgr.getTableNames());
 		Collections.sort(newTables);
 		assertArrayEquals(tables.toArray(), newTables.toArray());
 
@@ -0,0 +1,62 @@
+package test;
+
+import static org.junit.Assert.*;
+
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import main.LayoutInfo;
+
+public class LayoutInfoTest {
+
+	@Test
+	public void elementXNumberTest() {
+		LayoutInfo.ViewLayout layout = new LayoutInfo().getTableLayout(null).getViewLayout(LayoutInfoTest.class);
+		assertEquals(-1, layout.getElementXNumber(30));
+		layout.setWidths(List.of(50, 30, 40));
+		long version = layout.getVersion();
+		layout.setWidth(1, 30);
+		assertTrue(layout.getVersion() > version);
+		assertEquals(0, layout.getElementXNumber(5));
+		assertEquals(0, layout.getElementXNumber(69));
+		assertEquals(1, layout.getElementXNumber(70));
+		assertEquals(2, layout.getElementXNumber(139));
+		assertEquals(-1, layout.getElementXNumber(140));
+		assertEquals(120, layout.getTotalWidth());
+		assertEquals(100, layout.getElementStart(2));
+	}
+
+	@Test
+	public void resizeAddAndDeleteTest() {
+		LayoutInfo.ViewLayout layout = new LayoutInfo().getTableLayout(null).getViewLayout(LayoutInfoTest.class);
+		Random random = new Random(7);
+		int[] widths = new int[1000];
+		for (int i = 0; i < widths.length; i++) {
+			widths[i] = random.nextInt(100);
+			layout.addElement(widths[i]);
+		}
+		for (int i = 0; i < 200; i++) {
+			int element = random.nextInt(widths.length);
+			widths[element] = random.nextInt(100);
+			layout.setWidth(element, widths[element]);
+		}
+		layout.setWidth(3, -10);
+		widths[3] = 0;
+		int start = 20;
+		for (int i = 0; i < widths.length; i++) {
+			assertEquals(start, layout.getElementStart(i));
+			if (widths[i] > 0) {
+				assertEquals(i, layout.getElementXNumber(start));
+				assertEquals(i, layout.getElementXNumber(start + widths[i] - 1));
+			}
+			start += widths[i];
+		}
+		assertEquals(-1, layout.getElementXNumber(start));
+		layout.deleteElement(0);
+		assertEquals(20 + widths[1], layout.getElementStart(1));
+		assertEquals(widths.length - 1, layout.getWidths().size());
+		assertThrows(UnsupportedOperationException.class, () -> layout.getWidths().add(1));
+	}
+}
@@ -7,7 +7,10 @@ import static org.junit.Assert.*;
 
 import org.junit.Test;
 
+import java.util.List;
+
 import main.Column;
+import main.ColumnReader;
 import main.Table;
 /**
  * 
@@ -146,4 +149,112 @@ public class TableTest {
 		assertThrows(Exception.class, () -> t.changeAllowBlanks("notColumn"));
 	}
 
+	@Test
+	public void moveOffHeapTest() {
+		Table t = new Table("name");
+		t.addColumn(t.newColumn());
+		t.addRow();
+		t.updateCell("Column0", 0, "kept");
+		t.moveOffHeap();
+		assertTrue(t.isOffHeap());
+		assertEquals("kept", t.getCell("Column0", 0));
+		t.addColumn(t.newColumn());
+		t.addRow();
+		assertTrue(t.findColumn("Column1").isOffHeap());
+		assertEquals(t.getDefaultValue("Column1"), t.getCell("Column1", 1));
+		assertTrue(t.getOffHeapBytes() > 0);
+		t.close();
+		assertEquals(0, t.getOffHeapBytes());
+	}
+
+	@Test
+	public void columnIndexTest() {
+		Table t = new Table("name");
+		for (int i = 0; i < 3; i++) {
+			t.addColumn(t.newColumn());
+		}
+		assertEquals(1, t.getColumnIndex("Column1"));
+		t.renameColumn("Column1", "renamed");
+		assertNull(t.findColumn("Column1"));
+		assertEquals(1, t.getColumnIndex("renamed"));
+		t.renameColumn("Column0", "renamed");
+		assertEquals("Column0", t.getColumnNames().get(0));
+		t.removeColumn("Column0");
+		assertEquals(0, t.getColumnIndex("renamed"));
+		assertEquals(1, t.getColumnIndex("Column2"));
+		assertEquals(-1, t.getColumnIndex("Column0"));
+		t.addColumn(t.newColumn());
+		assertEquals("Column0", t.getColumnNames().get(2));
+		t.changeColumn("renamed", new Column("replaced", "int", true, "0"));
+		assertNull(t.findColumn("renamed"));
+		assertEquals("int", t.findColumn("replaced").getType());
+		assertEquals(0, t.getColumnIndex("replaced"));
+	}
+
+	@Test
+	public void columnReadersTest() {
+		Table t = new Table("name");
+		t.addColumn(t.newColumn());
+		t.addColumn(new Column("Integer", "int", true, "1"));
+		List<ColumnReader> readers = t.getColumnReaders();
+		assertEquals(2, readers.size());
+		assertEquals(0, readers.get(0).size());
+		for (int i = 0; i < 100; i++) {
+			t.addRow();
+			t.updateCell("Integer", i, Integer.toString(i));
+		}
+		t.updateCell("Column0", 3, "");
+		assertEquals(100, readers.get(1).size());
+		assertEquals("42", readers.get(1).get(42));
+		assertEquals(42, readers.get(1).getInt(42));
+		assertEquals("x", readers.get(0).get(2));
+		assertTrue(readers.get(0).isBlank(3));
+		t.removeRow(0);
+		assertEquals("43", readers.get(1).get(42));
+	}
+
+	@Test
+	public void snapshotTest() {
+		Table t = new Table("name");
+		t.addColumn(new Column("text", "string", true, ""));
+		t.addColumn(new Column("number", "int", true, ""));
+		for (int i = 0; i < 10000; i++) {
+			t.addRow(List.of("value " + (i % 10), Integer.toString(i)));
+		}
+		Table snapshot = t.snapshot();
+		t.updateCell("text", 0, "changed");
+		t.setInt("number", 1, -1);
+		t.removeRow(2);
+		t.addRow(List.of("new", "5"));
+		assertEquals(10000, snapshot.getNumberOfRows());
+		assertEquals("value 0", snapshot.getCell("text", 0));
+		assertEquals(1, snapshot.getInt("number", 1));
+		assertEquals("value 2", snapshot.getCell("text", 2));
+		assertEquals("value 9", snapshot.getCell("text", 9999));
+		assertEquals("changed", t.getCell("text", 0));
+		assertEquals(-1, t.getInt("number", 1));
+		assertEquals("value 3", t.getCell("text", 2));
+		assertEquals("new", t.getCell("text", 9999));
+		snapshot.close();
+		t.updateCell("text", 1, "value 0");
+		assertEquals(1000, t.getColumn(0).countEqual("value 0"));
+	}
+
+	@Test
+	public void snapshotOutlivesOffHeapTableTest() {
+		Table t = new Table("name");
+		t.addColumn(new Column("text", "string", true, ""));
+		t.addColumn(new Column("number", "int", true, ""));
+		for (int i = 0; i < 10000; i++) {
+			t.addRow(List.of("value " + i, Integer.toString(i)));
+		}
+		t.moveOffHeap();
+		Table snapshot = t.snapshot();
+		assertTrue(snapshot.isOffHeap());
+		t.updateCell("text", 0, "changed");
+		t.close();
+		assertEquals("value 0", snapshot.getCell("text", 0));
+		assertEquals(9999, snapshot.getInt("number", 9999));
+		snapshot.close();
+	}
 }
@@ -6,6 +6,9 @@ package test;
 import static org.junit.Assert.*;
 import org.junit.Test;
 import main.TablrManager;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.List;
 import java.util.UUID;
 
@@ -182,4 +185,166 @@ public class TablrManagerTest {
 		assertEquals(mgr.getDefaultValue(id1, "Column0"), "Default");
 	}
 
+	@Test
+	public void testUndoLimit() {
+		TablrManager mgr = new TablrManager();
+		mgr.setUndoLimit(2);
+		UUID id1 = mgr.addTable();
+		mgr.moveTableOffHeap(id1);
+		mgr.addColumn(id1);
+		mgr.addRow(id1);
+		mgr.removeTable(id1);
+		mgr.undo();
+		mgr.undo();
+		mgr.undo();
+		assertEquals(1, mgr.getTableNames().size());
+		assertEquals(0, mgr.getColumns(id1).get(0).size());
+	}
+
+	@Test
+	public void testTableIndex() {
+		TablrManager manager = new TablrManager();
+		UUID first = manager.addTable();
+		UUID second = manager.addTable();
+		List<UUID> ids = manager.getTableIds();
+		assertSame(ids, manager.getTableIds());
+		assertEquals(List.of(first, second), ids);
+		manager.changeName(first, "renamed");
+		assertEquals(List.of("renamed", "Table1"), manager.getTableNames());
+		manager.undo();
+		assertEquals(List.of("Table0", "Table1"), manager.getTableNames());
+		manager.removeTable(first);
+		assertNull(manager.getTableName(first));
+		assertEquals(List.of(second), manager.getTableIds());
+		manager.undo();
+		assertEquals("Table0", manager.getTableName(first));
+		assertEquals(List.of(second, first), manager.getTableIds());
+		manager.redo();
+		assertEquals(List.of("Table1"), manager.getTableNames());
+		assertEquals("Table0", manager.getTableName(manager.addTable()));
+	}
+
+	@Test
+	public void testTypedCellAccess() {
+		TablrManager manager = new TablrManager();
+		UUID id = manager.addTable();
+		manager.addColumn(id);
+		manager.changeType(id, "Column0");
+		manager.changeType(id, "Column0");
+		manager.addRow(id);
+		assertEquals(0, manager.getInt(id, "Column0", 0));
+		manager.setInt(id, "Column0", 0, 42);
+		assertEquals(42, manager.getInt(id, "Column0", 0));
+		assertEquals("42", manager.getCell(id, "Column0", 0));
+		manager.undo();
+		assertEquals(0, manager.getInt(id, "Column0", 0));
+		manager.updateCell(id, "Column0", 0, "");
+		manager.setInt(id, "Column0", 0, 7);
+		manager.undo();
+		assertTrue(manager.isBlank(id, "Column0", 0));
+		manager.redo();
+		assertEquals(7, manager.getInt(id, "Column0", 0));
+		assertThrows(IllegalArgumentException.class, () -> manager.setBoolean(id, "Column0", 0, true));
+	}
+
+	@Test
+	public void testModificationCounts() {
+		TablrManager manager = new TablrManager();
+		UUID first = manager.addTable();
+		UUID second = manager.addTable();
+		long countFirst = manager.getModificationCount(first);
+		long countSecond = manager.getModificationCount(second);
+		long total = manager.getModificationCount();
+		manager.addColumn(first);
+		assertTrue(manager.getModificationCount(first) > countFirst);
+		assertEquals(countSecond, manager.getModificationCount(second));
+		assertTrue(manager.getModificationCount() > total);
+		countFirst = manager.getModificationCount(first);
+		manager.undo();
+		assertTrue(manager.getModificationCount(first) > countFirst);
+		countFirst = manager.getModificationCount(first);
+		manager.redo();
+		assertTrue(manager.getModificationCount(first) > countFirst);
+		assertEquals(countSecond, manager.getModificationCount(second));
+	}
+
+	@Test
+	public void testSaveLoad() throws IOException {
+		TablrManager manager = new TablrManager();
+		UUID id = manager.addTable();
+		manager.changeName(id, "Numbers");
+		manager.addColumn(id);
+		manager.addColumn(id);
+		manager.addColumn(id);
+		manager.changeType(id, "Column0");
+		manager.changeType(id, "Column0");
+		manager.changeNameColumn(id, "Column2", "Text");
+		for (int i = 0; i < 100; i++) {
+			manager.addRow(id);
+			manager.setInt(id, "Column0", i, i * 3);
+			manager.updateCell(id, "Text", i, i % 7 == 0 ? "" : "caf\u00e9 " + i);
+		}
+		manager.updateCell(id, "Column0", 5, "");
+		manager.setDefaultValue(id, "Text", "none");
+		UUID empty = manager.addTable();
+		Path file = Files.createTempFile("workspace", ".tablr");
+		try {
+			manager.save(file);
+			TablrManager loaded = new TablrManager();
+			loaded.addTable();
+			loaded.load(file);
+			assertEquals(List.of(id, empty), loaded.getTableIds());
+			assertEquals(manager.getTableNames(), loaded.getTableNames());
+			assertEquals(manager.getColumnsInfo(id), loaded.getColumnsInfo(id));
+			assertEquals(manager.getColumns(id), loaded.getColumns(id));
+			assertEquals("none", loaded.getDefaultValue(id, "Text"));
+			assertTrue(loaded.isBlank(id, "Column0", 5));
+			assertEquals(3 * 99, loaded.getInt(id, "Column0", 99));
+			assertEquals(0, loaded.getNumberOfColumns(empty));
+			loaded.undo();
+			assertEquals(List.of(id, empty), loaded.getTableIds());
+			loaded.changeType(id, "Column0");
+			assertEquals("string", loaded.getClass(id, "Column0"));
+		} finally {
+			Files.delete(file);
+		}
+	}
+
+	@Test
+	public void testOpenMapped() throws IOException {
+		TablrManager manager = new TablrManager();
+		UUID id = manager.addTable();
+		manager.addColumn(id);
+		manager.addColumn(id);
+		manager.addColumn(id);
+		manager.changeType(id, "Column0");
+		manager.changeType(id, "Column0");
+		for (int i = 0; i < 200; i++) {
+			manager.addRow(id);
+			manager.setInt(id, "Column0", i, -i);
+			manager.updateCell(id, "Column2", i, i % 5 == 0 ? "" : "\u00e9t\u00e9 " + i);
+		}
+		manager.updateCell(id, "Column0", 3, "");
+		Path file = Files.createTempFile("workspace", ".tablr");
+		try {
+			manager.save(file);
+			TablrManager opened = new TablrManager();
+			opened.open(file);
+			assertEquals(manager.getTableNames(), opened.getTableNames());
+			assertEquals(manager.getColumns(id), opened.getColumns(id));
+			assertTrue(opened.isBlank(id, "Column0", 3));
+			assertTrue(opened.isBlank(id, "Column2", 5));
+			assertEquals(-199, opened.getInt(id, "Column0", 199));
+			opened.setInt(id, "Column0", 0, 42);
+			opened.removeRow(id, 1);
+			assertEquals(42, opened.getInt(id, "Column0", 0));
+			assertEquals("-2", opened.getCell(id, "Column0", 1));
+			assertEquals("\u00e9t\u00e9 2", opened.getCell(id, "Column2", 1));
+			opened.undo();
+			opened.undo();
+			assertEquals(manager.getColumns(id), opened.getColumns(id));
+		} finally {
+			Files.delete(file);
+		}
+	}
 }
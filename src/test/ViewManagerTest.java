@@ -0,0 +1,238 @@
+package test;
+
+import static org.junit.Assert.*;
+
+import java.awt.Graphics;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+import org.junit.Test;
+
+import main.AbstractView;
+import main.EditRowView;
+import main.LayoutInfo;
+import main.RowsView;
+import main.TablrManager;
+import main.ViewList;
+import main.ViewManager;
+
+public class ViewManagerTest {
+
+	/**
+	 * View that counts how often it is painted and depends on a single table.
+	 */
+	private static class CountingView extends AbstractView {
+		private final UUID tableId;
+		int paints;
+
+		CountingView(TablrManager mgr, ViewList viewList, UUID tableId) {
+			super(mgr, new LayoutInfo(), viewList);
+			this.tableId = tableId;
+		}
+
+		@Override
+		public long getContentVersion() {
+			return getMgr().getModificationCount(tableId);
+		}
+
+		@Override
+		public String getTitle() {
+			return "Counting";
+		}
+
+		@Override
+		public void paint(Graphics g) {
+			paints++;
+		}
+
+		@Override
+		public void handleDoubleClick(int x, int y) {
+		}
+
+		@Override
+		public void handleSingleClick(int x, int y) {
+		}
+
+		@Override
+		public void handleEscape() {
+		}
+
+		@Override
+		public void handleBackSpace() {
+		}
+
+		@Override
+		public void handleCtrlEnter() {
+		}
+
+		@Override
+		public void handleEnter() {
+		}
+
+		@Override
+		public void handleDelete() {
+		}
+
+		@Override
+		public void handleCharTyped(char keyChar) {
+		}
+	}
+
+	@Test
+	public void testRenderCache() {
+		TablrManager mgr = new TablrManager();
+		ViewManager viewManager = new ViewManager(mgr);
+		UUID first = mgr.addTable();
+		UUID second = mgr.addTable();
+		CountingView firstView = new CountingView(mgr, viewManager, first);
+		CountingView secondView = new CountingView(mgr, viewManager, second);
+		viewManager.openView(firstView);
+		viewManager.openView(secondView);
+		Graphics g = new BufferedImage(400, 400, BufferedImage.TYPE_INT_ARGB).getGraphics();
+
+		viewManager.paint(g);
+		viewManager.paint(g);
+		assertEquals(1, firstView.paints);
+		assertEquals(1, secondView.paints);
+
+		viewManager.handleEscape();
+		viewManager.paint(g);
+		assertEquals(1, firstView.paints);
+		assertEquals(2, secondView.paints);
+
+		mgr.addColumn(first);
+		viewManager.paint(g);
+		assertEquals(2, firstView.paints);
+		assertEquals(2, secondView.paints);
+	}
+
+	@Test
+	public void testSnapshotDoesNotReadTheTablesLater() {
+		TablrManager mgr = new TablrManager();
+		ViewManager viewManager = new ViewManager(mgr);
+		LayoutInfo layoutInfo = new LayoutInfo();
+		UUID table = mgr.addTable();
+		mgr.addColumn(table);
+		mgr.addRow(table);
+		String column = mgr.getColumnNames(table).getFirst();
+		mgr.updateCell(table, column, 0, "before");
+		layoutInfo.getTableLayout(table).getViewLayout(RowsView.class).setWidths(List.of(50));
+		viewManager.openView(new RowsView(mgr, layoutInfo, viewManager, table));
+		BufferedImage snapshot = new BufferedImage(400, 400, BufferedImage.TYPE_INT_ARGB);
+		Graphics g = snapshot.getGraphics();
+
+		Consumer<Graphics> painter = viewManager.snapshot(null, g.getFont(), g.getColor());
+		mgr.updateCell(table, column, 0, "after");
+		painter.accept(g);
+
+		// painting the same content directly draws the same pixels
+		mgr.updateCell(table, column, 0, "before");
+		BufferedImage painted = new BufferedImage(400, 400, BufferedImage.TYPE_INT_ARGB);
+		viewManager.paint(painted.getGraphics());
+		assertArrayEquals(painted.getRGB(0, 0, 400, 400, null, 0, 400), snapshot.getRGB(0, 0, 400, 400, null, 0, 400));
+
+		mgr.updateCell(table, column, 0, "after");
+		viewManager.paint(painted.getGraphics());
+		assertFalse(Arrays.equals(painted.getRGB(0, 0, 400, 400, null, 0, 400), snapshot.getRGB(0, 0, 400, 400, null, 0, 400)));
+	}
+
+	@Test
+	public void testCoveredViewsAreNotPainted() {
+		TablrManager mgr = new TablrManager();
+		ViewManager viewManager = new ViewManager(mgr);
+		UUID table = mgr.addTable();
+		CountingView bottom = new CountingView(mgr, viewManager, table);
+		CountingView top = new CountingView(mgr, viewManager, table);
+		viewManager.openView(bottom);
+		viewManager.openView(top);
+		viewManager.moveViewLocation(top, -10, -10);
+		Graphics g = new BufferedImage(400, 400, BufferedImage.TYPE_INT_ARGB).getGraphics();
+
+		viewManager.paint(g);
+		assertEquals(0, bottom.paints);
+		assertEquals(1, top.paints);
+
+		mgr.addColumn(table);
+		viewManager.paint(g);
+		assertEquals(0, bottom.paints);
+		assertEquals(2, top.paints);
+
+		viewManager.moveViewLocation(top, 50, 0);
+		viewManager.paint(g);
+		assertEquals(1, bottom.paints);
+		assertEquals(2, top.paints);
+
+		g.setClip(340, 0, 60, 40);
+		mgr.addColumn(table);
+		viewManager.paint(g);
+		assertEquals(1, bottom.paints);
+		assertEquals(3, top.paints);
+	}
+
+	@Test
+	public void testTypingDamagesOnlyTheCell() {
+		TablrManager mgr = new TablrManager();
+		ViewManager viewManager = new ViewManager(mgr);
+		LayoutInfo layoutInfo = new LayoutInfo();
+		UUID table = mgr.addTable();
+		mgr.addColumn(table);
+		mgr.addRow(table);
+		layoutInfo.getTableLayout(table).getViewLayout(RowsView.class).setWidths(List.of(50));
+		RowsView rowsView = new RowsView(mgr, layoutInfo, viewManager, table);
+		viewManager.openView(rowsView);
+		Graphics g = new BufferedImage(400, 400, BufferedImage.TYPE_INT_ARGB).getGraphics();
+		assertEquals(new Rectangle(10, 10, 300, 300), viewManager.takeDamage());
+		viewManager.paint(g);
+		assertTrue(viewManager.takeDamage().isEmpty());
+
+		String column = mgr.getColumnNames(table).getFirst();
+		EditRowView editView = new EditRowView(mgr, layoutInfo, viewManager, rowsView, table, column, 0);
+		viewManager.substituteView(rowsView, editView);
+		assertEquals(new Rectangle(10, 10, 300, 300), viewManager.takeDamage());
+		viewManager.paint(g);
+
+		viewManager.handleBackSpace();
+		viewManager.handleCharTyped('a');
+		assertEquals(new Rectangle(30, 30, 280, 30), viewManager.takeDamage());
+		viewManager.paint(g);
+		assertEquals("a", mgr.getCell(table, column, 0));
+		assertTrue(viewManager.takeDamage().isEmpty());
+
+		viewManager.handleEscape();
+		assertEquals(new Rectangle(10, 10, 300, 300), viewManager.takeDamage());
+	}
+
+	@Test
+	public void testRowsViewOfImportedTable() throws IOException {
+		Path file = Files.createTempFile("imported", ".csv");
+		try {
+			Files.writeString(file, "name,age\nAnn,31\nBob,42\n");
+			TablrManager mgr = new TablrManager();
+			ViewManager viewManager = new ViewManager(mgr);
+			LayoutInfo layoutInfo = new LayoutInfo();
+			UUID table = mgr.importCsv(file);
+			RowsView rowsView = new RowsView(mgr, layoutInfo, viewManager, table);
+			viewManager.openView(rowsView);
+			Graphics g = new BufferedImage(400, 400, BufferedImage.TYPE_INT_ARGB).getGraphics();
+			viewManager.paint(g);
+			assertEquals(List.of(50, 50), layoutInfo.getTableLayout(table).getViewLayout(RowsView.class).getWidths());
+
+			Rectangle cell = rowsView.getCellBounds("age", 1);
+			assertFalse(cell.isEmpty());
+			viewManager.takeDamage();
+			rowsView.handleSingleClick(cell.x + 1, cell.y + 1);
+			// the click opens an editor for the cell in place of the rows view
+			assertEquals(new Rectangle(10, 10, 300, 300), viewManager.takeDamage());
+			rowsView.handleSingleClick(390, cell.y + 1);
+		} finally {
+			Files.delete(file);
+		}
+	}
+}